@@ -5,6 +5,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -26,7 +27,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
 
 /**
- * Benchmarks apoc.meta.stats.
+ * Benchmarks apoc.meta.stats, apoc.meta.schema and apoc.meta.data.
  * Note, this was thrown together very quickly to have some form of ground for optimisations done for a support card.
  * Probably all kinds of problems here.
  */
@@ -35,12 +36,28 @@ public class ApocMetaStatsBenchmark {
     private EmbeddedNeo4j embeddedNeo4j;
     private GraphDatabaseService db;
 
+    // number of labels and of relationship types, 300 x 300 pairs make apoc.meta.stats read the counts in parallel
+    @Param({"30", "300"})
+    public int tokenCount;
+
     @Benchmark
     @BenchmarkMode(Mode.Throughput)
     public Object benchmarkMetaStats() {
         return db.executeTransactionally("CALL apoc.meta.stats()", Map.of(), r -> r.stream().toList());
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object benchmarkMetaSchema() {
+        return db.executeTransactionally("CALL apoc.meta.schema()", Map.of(), r -> r.stream().toList());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object benchmarkMetaData() {
+        return db.executeTransactionally("CALL apoc.meta.data()", Map.of(), r -> r.stream().toList());
+    }
+
     @Setup(Level.Trial)
     public void setup() throws IOException {
         System.out.println("Starting...");
@@ -54,9 +71,9 @@ public class ApocMetaStatsBenchmark {
     }
 
     private void createData() {
-        final int labelCount = 30;
+        final int labelCount = tokenCount;
         final int totNodeCount = 10000;
-        final int relTypeCount = 30;
+        final int relTypeCount = tokenCount;
         final int totRelCount = 10000;
         final var rand = new Random(23);
         final var labels = IntStream.range(0, labelCount).mapToObj(i -> Label.label("Label" + i)).toList();
@@ -66,7 +83,9 @@ public class ApocMetaStatsBenchmark {
             final var nodes = new ArrayList<Node>();
             for (int i = 0; i < totNodeCount; ++i) {
                 final var ls = IntStream.range(0, rand.nextInt(10)).mapToObj(x -> labels.get(rand.nextInt(labels.size()))).toArray(Label[]::new);
-                nodes.add(tx.createNode(ls));
+                final var node = tx.createNode(ls);
+                node.setProperty("prop" + (i % 5), i);
+                nodes.add(node);
             }
             System.out.println("Created nodes " + totNodeCount);
             int relCount = 0;
@@ -0,0 +1,105 @@
+package org.neo4j.apoc.benchmark;
+
+import apoc.export.graphml.XmlGraphMLReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+
+/**
+ * Benchmarks the event based and the cursor based parsers of apoc.import.graphml on a generated GraphML file.
+ * The imported graph is deleted after each import, so the measured time includes writing the nodes and relationships.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphMLImportBenchmark {
+    private EmbeddedNeo4j embeddedNeo4j;
+    private GraphDatabaseService db;
+    private Path file;
+
+    @Param({"false", "true"})
+    public boolean cursorParser;
+
+    @Param({"100000"})
+    public int nodeCount;
+
+    @Benchmark
+    public long benchmarkImportGraphML() throws Exception {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return new XmlGraphMLReader(db)
+                    .nodeLabels(true)
+                    .batchSize(10000)
+                    .cursorParser(cursorParser)
+                    .parseXML(reader, () -> {});
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        System.out.println("Starting...");
+        this.embeddedNeo4j = EmbeddedNeo4j.start();
+        System.out.println("Started in " + embeddedNeo4j.directory);
+        this.db = embeddedNeo4j.db;
+        System.out.println("Creating file...");
+        this.file = createFile();
+        System.out.println("Created " + file + " of " + Files.size(file) + " bytes");
+    }
+
+    private Path createFile() throws IOException {
+        final var rand = new Random(23);
+        final var path = Files.createTempFile("graphml-bench", ".graphml");
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+                    + "<key id=\"labels\" for=\"node\" attr.name=\"labels\"/>\n"
+                    + "<key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>\n"
+                    + "<key id=\"age\" for=\"node\" attr.name=\"age\" attr.type=\"long\"/>\n"
+                    + "<key id=\"scores\" for=\"node\" attr.name=\"scores\" attr.type=\"string\" attr.list=\"double\"/>\n"
+                    + "<key id=\"label\" for=\"edge\" attr.name=\"label\"/>\n"
+                    + "<key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"/>\n"
+                    + "<graph id=\"G\" edgedefault=\"directed\">\n");
+            for (int i = 0; i < nodeCount; i++) {
+                writer.write("<node id=\"n" + i + "\" labels=\":Person\"><data key=\"labels\">:Person</data>"
+                        + "<data key=\"name\">name" + i + "</data>"
+                        + "<data key=\"age\">" + rand.nextInt(100) + "</data>"
+                        + "<data key=\"scores\">[" + rand.nextDouble() + "," + rand.nextDouble() + "]</data></node>\n");
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                writer.write("<edge id=\"e" + i + "\" source=\"n" + i + "\" target=\"n" + rand.nextInt(nodeCount)
+                        + "\" label=\"KNOWS\"><data key=\"label\">KNOWS</data>"
+                        + "<data key=\"weight\">" + rand.nextDouble() + "</data></edge>\n");
+            }
+            writer.write("</graph>\n</graphml>\n");
+        }
+        return path;
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteGraph() {
+        db.executeTransactionally("MATCH (n) CALL { WITH n DETACH DELETE n } IN TRANSACTIONS OF 10000 ROWS");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        embeddedNeo4j.managementService.shutdown();
+        Files.deleteIfExists(file);
+    }
+}
@@ -19,7 +19,9 @@
 package apoc;
 
 import apoc.periodic.PeriodicUtils;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -36,6 +38,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -49,12 +52,51 @@ public class Pools extends LifecycleAdapter {
 
     public static final int DEFAULT_SCHEDULED_THREADS = Runtime.getRuntime().availableProcessors() / 4;
     public static final int DEFAULT_POOL_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    public static final int DEFAULT_VIRTUAL_POOL_THREADS = 1024;
     private final Log log;
     private final ApocConfig apocConfig;
 
     private ExecutorService singleExecutorService;
     private ScheduledExecutorService scheduledExecutorService;
     private ExecutorService defaultExecutorService;
+    private final Map<Workload, ExecutorService> workloadExecutorServices = new EnumMap<>(Workload.class);
+    private final Map<String, CallerBlocksPolicy> callerBlocksPolicies = new ConcurrentHashMap<>();
+
+    private boolean virtualIoThreads;
+
+    /**
+     * The workloads with a dedicated pool, so that e.g. a big `apoc.periodic.iterate` doesn't starve the triggers.
+     * Each pool can be sized via `apoc.jobs.<name>.num_threads` and `apoc.jobs.<name>.queue.size`,
+     * by default it has the same size as the default pool.
+     * The periodic driver pool reads the statement of an `apoc.periodic.iterate` with `streamProgress: true`,
+     * apart from the periodic pool that runs its batches.
+     * The meta pool runs the per-label scans of the `apoc.meta.*` procedures.
+     * The IO pool runs the imports streaming from files, urls and cloud storages; with `apoc.jobs.io.virtual_threads=true`
+     * it uses virtual threads (if the JVM supports them) and by default allows {@link #DEFAULT_VIRTUAL_POOL_THREADS} concurrent tasks.
+     */
+    public enum Workload {
+        PERIODIC,
+        PERIODIC_DRIVER,
+        TRIGGER,
+        EXPORT,
+        GROUPING,
+        META,
+        ARROW,
+        TIMEBOXED,
+        IO;
+
+        public String poolName() {
+            return name().toLowerCase();
+        }
+
+        public String numThreadsKey() {
+            return "apoc.jobs." + poolName() + ".num_threads";
+        }
+
+        public String queueSizeKey() {
+            return "apoc.jobs." + poolName() + ".queue.size";
+        }
+    }
 
     private final Map<PeriodicUtils.JobInfo, Future> jobList = new ConcurrentHashMap<>();
 
@@ -89,7 +131,7 @@ public class Pools extends LifecycleAdapter {
                 TimeUnit.SECONDS,
                 new ArrayBlockingQueue<>(queueSize),
                 threadFactory,
-                new CallerBlocksPolicy());
+                callerBlocksPolicy("single"));
 
         this.defaultExecutorService = new ThreadPoolExecutor(
                 threads / 2,
@@ -98,7 +140,38 @@ public class Pools extends LifecycleAdapter {
                 TimeUnit.SECONDS,
                 new ArrayBlockingQueue<>(queueSize),
                 threadFactory,
-                new CallerBlocksPolicy());
+                callerBlocksPolicy("default"));
+
+        ThreadFactory ioThreadFactory = threadFactory;
+        if (apocConfig.getBoolean(ApocConfig.APOC_CONFIG_JOBS_IO_VIRTUAL_THREADS, false)) {
+            ThreadFactory virtualThreadFactory = virtualThreadFactory();
+            if (virtualThreadFactory == null) {
+                log.warn("Virtual threads are not supported by this JVM, the io pool will use platform threads");
+            } else {
+                ioThreadFactory = virtualThreadFactory;
+                virtualIoThreads = true;
+            }
+        }
+
+        for (Workload workload : Workload.values()) {
+            boolean virtual = workload == Workload.IO && virtualIoThreads;
+            int workloadThreads = Math.max(
+                    1, apocConfig.getInt(workload.numThreadsKey(), virtual ? DEFAULT_VIRTUAL_POOL_THREADS : threads));
+            int workloadQueueSize =
+                    Math.max(1, apocConfig.getInt(workload.queueSizeKey(), Math.max(queueSize, workloadThreads * 5)));
+            // virtual threads are cheap, so a new one is started for each task up to the limit instead of queueing it
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    virtual ? workloadThreads : Math.max(1, workloadThreads / 2),
+                    workloadThreads,
+                    30L,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(workloadQueueSize),
+                    workload == Workload.IO ? ioThreadFactory : threadFactory,
+                    callerBlocksPolicy(workload.poolName()));
+            // the dedicated pools are idle most of the time
+            executor.allowCoreThreadTimeOut(true);
+            workloadExecutorServices.put(workload, executor);
+        }
 
         this.scheduledExecutorService = Executors.newScheduledThreadPool(
                 Math.max(
@@ -123,7 +196,9 @@ public class Pools extends LifecycleAdapter {
 
     @Override
     public void shutdown() {
-        Stream.of(singleExecutorService, defaultExecutorService, scheduledExecutorService)
+        Stream.concat(
+                        Stream.of(singleExecutorService, defaultExecutorService, scheduledExecutorService),
+                        workloadExecutorServices.values().stream())
                 .forEach(service -> {
                     try {
                         service.shutdown();
@@ -146,13 +221,84 @@ public class Pools extends LifecycleAdapter {
         return defaultExecutorService;
     }
 
+    /**
+     * Returns the dedicated pool of the given workload
+     */
+    public ExecutorService getExecutorService(Workload workload) {
+        return workloadExecutorServices.get(workload);
+    }
+
     public Map<PeriodicUtils.JobInfo, Future> getJobList() {
         return jobList;
     }
 
+    public Stream<PoolInfo> getPoolInfos() {
+        Map<String, ExecutorService> executors = new LinkedHashMap<>();
+        executors.put("default", defaultExecutorService);
+        executors.put("single", singleExecutorService);
+        executors.put("scheduled", scheduledExecutorService);
+        workloadExecutorServices.forEach((workload, executor) -> executors.put(workload.poolName(), executor));
+        return executors.entrySet().stream()
+                .map(e -> new PoolInfo(
+                        e.getKey(),
+                        (ThreadPoolExecutor) e.getValue(),
+                        callerBlocksPolicies.get(e.getKey()),
+                        virtualIoThreads && Workload.IO.poolName().equals(e.getKey())));
+    }
+
+    /**
+     * Returns a factory of virtual threads, or null if the JVM doesn't support them (they are final since JDK 21).
+     * APOC is compiled for JDK 17, hence the reflection.
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "apoc-io-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private CallerBlocksPolicy callerBlocksPolicy(String poolName) {
+        return callerBlocksPolicies.computeIfAbsent(poolName, name -> new CallerBlocksPolicy());
+    }
+
+    public static class PoolInfo {
+        public final String name;
+        public final long maxThreads;
+        public final long poolSize;
+        public final long activeThreads;
+        public final long queueSize;
+        public final long remainingQueueCapacity;
+        public final long completedTasks;
+        public final long callerBlocks;
+        public final boolean virtualThreads;
+
+        PoolInfo(String name, ThreadPoolExecutor executor, CallerBlocksPolicy policy, boolean virtualThreads) {
+            this.name = name;
+            this.virtualThreads = virtualThreads;
+            this.maxThreads = executor.getMaximumPoolSize();
+            this.poolSize = executor.getPoolSize();
+            this.activeThreads = executor.getActiveCount();
+            this.queueSize = executor.getQueue().size();
+            this.remainingQueueCapacity = executor.getQueue().remainingCapacity();
+            this.completedTasks = executor.getCompletedTaskCount();
+            this.callerBlocks = policy == null ? 0 : policy.getCallerBlocks();
+        }
+    }
+
     static class CallerBlocksPolicy implements RejectedExecutionHandler {
+        private final AtomicLong callerBlocks = new AtomicLong();
+
+        long getCallerBlocks() {
+            return callerBlocks.get();
+        }
+
         @Override
         public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            callerBlocks.incrementAndGet();
             // Submit again by directly injecting the task into the work queue, waiting if necessary, but also
             // periodically checking if the pool has been
             // shut down.
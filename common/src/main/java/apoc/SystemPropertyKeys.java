@@ -30,4 +30,11 @@ public enum SystemPropertyKeys {
     selector,
     params,
     paused,
+
+    // periodic checkpoints
+    offset,
+    lastKey,
+    committedBatches,
+    failedBatches,
+    completed,
 }
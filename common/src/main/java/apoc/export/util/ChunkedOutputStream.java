@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Cuts the bytes written to it into chunks of at most chunkSize bytes, and hands each full chunk to the consumer.
+ * The last, partial chunk is handed over on close.
+ */
+public class ChunkedOutputStream extends OutputStream {
+    private final Consumer<byte[]> consumer;
+    private final byte[] chunk;
+    private int size;
+    private boolean closed;
+
+    public ChunkedOutputStream(int chunkSize, Consumer<byte[]> consumer) {
+        this.consumer = consumer;
+        this.chunk = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) {
+        chunk[size++] = (byte) b;
+        if (size == chunk.length) {
+            emit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            int n = Math.min(len, chunk.length - size);
+            System.arraycopy(b, off, chunk, size, n);
+            size += n;
+            off += n;
+            len -= n;
+            if (size == chunk.length) {
+                emit();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (size > 0) {
+            emit();
+        }
+    }
+
+    private void emit() {
+        consumer.accept(Arrays.copyOf(chunk, size));
+        size = 0;
+    }
+}
@@ -66,6 +66,7 @@ public class ExportConfig extends CompressionConfig {
     private boolean saveIndexNames;
     private boolean bulkImport;
     private boolean sampling;
+    private boolean singlePass;
     private String delim;
     private String quotes;
     private boolean useTypes;
@@ -88,6 +89,9 @@ public class ExportConfig extends CompressionConfig {
     private OptimizationType optimizationType;
     private int unwindBatchSize;
     private long awaitForIndexes;
+    private boolean parallel;
+    private int concurrency;
+    private int streamChunkSize;
     private final Map<String, Object> samplingConfig;
 
     public int getBatchSize() {
@@ -157,12 +161,17 @@ public class ExportConfig extends CompressionConfig {
         this.batchSize = ((Number) config.getOrDefault("batchSize", DEFAULT_BATCH_SIZE)).intValue();
         this.sampling = toBoolean(config.getOrDefault("sampling", false));
         this.samplingConfig = (Map<String, Object>) config.getOrDefault("samplingConfig", new HashMap<>());
+        this.singlePass = toBoolean(config.get("singlePass"));
         this.unwindBatchSize =
                 ((Number) getOptimizations().getOrDefault("unwindBatchSize", DEFAULT_UNWIND_BATCH_SIZE)).intValue();
         this.awaitForIndexes = ((Number) config.getOrDefault("awaitForIndexes", 300)).longValue();
         this.multipleRelationshipsWithType = toBoolean(config.get(RELS_WITH_TYPE_KEY));
         this.source = new NodeConfig((Map<String, String>) config.get("source"));
         this.target = new NodeConfig((Map<String, String>) config.get("target"));
+        this.parallel = toBoolean(config.get("parallel"));
+        this.concurrency = Util.toInteger(
+                config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors()));
+        this.streamChunkSize = Util.toInteger(config.getOrDefault("streamChunkSize", 0));
         validate();
     }
 
@@ -180,6 +189,12 @@ public class ExportConfig extends CompressionConfig {
             throw new RuntimeException("`unwindBatchSize` must be <= `batchSize`, but got [unwindBatchSize:"
                     + unwindBatchSize + ", batchSize:" + batchSize + "]");
         }
+        if (this.concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency parameter must be > 0");
+        }
+        if (this.streamChunkSize < 0) {
+            throw new IllegalArgumentException("streamChunkSize parameter must be >= 0");
+        }
     }
 
     private void exportQuotes(Map<String, Object> config) {
@@ -226,6 +241,14 @@ public class ExportConfig extends CompressionConfig {
         return toBoolean(config.getOrDefault("storeNodeIds", false));
     }
 
+    public boolean useCursorParser() {
+        return toBoolean(config.getOrDefault("cursorParser", false));
+    }
+
+    public long getIdMappingHeapBudget() {
+        return Util.toLong(config.getOrDefault("idMappingHeapBudget", IdMapping.UNLIMITED_HEAP_BUDGET));
+    }
+
     public boolean separateFiles() {
         return toBoolean(config.getOrDefault("separateFiles", false));
     }
@@ -281,6 +304,10 @@ public class ExportConfig extends CompressionConfig {
         return sampling;
     }
 
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
     public boolean ifNotExists() {
         return ifNotExists;
     }
@@ -288,4 +315,23 @@ public class ExportConfig extends CompressionConfig {
     public boolean shouldSaveIndexNames() {
         return saveIndexNames;
     }
+
+    /**
+     * Whether the whole database is exported in chunks, each one read in a transaction of its own.
+     * Unlike the serial export, the output is not a snapshot: the writes committed meanwhile can be partially included.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * With stream: true and a positive streamChunkSize, the data is streamed as byte chunks of at most this size
+     */
+    public int getStreamChunkSize() {
+        return streamChunkSize;
+    }
 }
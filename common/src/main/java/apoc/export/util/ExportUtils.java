@@ -20,9 +20,16 @@ package apoc.export.util;
 
 import apoc.export.cypher.ExportFileManager;
 import apoc.result.ProgressInfo;
+import apoc.util.CompressionAlgo;
 import apoc.util.QueueBasedSpliterator;
 import apoc.util.QueueUtil;
 import apoc.util.Util;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
@@ -32,6 +39,9 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.procedure.TerminationGuard;
 
 public class ExportUtils {
+    // the chunks waiting for the client, which bound the memory of a chunked stream to CHUNKS_IN_FLIGHT * chunkSize
+    private static final int CHUNKS_IN_FLIGHT = 16;
+
     private ExportUtils() {}
 
     public static Stream<ProgressInfo> getProgressInfoStream(
@@ -44,13 +54,21 @@ public class ExportUtils {
             ExportFileManager cypherFileManager,
             Consumer<ProgressReporter> dump) {
         long timeout = exportConfig.getTimeoutSeconds();
-        final ArrayBlockingQueue<ProgressInfo> queue = new ArrayBlockingQueue<>(1000);
-        ProgressReporter reporterWithConsumer = reporter.withConsumer((pi) -> QueueUtil.put(
-                queue,
-                pi == ProgressInfo.EMPTY
-                        ? ProgressInfo.EMPTY
-                        : new ProgressInfo(pi).drain(cypherFileManager.getStringWriter(format), exportConfig),
-                timeout));
+        final ArrayBlockingQueue<ProgressInfo> queue;
+        final Consumer<ProgressInfo> consumer;
+        if (exportConfig.getStreamChunkSize() > 0) {
+            queue = new ArrayBlockingQueue<>(CHUNKS_IN_FLIGHT);
+            consumer = new ChunkedDrain(queue, cypherFileManager, format, exportConfig);
+        } else {
+            queue = new ArrayBlockingQueue<>(1000);
+            consumer = (pi) -> QueueUtil.put(
+                    queue,
+                    pi == ProgressInfo.EMPTY
+                            ? ProgressInfo.EMPTY
+                            : new ProgressInfo(pi).drain(cypherFileManager.getStringWriter(format), exportConfig),
+                    timeout);
+        }
+        ProgressReporter reporterWithConsumer = reporter.withConsumer(consumer);
         Util.inTxFuture(
                 null,
                 executorService,
@@ -66,4 +84,70 @@ public class ExportUtils {
                 new QueueBasedSpliterator<>(queue, ProgressInfo.EMPTY, terminationGuard, (int) timeout);
         return StreamSupport.stream(spliterator, false);
     }
+
+    /**
+     * Encodes and compresses the data of all the batches into a single stream, kept open across the batches,
+     * and queues it as byte chunks of at most streamChunkSize, each one with the progress of its batch.
+     * The concatenation of the chunks is the whole, possibly compressed, export.
+     * A full queue blocks the export until the client pulls the chunks.
+     */
+    private static class ChunkedDrain implements Consumer<ProgressInfo> {
+        private final ArrayBlockingQueue<ProgressInfo> queue;
+        private final ExportFileManager fileManager;
+        private final String format;
+        private final long timeout;
+        private final Writer encoder;
+        private ProgressInfo progress;
+        // whether the current progress has already been queued with a chunk
+        private boolean reported = true;
+
+        ChunkedDrain(
+                ArrayBlockingQueue<ProgressInfo> queue,
+                ExportFileManager fileManager,
+                String format,
+                ExportConfig config) {
+            this.queue = queue;
+            this.fileManager = fileManager;
+            this.format = format;
+            this.timeout = config.getTimeoutSeconds();
+            try {
+                OutputStream chunks = new ChunkedOutputStream(config.getStreamChunkSize(), this::put);
+                OutputStream compressed = CompressionAlgo.valueOf(config.getCompressionAlgo()).getOutputStream(chunks);
+                this.encoder = new OutputStreamWriter(compressed, config.getCharset());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void accept(ProgressInfo pi) {
+            try {
+                if (pi == ProgressInfo.EMPTY) {
+                    encoder.close();
+                    if (!reported) {
+                        put(new byte[0]);
+                    }
+                    QueueUtil.put(queue, ProgressInfo.EMPTY, timeout);
+                    return;
+                }
+                progress = new ProgressInfo(pi);
+                reported = false;
+                StringWriter writer = fileManager.getStringWriter(format);
+                if (writer != null) {
+                    StringBuffer buffer = writer.getBuffer();
+                    encoder.append(buffer);
+                    buffer.setLength(0);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void put(byte[] chunk) {
+            ProgressInfo row = new ProgressInfo(progress);
+            row.data = chunk;
+            QueueUtil.put(queue, row, timeout);
+            reported = true;
+        }
+    }
 }
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the ids of the imported files to the internal ids of the created nodes, for each id space.
+ *
+ * Instead of keeping a `String` to element id `String` entry for each node, the ids are stored in primitive
+ * open addressing tables: ids in canonical decimal form as `long` keys, the other ones dictionary-encoded
+ * as UTF-8 bytes in an append-only arena. The tables are split in segments with their own lock,
+ * so that they can be filled and read by concurrent batches.
+ *
+ * The tables are kept on the heap up to the given heap budget, the ones allocated past it are memory-mapped
+ * from a temporary file, so that the ids of imports bigger than the heap are paged in and out by the OS.
+ */
+public class IdMapping implements AutoCloseable {
+    public static final long NOT_FOUND = -1L;
+    public static final long UNLIMITED_HEAP_BUDGET = Long.MAX_VALUE;
+    // ids with more than 18 digits are not parsed, so Long.MIN_VALUE is never a parsed id
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    private final Map<String, IdSpace> idSpaces = new ConcurrentHashMap<>();
+    private final IdMappingStorage storage;
+
+    public IdMapping() {
+        this(UNLIMITED_HEAP_BUDGET);
+    }
+
+    /**
+     * @param heapBudget the bytes of the tables to keep on the heap, before spilling them to disk
+     */
+    public IdMapping(long heapBudget) {
+        if (heapBudget < 0) {
+            throw new IllegalArgumentException("The heap budget of the id mapping must be >= 0");
+        }
+        this.storage = new IdMappingStorage(heapBudget);
+    }
+
+    public IdSpace idSpace(String name) {
+        return idSpaces.computeIfAbsent(name, k -> new IdSpace(storage));
+    }
+
+    /**
+     * Returns the internal id of the node with the given id in the given id space, or {@link #NOT_FOUND}
+     */
+    public long get(String idSpace, String id) {
+        IdSpace space = idSpaces.get(idSpace);
+        return space == null ? NOT_FOUND : space.get(id);
+    }
+
+    /**
+     * Returns the number of bytes spilled to disk
+     */
+    public long spilledBytes() {
+        return storage.spilledBytes();
+    }
+
+    /**
+     * Deletes the file of the spilled tables, the mapping can't be used afterwards
+     */
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    public static class IdSpace {
+        private static final int SEGMENTS = 64;
+
+        private final Segment[] segments = new Segment[SEGMENTS];
+        // a null id can't be stored in the tables, and never matches an id to look up
+        private boolean nullIdReserved;
+
+        IdSpace(IdMappingStorage storage) {
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment(storage);
+            }
+        }
+
+        /**
+         * Reserves the id for a node about to be created, returns false if the id is already mapped or reserved
+         */
+        public boolean reserve(String id) {
+            if (id == null) {
+                synchronized (this) {
+                    boolean reserved = !nullIdReserved;
+                    nullIdReserved = true;
+                    return reserved;
+                }
+            }
+            return put(id, Segment.PENDING, false);
+        }
+
+        /**
+         * Maps the id to the internal id of its node
+         */
+        public void put(String id, long nodeId) {
+            if (id == null) return;
+            put(id, nodeId + Segment.OFFSET, true);
+        }
+
+        /**
+         * Returns the internal id of the node with the given id, or {@link #NOT_FOUND}
+         */
+        public long get(String id) {
+            if (id == null) return NOT_FOUND;
+            long numericId = parseCanonicalLong(id);
+            if (numericId != NOT_A_NUMBER) {
+                Segment segment = segments[segmentOf(mix(numericId))];
+                synchronized (segment) {
+                    return toNodeId(segment.getLong(numericId));
+                }
+            }
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            int hash = Arrays.hashCode(bytes);
+            Segment segment = segments[segmentOf(hash)];
+            synchronized (segment) {
+                return toNodeId(segment.getString(bytes, hash));
+            }
+        }
+
+        private boolean put(String id, long value, boolean overwrite) {
+            long numericId = parseCanonicalLong(id);
+            if (numericId != NOT_A_NUMBER) {
+                Segment segment = segments[segmentOf(mix(numericId))];
+                synchronized (segment) {
+                    return segment.putLong(numericId, value, overwrite);
+                }
+            }
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            int hash = Arrays.hashCode(bytes);
+            Segment segment = segments[segmentOf(hash)];
+            synchronized (segment) {
+                return segment.putString(bytes, hash, value, overwrite);
+            }
+        }
+
+        private static long toNodeId(long value) {
+            return value < Segment.OFFSET ? NOT_FOUND : value - Segment.OFFSET;
+        }
+
+        private static int segmentOf(int hash) {
+            return (hash >>> 26) & (SEGMENTS - 1);
+        }
+    }
+
+    /**
+     * Parses the id if it's a `long` written in canonical decimal form, i.e. `Long.toString(parsed).equals(id)`,
+     * so that ids like `01` and `1` are never mapped to the same key
+     */
+    static long parseCanonicalLong(String id) {
+        int length = id.length();
+        int start = length > 0 && id.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 18) return NOT_A_NUMBER;
+        if (id.charAt(start) == '0' && (length - start > 1 || start == 1)) return NOT_A_NUMBER;
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return NOT_A_NUMBER;
+            value = value * 10 + (c - '0');
+        }
+        return start == 1 ? -value : value;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The open addressing tables of a segment, guarded by the segment itself
+     */
+    private static class Segment {
+        // values: 0 is an empty slot, PENDING a reserved id, OFFSET + nodeId a mapped one
+        static final long PENDING = 1L;
+        static final long OFFSET = 2L;
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final IdMappingStorage storage;
+
+        private LongBuffer longKeys;
+        private LongBuffer longValues;
+        private int longSize;
+
+        // offsets + 1 of the ids in the arena, 0 is an empty slot
+        private IntBuffer stringOffsets;
+        private IntBuffer stringHashes;
+        private LongBuffer stringValues;
+        private int stringSize;
+        // each id is stored as its length, as a varint, followed by its UTF-8 bytes
+        private ByteBuffer arena;
+        private int arenaSize;
+
+        Segment(IdMappingStorage storage) {
+            this.storage = storage;
+            this.longKeys = storage.longs(INITIAL_CAPACITY);
+            this.longValues = storage.longs(INITIAL_CAPACITY);
+            this.stringOffsets = storage.ints(INITIAL_CAPACITY);
+            this.stringHashes = storage.ints(INITIAL_CAPACITY);
+            this.stringValues = storage.longs(INITIAL_CAPACITY);
+            this.arena = storage.bytes(0);
+        }
+
+        long getLong(long key) {
+            int mask = longKeys.capacity() - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                long value = longValues.get(slot);
+                if (value == 0) return 0;
+                if (longKeys.get(slot) == key) return value;
+            }
+        }
+
+        boolean putLong(long key, long value, boolean overwrite) {
+            int mask = longKeys.capacity() - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (longValues.get(slot) == 0) {
+                    longKeys.put(slot, key);
+                    longValues.put(slot, value);
+                    if (++longSize * 4L > longKeys.capacity() * 3L) growLongs();
+                    return true;
+                }
+                if (longKeys.get(slot) == key) {
+                    if (overwrite) longValues.put(slot, value);
+                    return overwrite;
+                }
+            }
+        }
+
+        private void growLongs() {
+            LongBuffer keys = longKeys;
+            LongBuffer values = longValues;
+            longKeys = storage.longs(keys.capacity() * 2);
+            longValues = storage.longs(keys.capacity() * 2);
+            int mask = longKeys.capacity() - 1;
+            for (int i = 0; i < keys.capacity(); i++) {
+                long value = values.get(i);
+                if (value == 0) continue;
+                long key = keys.get(i);
+                int slot = mix(key) & mask;
+                while (longValues.get(slot) != 0) slot = (slot + 1) & mask;
+                longKeys.put(slot, key);
+                longValues.put(slot, value);
+            }
+            storage.release(keys);
+            storage.release(values);
+        }
+
+        long getString(byte[] id, int hash) {
+            int mask = stringOffsets.capacity() - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int offset = stringOffsets.get(slot);
+                if (offset == 0) return 0;
+                if (stringHashes.get(slot) == hash && matches(offset - 1, id)) return stringValues.get(slot);
+            }
+        }
+
+        boolean putString(byte[] id, int hash, long value, boolean overwrite) {
+            int mask = stringOffsets.capacity() - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int offset = stringOffsets.get(slot);
+                if (offset == 0) {
+                    stringOffsets.put(slot, append(id) + 1);
+                    stringHashes.put(slot, hash);
+                    stringValues.put(slot, value);
+                    if (++stringSize * 4L > stringOffsets.capacity() * 3L) growStrings();
+                    return true;
+                }
+                if (stringHashes.get(slot) == hash && matches(offset - 1, id)) {
+                    if (overwrite) stringValues.put(slot, value);
+                    return overwrite;
+                }
+            }
+        }
+
+        private void growStrings() {
+            IntBuffer offsets = stringOffsets;
+            IntBuffer hashes = stringHashes;
+            LongBuffer values = stringValues;
+            stringOffsets = storage.ints(offsets.capacity() * 2);
+            stringHashes = storage.ints(offsets.capacity() * 2);
+            stringValues = storage.longs(offsets.capacity() * 2);
+            int mask = stringOffsets.capacity() - 1;
+            for (int i = 0; i < offsets.capacity(); i++) {
+                int offset = offsets.get(i);
+                if (offset == 0) continue;
+                int hash = hashes.get(i);
+                int slot = hash & mask;
+                while (stringOffsets.get(slot) != 0) slot = (slot + 1) & mask;
+                stringOffsets.put(slot, offset);
+                stringHashes.put(slot, hash);
+                stringValues.put(slot, values.get(i));
+            }
+            storage.release(offsets);
+            storage.release(hashes);
+            storage.release(values);
+        }
+
+        private int append(byte[] id) {
+            int needed = arenaSize + 5 + id.length;
+            if (needed < 0) {
+                throw new IllegalStateException("Too many ids to be mapped in memory");
+            }
+            if (needed > arena.capacity()) {
+                long capacity = Math.max(needed, Math.max(1024L, arena.capacity() * 2L));
+                ByteBuffer grown = storage.bytes((int) Math.min(Integer.MAX_VALUE - 8, capacity));
+                grown.put(0, arena, 0, arenaSize);
+                storage.release(arena);
+                arena = grown;
+            }
+            int offset = arenaSize;
+            int length = id.length;
+            while ((length & ~0x7F) != 0) {
+                arena.put(arenaSize++, (byte) ((length & 0x7F) | 0x80));
+                length >>>= 7;
+            }
+            arena.put(arenaSize++, (byte) length);
+            arena.put(arenaSize, id);
+            arenaSize += id.length;
+            return offset;
+        }
+
+        private boolean matches(int offset, byte[] id) {
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = arena.get(offset++);
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (length != id.length) return false;
+            if (arena.hasArray()) {
+                int start = arena.arrayOffset() + offset;
+                return Arrays.equals(arena.array(), start, start + length, id, 0, length);
+            }
+            return arena.slice(offset, length).equals(ByteBuffer.wrap(id));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the tables of an {@link IdMapping}: on the heap while their total size is within the heap budget,
+ * otherwise as regions of a memory-mapped temporary file, which is deleted when the storage is closed.
+ *
+ * The file is only appended to, so the regions of the tables replaced by bigger ones are not reused:
+ * as the tables double their size when they grow, the file is at most about twice the size of the spilled tables.
+ */
+class IdMappingStorage implements AutoCloseable {
+    private final long heapBudget;
+    private final AtomicLong heapBytes = new AtomicLong();
+
+    private FileChannel channel;
+    private long fileSize;
+    private boolean closed;
+
+    IdMappingStorage(long heapBudget) {
+        this.heapBudget = heapBudget;
+    }
+
+    LongBuffer longs(int capacity) {
+        long bytes = (long) capacity * Long.BYTES;
+        return reserveHeap(bytes)
+                ? LongBuffer.allocate(capacity)
+                : map(bytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    IntBuffer ints(int capacity) {
+        long bytes = (long) capacity * Integer.BYTES;
+        return reserveHeap(bytes)
+                ? IntBuffer.allocate(capacity)
+                : map(bytes).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    ByteBuffer bytes(int capacity) {
+        return reserveHeap(capacity) ? ByteBuffer.allocate(capacity) : map(capacity);
+    }
+
+    /**
+     * Gives back the heap budget of a table that is no longer used, the regions of the file are never released
+     */
+    void release(Buffer buffer) {
+        if (buffer.isDirect()) return;
+        int elementBytes = buffer instanceof LongBuffer ? Long.BYTES : buffer instanceof IntBuffer ? Integer.BYTES : 1;
+        heapBytes.addAndGet(-(long) buffer.capacity() * elementBytes);
+    }
+
+    /**
+     * Returns the number of bytes of the memory-mapped file
+     */
+    synchronized long spilledBytes() {
+        return fileSize;
+    }
+
+    private boolean reserveHeap(long bytes) {
+        long used;
+        do {
+            used = heapBytes.get();
+            if (used + bytes > heapBudget) return false;
+        } while (!heapBytes.compareAndSet(used, used + bytes));
+        return true;
+    }
+
+    private synchronized ByteBuffer map(long bytes) {
+        if (closed) {
+            throw new IllegalStateException("The id mapping is closed");
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many ids to be mapped in a single table of " + bytes + " bytes");
+        }
+        try {
+            if (channel == null) {
+                Path file = Files.createTempFile("apoc-id-mapping", ".bin");
+                channel = FileChannel.open(
+                        file,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.SPARSE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            // mapping past the end of the file extends it with zeros, i.e. with empty slots
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, bytes);
+            fileSize += bytes;
+            return region;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill the id mapping to disk", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the batches on the executor, one at a time for each lane,
+ * so that the rows routed to the same lane, e.g. with the same start node, are never written concurrently
+ */
+public class Lanes {
+    private final ExecutorService executor;
+    private final Batch[] running;
+
+    public Lanes(ExecutorService executor, int size) {
+        this.executor = executor;
+        this.running = new Batch[size];
+    }
+
+    public int size() {
+        return running.length;
+    }
+
+    public void submit(int lane, Runnable batch) {
+        await(lane);
+        final Batch submitted = new Batch();
+        submitted.future = executor.submit(() -> submitted.run(batch));
+        running[lane] = submitted;
+    }
+
+    public void awaitAll() {
+        for (int lane = 0; lane < running.length; lane++) {
+            await(lane);
+        }
+    }
+
+    /**
+     * Prevents the batches that haven't started yet from running, and waits for the running ones ignoring their errors.
+     * After a failure it has to be called before releasing what the batches use, e.g. the id mapping of an import.
+     */
+    public void cancelAll() {
+        for (int lane = 0; lane < running.length; lane++) {
+            final Batch batch = running[lane];
+            if (batch == null) continue;
+            running[lane] = null;
+            if (batch.discard()) {
+                batch.future.cancel(false);
+                continue;
+            }
+            try {
+                batch.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.future.cancel(true);
+            } catch (ExecutionException ignored) {
+                // the error of the first failed batch has already been reported
+            }
+        }
+    }
+
+    private void await(int lane) {
+        final Batch batch = running[lane];
+        if (batch == null) return;
+        running[lane] = null;
+        try {
+            batch.future.get();
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while importing the batches", e);
+        } catch (ExecutionException e) {
+            cancelAll();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class Batch {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<?> future;
+
+        void run(Runnable body) {
+            if (claimed.compareAndSet(false, true)) {
+                body.run();
+            }
+        }
+
+        /**
+         * @return true if the batch won't run, false if it's already running or done
+         */
+        boolean discard() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
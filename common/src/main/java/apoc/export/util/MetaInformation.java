@@ -108,15 +108,22 @@ public class MetaInformation {
 
     public static void updateKeyTypes(Map<String, Class> keyTypes, Entity pc) {
         for (String prop : pc.getPropertyKeys()) {
-            Object value = pc.getProperty(prop);
-            Class storedClass = keyTypes.get(prop);
-            if (storedClass == null) {
-                keyTypes.put(prop, value.getClass());
-                continue;
-            }
-            if (storedClass == void.class || storedClass.equals(value.getClass())) continue;
-            keyTypes.put(prop, void.class);
+            updateKeyType(keyTypes, prop, pc.getProperty(prop));
+        }
+    }
+
+    public static void updateKeyTypes(Map<String, Class> keyTypes, Map<String, Object> properties) {
+        properties.forEach((prop, value) -> updateKeyType(keyTypes, prop, value));
+    }
+
+    private static void updateKeyType(Map<String, Class> keyTypes, String prop, Object value) {
+        Class storedClass = keyTypes.get(prop);
+        if (storedClass == null) {
+            keyTypes.put(prop, value.getClass());
+            return;
         }
+        if (storedClass == void.class || storedClass.equals(value.getClass())) return;
+        keyTypes.put(prop, void.class);
     }
 
     public static final Set<String> GRAPHML_ALLOWED =
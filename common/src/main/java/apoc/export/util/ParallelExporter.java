@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import apoc.result.ProgressInfo;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import org.neo4j.cypher.export.DatabaseSubGraph;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+
+/**
+ * Serializes the nodes and the relationships of a graph in chunks of batchSize on the executor,
+ * each chunk in a transaction of its own, and hands the serialized chunks to a single sink in their order.
+ * The progress of the chunks is merged into the reporter on the calling thread.
+ * <p>
+ * The output is not a snapshot of the database: each chunk sees the data committed when its transaction starts,
+ * so the writes committed during the export may be partially included, and the entities deleted meanwhile are skipped.
+ */
+public class ParallelExporter {
+    private final GraphDatabaseService db;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final int chunkSize;
+
+    @FunctionalInterface
+    public interface ChunkSerializer<T extends Entity> {
+        void serialize(InternalTransaction tx, List<T> entities, Writer writer, Reporter reporter) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ChunkSink {
+        void write(String chunk) throws IOException;
+    }
+
+    /**
+     * Writes a group of entities, e.g. the ones with a label set, with its own output
+     */
+    @FunctionalInterface
+    public interface GroupWriter {
+        void write(InternalTransaction tx, Reporter reporter);
+    }
+
+    private record Chunk(String data, ProgressInfo progress) {}
+
+    public ParallelExporter(GraphDatabaseService db, ExecutorService executor, ExportConfig config) {
+        this.db = db;
+        this.executor = executor;
+        this.concurrency = config.getConcurrency();
+        this.chunkSize = config.getBatchSize() > 0 ? config.getBatchSize() : ExportConfig.DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Only the whole database is exported in parallel,
+     * the entities of the other subgraphs, e.g. the virtual ones, can't be looked up from another transaction.
+     * Neither can the uncommitted changes of the calling transaction, so in that case the export is serial.
+     * The streamed exports are serial too, as they already run on the export pool, where their chunks would wait.
+     */
+    public static boolean supports(Object data, ExportConfig config, Transaction tx) {
+        return config.isParallel()
+                && !config.streamStatements()
+                && data instanceof DatabaseSubGraph
+                && ((InternalTransaction) tx).kernelTransaction() instanceof TxStateHolder holder
+                && !holder.hasTxStateWithChanges();
+    }
+
+    /**
+     * The name of the n-th part file, with separateFiles: true
+     */
+    public static String partName(int part) {
+        return String.format("part-%05d", part);
+    }
+
+    public void nodes(Iterable<Node> nodes, ChunkSerializer<Node> serializer, Reporter reporter, ChunkSink sink) {
+        export(nodes, Transaction::getNodeByElementId, serializer, reporter, sink);
+    }
+
+    public void relationships(
+            Iterable<Relationship> rels, ChunkSerializer<Relationship> serializer, Reporter reporter, ChunkSink sink) {
+        export(rels, Transaction::getRelationshipByElementId, serializer, reporter, sink);
+    }
+
+    /**
+     * Runs each writer in a transaction of its own on the executor, at most concurrency writers at once,
+     * and merges their progress into the reporter in their order
+     */
+    public void groups(List<GroupWriter> writers, Reporter reporter) {
+        final Deque<Future<ProgressInfo>> pending = new ArrayDeque<>();
+        try {
+            for (GroupWriter writer : writers) {
+                while (pending.size() >= concurrency) {
+                    merge(await(pending.poll()), reporter);
+                }
+                pending.add(executor.submit(() -> {
+                    final ProgressInfo progress = new ProgressInfo(null, null, null);
+                    try (InternalTransaction tx = (InternalTransaction) db.beginTx()) {
+                        writer.write(tx, new ProgressReporter(null, null, progress));
+                        tx.commit();
+                    }
+                    return progress;
+                }));
+            }
+            while (!pending.isEmpty()) {
+                merge(await(pending.poll()), reporter);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T extends Entity> void export(
+            Iterable<T> entities,
+            BiFunction<Transaction, String, T> lookup,
+            ChunkSerializer<T> serializer,
+            Reporter reporter,
+            ChunkSink sink) {
+        final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        try {
+            List<String> ids = new ArrayList<>(chunkSize);
+            for (T entity : entities) {
+                ids.add(entity.getElementId());
+                if (ids.size() >= chunkSize) {
+                    submit(pending, ids, lookup, serializer, reporter, sink);
+                    ids = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!ids.isEmpty()) {
+                submit(pending, ids, lookup, serializer, reporter, sink);
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), reporter, sink);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Submits a chunk, after writing the ones beyond the concurrency,
+     * so that at most concurrency chunks are serialized, or waiting to be written, at once
+     */
+    private <T extends Entity> void submit(
+            Deque<Future<Chunk>> pending,
+            List<String> ids,
+            BiFunction<Transaction, String, T> lookup,
+            ChunkSerializer<T> serializer,
+            Reporter reporter,
+            ChunkSink sink) {
+        while (pending.size() >= concurrency) {
+            write(pending.poll(), reporter, sink);
+        }
+        pending.add(submit(ids, lookup, serializer));
+    }
+
+    private <T extends Entity> Future<Chunk> submit(
+            List<String> ids, BiFunction<Transaction, String, T> lookup, ChunkSerializer<T> serializer) {
+        return executor.submit(() -> {
+            final ProgressInfo progress = new ProgressInfo(null, null, null);
+            final StringWriter writer = new StringWriter();
+            try (InternalTransaction tx = (InternalTransaction) db.beginTx()) {
+                final List<T> entities = new ArrayList<>(ids.size());
+                for (String id : ids) {
+                    try {
+                        entities.add(lookup.apply(tx, id));
+                    } catch (NotFoundException e) {
+                        // deleted after the ids were read by the calling transaction
+                    }
+                }
+                serializer.serialize(tx, entities, writer, new ProgressReporter(null, null, progress));
+                tx.commit();
+            }
+            return new Chunk(writer.toString(), progress);
+        });
+    }
+
+    private void write(Future<Chunk> future, Reporter reporter, ChunkSink sink) {
+        final Chunk chunk = await(future);
+        try {
+            sink.write(chunk.data());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        merge(chunk.progress(), reporter);
+    }
+
+    private static void merge(ProgressInfo progress, Reporter reporter) {
+        reporter.update(progress.nodes, progress.relationships, progress.properties);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while exporting the chunks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
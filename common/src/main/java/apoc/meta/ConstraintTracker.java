@@ -18,13 +18,35 @@
  */
 package apoc.meta;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * The existence constraints of the graph, as (label|rel-type)/property keys entries.
+ * It is filled once per procedure call, before the profiling, and only read afterwards,
+ * so it can be shared by the profiles built in parallel.
+ */
 public class ConstraintTracker {
-    // The following maps are (label|rel-type)/constraintdefinition entries
+    private final Map<String, List<String>> relConstraints = new HashMap<>(20);
+    private final Map<String, List<String>> nodeConstraints = new HashMap<>(20);
+
+    public void addNodeConstraint(String label, Iterable<String> propertyKeys) {
+        List<String> props = nodeConstraints.computeIfAbsent(label, k -> new ArrayList<>(10));
+        propertyKeys.forEach(props::add);
+    }
+
+    public void addRelConstraint(String relType, Iterable<String> propertyKeys) {
+        List<String> props = relConstraints.computeIfAbsent(relType, k -> new ArrayList<>(10));
+        propertyKeys.forEach(props::add);
+    }
+
+    public Map<String, List<String>> getNodeConstraints() {
+        return nodeConstraints;
+    }
 
-    public static final Map<String, List<String>> relConstraints = new HashMap<>(20);
-    public static final Map<String, List<String>> nodeConstraints = new HashMap<>(20);
+    public Map<String, List<String>> getRelConstraints() {
+        return relConstraints;
+    }
 }
@@ -50,6 +50,8 @@ public class MetaConfig {
      * every 1000th node will be examined.  It does **not** mean that a total of 1000 nodes
      * will be sampled.
      * - maxRels: the maximum number of relationships to look at per Node Label.
+     * - partitionedSampling: if true, the sampled nodes are picked from random partitions of the label index,
+     * so that the other nodes are not read at all.
      */
     public MetaConfig(Map<String, Object> config, Boolean shouldSampleByDefault) {
         config = config != null ? config : Collections.emptyMap();
@@ -114,6 +116,10 @@ public class MetaConfig {
         return sampleMetaConfig.getMaxRels();
     }
 
+    public boolean isPartitionedSampling() {
+        return sampleMetaConfig.isPartitionedSampling();
+    }
+
     public SampleMetaConfig getSampleMetaConfig() {
         return sampleMetaConfig;
     }
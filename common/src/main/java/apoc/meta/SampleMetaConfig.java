@@ -18,23 +18,28 @@
  */
 package apoc.meta;
 
+import apoc.util.Util;
 import java.util.Collections;
 import java.util.Map;
 
 public class SampleMetaConfig {
     private final long maxRels;
     private final long sample;
+    private final boolean partitionedSampling;
 
     /**
      * - sample: a long, i.e. "1 in (SAMPLE)".  If set to 1000 this means that every 1000th node will be examined.
      * It does **not** mean that a total of 1000 nodes will be sampled.
      * - maxRels: the maximum number of relationships to look at per Node Label.
+     * - partitionedSampling: if true, the sampled nodes are picked from random partitions of the label index,
+     * so that the other nodes are not read at all.
      */
     public SampleMetaConfig(Map<String, Object> config, Boolean shouldSampleByDefault) {
         config = config != null ? config : Collections.emptyMap();
 
         this.sample = (long) config.getOrDefault("sample", shouldSampleByDefault ? 1000L : 1L);
         this.maxRels = (long) config.getOrDefault("maxRels", shouldSampleByDefault ? 100L : -1L);
+        this.partitionedSampling = Util.toBoolean(config.getOrDefault("partitionedSampling", false));
     }
 
     public SampleMetaConfig(Map<String, Object> config) {
@@ -48,4 +53,8 @@ public class SampleMetaConfig {
     public long getMaxRels() {
         return maxRels;
     }
+
+    public boolean isPartitionedSampling() {
+        return partitionedSampling;
+    }
 }
@@ -22,16 +22,26 @@ import apoc.meta.tablesforlabels.OrderedLabels;
 import apoc.meta.tablesforlabels.PropertyContainerProfile;
 import apoc.meta.tablesforlabels.PropertyTracker;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import org.apache.commons.lang3.mutable.MutableLong;
 import org.neo4j.graphdb.*;
 
+/**
+ * Accumulates the profile of the nodes and relationships observed by a single thread.
+ * The profiles built by different threads, i.e. on different labels, are combined via {@link #merge(Tables4LabelsProfile)}.
+ */
 public class Tables4LabelsProfile {
     Map<OrderedLabels, PropertyContainerProfile> labelMap;
     Map<String, PropertyContainerProfile> relMap;
-    Map<OrderedLabels, Long> obsByNode;
-    Map<String, Long> obsByRelType;
+    Map<OrderedLabels, MutableLong> obsByNode;
+    Map<String, MutableLong> obsByRelType;
+    private final ConstraintTracker constraintTracker;
+    // the relationships sampled so far, which may be shared with the profiles of the other labels of the same call
+    private final Map<String, AtomicLong> sampledRels;
 
     /**
      * DAO class that the stored procedure returns
@@ -94,10 +104,24 @@ public class Tables4LabelsProfile {
     }
 
     public Tables4LabelsProfile() {
+        this(new ConstraintTracker());
+    }
+
+    public Tables4LabelsProfile(ConstraintTracker constraintTracker) {
+        this(constraintTracker, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param sampledRels the counters of the relationships sampled so far, by identifier.
+     *                    Sharing them between the profiles of a call makes `maxRels` a bound for the whole call.
+     */
+    public Tables4LabelsProfile(ConstraintTracker constraintTracker, Map<String, AtomicLong> sampledRels) {
         labelMap = new LinkedHashMap(100);
         relMap = new LinkedHashMap(100);
         obsByNode = new LinkedHashMap(100);
         obsByRelType = new LinkedHashMap(100);
+        this.constraintTracker = constraintTracker;
+        this.sampledRels = sampledRels;
     }
 
     public PropertyContainerProfile getNodeProfile(OrderedLabels ol) {
@@ -120,26 +144,33 @@ public class Tables4LabelsProfile {
         }
     }
 
-    public Long sawNode(OrderedLabels labels) {
-        if (obsByNode.containsKey(labels)) {
-            Long val = obsByNode.get(labels) + 1;
-            obsByNode.put(labels, val);
-            return val;
-        } else {
-            obsByNode.put(labels, 1L);
-            return 1L;
-        }
+    public long sawNode(OrderedLabels labels) {
+        return obsByNode.computeIfAbsent(labels, k -> new MutableLong()).incrementAndGet();
     }
 
-    public Long sawRel(String typeName) {
-        if (obsByRelType.containsKey(typeName)) {
-            Long val = obsByRelType.get(typeName) + 1;
-            obsByRelType.put(typeName, val);
-            return val;
-        } else {
-            obsByRelType.put(typeName, 1L);
-            return 1L;
-        }
+    public long sawRel(String typeName) {
+        return obsByRelType.computeIfAbsent(typeName, k -> new MutableLong()).incrementAndGet();
+    }
+
+    /**
+     * Adds the observations of another profile to this one.
+     * The profiles must not be finished yet, and the other one must not be used afterwards.
+     * Merging the profiles in the order their labels were scanned keeps the order of a serial scan.
+     */
+    public Tables4LabelsProfile merge(Tables4LabelsProfile other) {
+        other.labelMap.forEach((labels, profile) -> {
+            PropertyContainerProfile existing = labelMap.putIfAbsent(labels, profile);
+            if (existing != null) existing.merge(profile);
+        });
+        other.relMap.forEach((relType, profile) -> {
+            PropertyContainerProfile existing = relMap.putIfAbsent(relType, profile);
+            if (existing != null) existing.merge(profile);
+        });
+        other.obsByNode.forEach((labels, count) ->
+                obsByNode.computeIfAbsent(labels, k -> new MutableLong()).add(count.longValue()));
+        other.obsByRelType.forEach((relType, count) ->
+                obsByRelType.computeIfAbsent(relType, k -> new MutableLong()).add(count.longValue()));
+        return this;
     }
 
     public static String labelJoin(Iterable<Label> labels) {
@@ -197,7 +228,8 @@ public class Tables4LabelsProfile {
                 String relIdentifier = labelJoin(relStartNode) + "###" + labelJoin(relEndNode) + "###" + typeName;
 
                 PropertyContainerProfile localRelProfile = getRelProfile(relIdentifier);
-                long seenSoFar = sawRel(relIdentifier);
+                sawRel(relIdentifier);
+                long seenSoFar = sampledRels.computeIfAbsent(relIdentifier, k -> new AtomicLong()).incrementAndGet();
                 boolean isNode = false;
 
                 if (seenSoFar > config.getMaxRels()) {
@@ -213,11 +245,11 @@ public class Tables4LabelsProfile {
 
     public Tables4LabelsProfile finished() {
         for (PropertyContainerProfile prof : labelMap.values()) {
-            prof.finished();
+            prof.finished(constraintTracker);
         }
 
         for (PropertyContainerProfile prof : relMap.values()) {
-            prof.finished();
+            prof.finished(constraintTracker);
         }
 
         return this;
@@ -229,7 +261,7 @@ public class Tables4LabelsProfile {
 
         for (OrderedLabels ol : labels) {
             PropertyContainerProfile prof = labelMap.get(ol);
-            Long totalObservations = obsByNode.get(ol);
+            Long totalObservations = totalObservations(obsByNode.get(ol));
 
             // Base case: the node never had any properties.
             if (prof.propertyNames().size() == 0) {
@@ -263,7 +295,7 @@ public class Tables4LabelsProfile {
 
         for (String relType : relTypes) {
             PropertyContainerProfile prof = relMap.get(relType);
-            Long totalObservations = obsByRelType.get(relType);
+            Long totalObservations = totalObservations(obsByRelType.get(relType));
 
             // Base case: the rel type never had any properties.
             if (prof.propertyNames().size() == 0) {
@@ -296,4 +328,8 @@ public class Tables4LabelsProfile {
 
         return results.stream();
     }
+
+    private static Long totalObservations(MutableLong count) {
+        return count == null ? null : count.toLong();
+    }
 }
@@ -65,7 +65,21 @@ public class PropertyContainerProfile {
         }
     }
 
-    public PropertyContainerProfile finished() {
+    /**
+     * Adds the observations of another profile of the same label set (or relationship type) to this one
+     */
+    public void merge(PropertyContainerProfile other) {
+        observations += other.observations;
+        isNode = isNode || other.isNode;
+        other.profile.forEach((propName, tracker) -> {
+            PropertyTracker existing = profile.putIfAbsent(propName, tracker);
+            if (existing != null) {
+                existing.merge(tracker);
+            }
+        });
+    }
+
+    public PropertyContainerProfile finished(ConstraintTracker constraintTracker) {
         PropertyTracker tracker;
 
         for (String propName : this.propertyNames()) {
@@ -73,7 +87,7 @@ public class PropertyContainerProfile {
 
                 // Check for node constraints
 
-                for (Map.Entry<String, List<String>> entry : ConstraintTracker.nodeConstraints.entrySet()) {
+                for (Map.Entry<String, List<String>> entry : constraintTracker.getNodeConstraints().entrySet()) {
                     for (String pk : entry.getValue()) {
                         if (this.profile.containsKey(pk)) {
                             tracker = this.profile.get(pk);
@@ -85,7 +99,7 @@ public class PropertyContainerProfile {
 
                 // Check for relationship constraints
 
-                for (Map.Entry<String, List<String>> entry : ConstraintTracker.relConstraints.entrySet()) {
+                for (Map.Entry<String, List<String>> entry : constraintTracker.getRelConstraints().entrySet()) {
                     for (String pk : entry.getValue()) {
                         if (this.profile.containsKey(pk)) {
                             tracker = this.profile.get(pk);
@@ -41,6 +41,16 @@ public class PropertyTracker {
         types.add(assignTypeName(value));
     }
 
+    /**
+     * Adds the observations of another tracker of the same property to this one
+     */
+    public void merge(PropertyTracker other) {
+        observations += other.observations;
+        nulls += other.nulls;
+        types.addAll(other.types);
+        mandatory = mandatory && other.mandatory;
+    }
+
     private String assignTypeName(Object value) {
         String typeName = value.getClass().getCanonicalName();
         if (typeMappings.containsKey(typeName)) {
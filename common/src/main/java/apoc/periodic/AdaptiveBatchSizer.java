@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+/**
+ * Grows or shrinks the batch size and the number of in-flight batches of an `apoc.periodic.iterate`
+ * between the configured bounds, looking at windows of completed batches:
+ * - if retries or failed operations happened during the window the concurrency is halved
+ * (or the batch size, if the concurrency is already at its lower bound), so that contended labels don't cause deadlock storms
+ * - if the mean batch latency is well above the target latency, the batch size is halved
+ * - if the throughput didn't degrade, one of the two dimensions is grown (alternating between them)
+ * - if the throughput degraded compared to the best seen so far, the last growth step is reverted
+ */
+public class AdaptiveBatchSizer extends BatchSizer {
+    static final int MIN_WINDOW_BATCHES = 4;
+    static final double THROUGHPUT_TOLERANCE = 0.1;
+
+    private enum Step {
+        NONE,
+        BATCH_SIZE,
+        CONCURRENCY
+    }
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+
+    private long windowStart = System.nanoTime();
+    private int windowBatches;
+    private long windowRows;
+    private long windowLatency;
+    private long lastRetries;
+    private long lastFailedOps;
+    private double bestThroughput;
+    private Step lastStep = Step.NONE;
+    private int previousBatchSize;
+    private int previousConcurrency;
+
+    public AdaptiveBatchSizer(
+            int batchSize,
+            int concurrency,
+            int minBatchSize,
+            int maxBatchSize,
+            int minConcurrency,
+            int maxConcurrency,
+            long targetLatencyNanos) {
+        super(batchSize, concurrency);
+        if (minBatchSize < 1 || minBatchSize > batchSize || batchSize > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "adaptive mode requires 0 < minBatchSize <= batchSize <= maxBatchSize, got: " + minBatchSize
+                            + ", " + batchSize + ", " + maxBatchSize);
+        }
+        if (minConcurrency < 1 || minConcurrency > concurrency || concurrency > maxConcurrency) {
+            throw new IllegalArgumentException(
+                    "adaptive mode requires 0 < minConcurrency <= concurrency <= maxConcurrency, got: "
+                            + minConcurrency + ", " + concurrency + ", " + maxConcurrency);
+        }
+        if (targetLatencyNanos < 1) {
+            throw new IllegalArgumentException("targetBatchLatency parameter must be > 0");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    @Override
+    public synchronized boolean onBatchCompleted(long rows, long latencyNanos, BatchAndTotalCollector collector) {
+        windowBatches++;
+        windowRows += rows;
+        windowLatency += latencyNanos;
+        if (windowBatches < Math.max(MIN_WINDOW_BATCHES, concurrency)) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        double throughput = (double) windowRows / Math.max(1, now - windowStart);
+        long meanLatency = windowLatency / windowBatches;
+        long retries = collector.getRetried();
+        long failedOps = collector.getFailedOps();
+        boolean contended = retries > lastRetries || failedOps > lastFailedOps;
+        lastRetries = retries;
+        lastFailedOps = failedOps;
+        windowStart = now;
+        windowBatches = 0;
+        windowRows = 0;
+        windowLatency = 0;
+
+        int oldBatchSize = batchSize;
+        int oldConcurrency = concurrency;
+        if (contended) {
+            if (concurrency > minConcurrency) {
+                concurrency = Math.max(minConcurrency, concurrency / 2);
+            } else {
+                batchSize = Math.max(minBatchSize, batchSize / 2);
+            }
+            resetBaseline();
+        } else if (meanLatency > 2 * targetLatencyNanos) {
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+            resetBaseline();
+        } else if (throughput < bestThroughput * (1 - THROUGHPUT_TOLERANCE)) {
+            if (lastStep == Step.BATCH_SIZE) {
+                batchSize = previousBatchSize;
+            } else if (lastStep == Step.CONCURRENCY) {
+                concurrency = previousConcurrency;
+            } else {
+                // nothing to revert, the workload itself changed
+                bestThroughput = throughput;
+            }
+            lastStep = Step.NONE;
+        } else {
+            bestThroughput = Math.max(bestThroughput, throughput);
+            grow(meanLatency);
+        }
+        return oldBatchSize != batchSize || oldConcurrency != concurrency;
+    }
+
+    private void grow(long meanLatency) {
+        boolean canGrowBatchSize = batchSize < maxBatchSize && meanLatency < targetLatencyNanos;
+        boolean canGrowConcurrency = concurrency < maxConcurrency;
+        if (canGrowBatchSize && (lastStep != Step.BATCH_SIZE || !canGrowConcurrency)) {
+            previousBatchSize = batchSize;
+            batchSize = (int) Math.min(maxBatchSize, batchSize + Math.max(1L, batchSize / 2));
+            lastStep = Step.BATCH_SIZE;
+        } else if (canGrowConcurrency) {
+            previousConcurrency = concurrency;
+            concurrency++;
+            lastStep = Step.CONCURRENCY;
+        } else {
+            lastStep = Step.NONE;
+        }
+    }
+
+    private void resetBaseline() {
+        bestThroughput = 0;
+        lastStep = Step.NONE;
+    }
+}
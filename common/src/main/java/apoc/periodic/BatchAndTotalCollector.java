@@ -20,6 +20,7 @@ package apoc.periodic;
 
 import apoc.util.Util;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,12 +36,15 @@ public class BatchAndTotalCollector {
     private long start = System.nanoTime();
     private AtomicLong batches = new AtomicLong();
     private long successes = 0;
+    // updated as the batches complete, while `successes` is only known once all of them have been executed
+    private AtomicLong committed = new AtomicLong();
+    private AtomicLong completedRows = new AtomicLong();
     private AtomicLong count = new AtomicLong();
     private AtomicLong failedOps = new AtomicLong();
     private AtomicLong retried = new AtomicLong();
     private Map<String, Long> operationErrors = new ConcurrentHashMap<>();
     private AtomicInteger failedBatches = new AtomicInteger();
-    private Map<String, Long> batchErrors = new HashMap<>();
+    private Map<String, Long> batchErrors = new ConcurrentHashMap<>();
     private Map<String, List<Map<String, Object>>> failedParamsMap = new ConcurrentHashMap<>();
     private final boolean wasTerminated;
 
@@ -58,6 +62,41 @@ public class BatchAndTotalCollector {
     }
 
     public BatchAndTotalResult getResult() {
+        return getResult(Collections.emptyMap());
+    }
+
+    public BatchAndTotalResult getResult(Map<String, Object> pipeline) {
+        return getResult(successes, pipeline, getProgress(true, 0));
+    }
+
+    /**
+     * @param expectedRows the expected number of rows of the outer statement to estimate the remaining time, if > 0
+     * @return the intermediate result of the batches completed so far
+     */
+    public BatchAndTotalResult getProgressResult(long expectedRows) {
+        return getResult(committed.get(), Collections.emptyMap(), getProgress(false, expectedRows));
+    }
+
+    private Map<String, Object> getProgress(boolean done, long expectedRows) {
+        long elapsedNanos = System.nanoTime() - start;
+        long rows = completedRows.get();
+        double rowsPerSecond = elapsedNanos == 0 ? 0.0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        Long etaSeconds = null;
+        if (done) {
+            etaSeconds = 0L;
+        } else if (expectedRows > 0 && rowsPerSecond > 0) {
+            etaSeconds = (long) Math.ceil(Math.max(0, expectedRows - rows) / rowsPerSecond);
+        }
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("done", done);
+        progress.put("completedRows", rows);
+        progress.put("rowsPerSecond", rowsPerSecond);
+        progress.put("etaSeconds", etaSeconds);
+        return progress;
+    }
+
+    private BatchAndTotalResult getResult(
+            long committedOperations, Map<String, Object> pipeline, Map<String, Object> progress) {
         long timeTaken = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
         Map<String, Long> updateStatistics = new HashMap<>();
         updateStatistics.put("nodesCreated", nodesCreated.get());
@@ -72,7 +111,7 @@ public class BatchAndTotalCollector {
                 batches.get(),
                 count.get(),
                 timeTaken,
-                successes,
+                committedOperations,
                 failedOps.get(),
                 failedBatches.get(),
                 retried.get(),
@@ -80,21 +119,39 @@ public class BatchAndTotalCollector {
                 batchErrors,
                 wasTerminated,
                 failedParamsMap,
-                updateStatistics);
+                updateStatistics,
+                pipeline,
+                progress);
     }
 
     public long getCount() {
         return count.get();
     }
 
+    public long getFailedOps() {
+        return failedOps.get();
+    }
+
     public void incrementFailedOps(long size) {
         failedOps.addAndGet(size);
     }
 
+    public long getBatches() {
+        return batches.get();
+    }
+
     public void incrementBatches() {
         batches.incrementAndGet();
     }
 
+    public void incrementCommitted(long increment) {
+        committed.addAndGet(increment);
+    }
+
+    public void incrementCompletedRows(long increment) {
+        completedRows.addAndGet(increment);
+    }
+
     public void incrementSuccesses(long increment) {
         successes += increment;
     }
@@ -123,6 +180,10 @@ public class BatchAndTotalCollector {
         return failedBatches;
     }
 
+    public long getRetried() {
+        return retried.get();
+    }
+
     public void incrementRetried() {
         retried.incrementAndGet();
     }
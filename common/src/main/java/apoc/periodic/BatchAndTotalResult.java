@@ -19,10 +19,14 @@
 package apoc.periodic;
 
 import apoc.util.Util;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 public class BatchAndTotalResult {
+    public static final BatchAndTotalResult EMPTY = new BatchAndTotalResult(
+            0, 0, 0, 0, 0, 0, 0, Map.of(), Map.of(), false, Map.of(), Map.of(), Map.of(), Map.of());
+
     public final long batches;
     public final long total;
     public final long timeTaken;
@@ -36,6 +40,8 @@ public class BatchAndTotalResult {
     public final boolean wasTerminated;
     public final Map<String, List<Map<String, Object>>> failedParams;
     public final Map<String, Long> updateStatistics;
+    public final Map<String, Object> pipeline;
+    public final Map<String, Object> progress;
 
     public BatchAndTotalResult(
             long batches,
@@ -50,6 +56,38 @@ public class BatchAndTotalResult {
             boolean wasTerminated,
             Map<String, List<Map<String, Object>>> failedParams,
             Map<String, Long> updateStatistics) {
+        this(
+                batches,
+                total,
+                timeTaken,
+                committedOperations,
+                failedOperations,
+                failedBatches,
+                retries,
+                operationErrors,
+                batchErrors,
+                wasTerminated,
+                failedParams,
+                updateStatistics,
+                Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+
+    public BatchAndTotalResult(
+            long batches,
+            long total,
+            long timeTaken,
+            long committedOperations,
+            long failedOperations,
+            long failedBatches,
+            long retries,
+            Map<String, Long> operationErrors,
+            Map<String, Long> batchErrors,
+            boolean wasTerminated,
+            Map<String, List<Map<String, Object>>> failedParams,
+            Map<String, Long> updateStatistics,
+            Map<String, Object> pipeline,
+            Map<String, Object> progress) {
         this.batches = batches;
         this.total = total;
         this.timeTaken = timeTaken;
@@ -72,5 +110,7 @@ public class BatchAndTotalResult {
                 "errors",
                 operationErrors);
         this.updateStatistics = updateStatistics;
+        this.pipeline = pipeline;
+        this.progress = progress;
     }
 }
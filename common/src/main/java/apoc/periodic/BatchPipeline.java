@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+import apoc.util.Util;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.procedure.TerminationGuard;
+
+/**
+ * Bounded pipeline between the thread reading the outer statement of an `apoc.periodic.iterate`
+ * and the threads executing the inner one.
+ * The reading thread builds the batches ahead of time and puts them in a bounded queue, blocking while it's full,
+ * while the worker lanes take the batches from the queue and are scheduled on the pool only as long as there is work to do.
+ * If a partition key is given, the rows are hash-routed by its value to one queue per partition, and every partition
+ * is served by a single lane at a time, so that rows sharing the same key are never written concurrently.
+ * All the methods but the lanes have to be called by the reading thread.
+ */
+class BatchPipeline {
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final ExecutorService pool;
+    private final ToLongFunction<PeriodicUtils.ExecuteBatch> executor;
+    private final Function<List<Map<String, Object>>, PeriodicUtils.ExecuteBatch> batchFactory;
+    private final String partitionKey;
+    private final Partition[] partitions;
+    private final List<Map<String, Object>>[] pending;
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    private long readNanos;
+    private long stallNanos;
+    private long queuedBatches;
+    private long queueDepthSum;
+    private int maxQueueDepth;
+
+    /**
+     * @param maxLanes the maximum number of lanes running at the same time, it can change during the iteration
+     * @param batchFactory creates the batch to be executed from the rows of the outer statement
+     * @param executor executes a batch in its own transaction and returns the number of committed operations
+     */
+    BatchPipeline(
+            ExecutorService pool,
+            int queueCapacity,
+            IntSupplier maxLanes,
+            Function<List<Map<String, Object>>, PeriodicUtils.ExecuteBatch> batchFactory,
+            ToLongFunction<PeriodicUtils.ExecuteBatch> executor) {
+        this(pool, batchFactory, executor, null, new Partition[] {new Partition(queueCapacity, maxLanes)});
+    }
+
+    /**
+     * @param partitionKey the column of the outer statement whose value is used to route the rows
+     * @param partitions the number of partitions, i.e. the number of lanes running at the same time
+     * @param queueCapacity the total capacity, split among the partitions
+     */
+    static BatchPipeline partitioned(
+            ExecutorService pool,
+            int queueCapacity,
+            String partitionKey,
+            int partitions,
+            Function<List<Map<String, Object>>, PeriodicUtils.ExecuteBatch> batchFactory,
+            ToLongFunction<PeriodicUtils.ExecuteBatch> executor) {
+        int partitionCapacity = Math.max(1, (queueCapacity + partitions - 1) / partitions);
+        Partition[] array = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            array[i] = new Partition(partitionCapacity, () -> 1);
+        }
+        return new BatchPipeline(pool, batchFactory, executor, partitionKey, array);
+    }
+
+    private BatchPipeline(
+            ExecutorService pool,
+            Function<List<Map<String, Object>>, PeriodicUtils.ExecuteBatch> batchFactory,
+            ToLongFunction<PeriodicUtils.ExecuteBatch> executor,
+            String partitionKey,
+            Partition[] partitions) {
+        this.pool = pool;
+        this.batchFactory = batchFactory;
+        this.executor = executor;
+        this.partitionKey = partitionKey;
+        this.partitions = partitions;
+        this.pending = new List[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            pending[i] = new ArrayList<>();
+        }
+    }
+
+    List<Map<String, Object>> take(Iterator<Map<String, Object>> iterator, int batchSize) {
+        long start = System.nanoTime();
+        try {
+            return Util.take(iterator, batchSize);
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Queues the rows, waiting for a free slot if necessary.
+     * In partitioned mode the rows are buffered per partition and a batch is queued once it reaches the batch size
+     * @return false if the transaction has been terminated before the rows could be queued
+     */
+    boolean offer(List<Map<String, Object>> rows, int batchSize, TerminationGuard terminationGuard) {
+        if (partitionKey == null) {
+            return offer(partitions[0], rows, terminationGuard);
+        }
+        for (Map<String, Object> row : rows) {
+            int index = partitionFor(row.get(partitionKey), partitions.length);
+            pending[index].add(row);
+            if (pending[index].size() >= batchSize) {
+                List<Map<String, Object>> batch = pending[index];
+                pending[index] = new ArrayList<>(batchSize);
+                if (!offer(partitions[index], batch, terminationGuard)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues the rows still buffered by the partitions
+     * @return false if the transaction has been terminated before the rows could be queued
+     */
+    boolean flush(TerminationGuard terminationGuard) {
+        for (int i = 0; i < partitions.length; i++) {
+            if (!pending[i].isEmpty()) {
+                List<Map<String, Object>> batch = pending[i];
+                pending[i] = new ArrayList<>();
+                if (!offer(partitions[i], batch, terminationGuard)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    static int partitionFor(Object key, int partitions) {
+        int hash;
+        if (key instanceof Entity entity) {
+            hash = entity.getElementId().hashCode();
+        } else if (key != null && key.getClass().isArray()) {
+            hash = Arrays.deepHashCode(new Object[] {key});
+        } else {
+            hash = Objects.hashCode(key);
+        }
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private boolean offer(Partition partition, List<Map<String, Object>> rows, TerminationGuard terminationGuard) {
+        PeriodicUtils.ExecuteBatch batch = batchFactory.apply(rows);
+        if (!partition.queue.offer(batch)) {
+            long start = System.nanoTime();
+            try {
+                // we can't block indefinitely as we might miss a cancellation
+                while (!partition.queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (Util.transactionIsTerminated(terminationGuard)) {
+                        batch.release();
+                        return false;
+                    }
+                    dispatch(partition);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.release();
+                return false;
+            } finally {
+                stallNanos += System.nanoTime() - start;
+            }
+        }
+        int depth = partition.queue.size();
+        maxQueueDepth = Math.max(maxQueueDepth, depth);
+        queueDepthSum += depth;
+        queuedBatches++;
+        dispatch(partition);
+        return true;
+    }
+
+    private void dispatch(Partition partition) {
+        while (!partition.queue.isEmpty() && partition.tryAcquireLane()) {
+            try {
+                Lane lane = new Lane();
+                lane.future = pool.submit(() -> lane.run(() -> runLane(partition)));
+                lanes.add(lane);
+            } catch (Exception e) {
+                partition.activeLanes.decrementAndGet();
+                throw new RuntimeException("Error executing in separate transaction", e);
+            }
+        }
+    }
+
+    private long runLane(Partition partition) {
+        long successes = 0;
+        do {
+            try {
+                PeriodicUtils.ExecuteBatch batch;
+                while ((batch = partition.queue.poll()) != null) {
+                    successes += executor.applyAsLong(batch);
+                    if (partition.activeLanes.get() > partition.maxLanes.getAsInt()) {
+                        // the concurrency has been reduced, give the lane back
+                        break;
+                    }
+                }
+            } finally {
+                partition.activeLanes.decrementAndGet();
+            }
+            // a batch could have been queued after the last poll and before the lane was released
+        } while (!partition.queue.isEmpty() && partition.tryAcquireLane());
+        return successes;
+    }
+
+    /**
+     * Waits for all the queued batches to be executed, or discards them if the transaction was terminated.
+     * In the latter case the lanes not started yet are discarded too, while the running ones are awaited,
+     * so that no batch is still executing, e.g. moving a checkpoint, once this returns
+     * @return the number of committed operations
+     */
+    long awaitCompletion(boolean wasTerminated, BatchAndTotalCollector collector) {
+        if (wasTerminated) {
+            for (Partition partition : partitions) {
+                PeriodicUtils.ExecuteBatch batch;
+                while ((batch = partition.queue.poll()) != null) {
+                    batch.release();
+                }
+            }
+        } else {
+            for (Partition partition : partitions) {
+                dispatch(partition);
+            }
+        }
+        long successes = 0;
+        for (Lane lane : lanes) {
+            if (wasTerminated && lane.discard()) {
+                lane.future.cancel(false);
+                continue;
+            }
+            successes += Util.getFuture(lane.future, collector.getBatchErrors(), collector.getFailedBatches(), 0L);
+        }
+        return successes;
+    }
+
+    Map<String, Object> getStats() {
+        int queueCapacity = 0;
+        for (Partition partition : partitions) {
+            queueCapacity += partition.capacity;
+        }
+        return Util.map(
+                "queueCapacity",
+                queueCapacity,
+                "partitions",
+                partitionKey == null ? 0 : partitions.length,
+                "maxQueueDepth",
+                maxQueueDepth,
+                "avgQueueDepth",
+                queuedBatches == 0 ? 0.0 : (double) queueDepthSum / queuedBatches,
+                "readMillis",
+                TimeUnit.NANOSECONDS.toMillis(readNanos),
+                "stallMillis",
+                TimeUnit.NANOSECONDS.toMillis(stallNanos));
+    }
+
+    /**
+     * A lane submitted to the pool, which is either discarded before it starts or runs to the end
+     */
+    private static class Lane {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<Long> future;
+
+        long run(LongSupplier body) {
+            if (!claimed.compareAndSet(false, true)) {
+                return 0;
+            }
+            return body.getAsLong();
+        }
+
+        /**
+         * @return true if the lane won't run, false if it's already running or done
+         */
+        boolean discard() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private static class Partition {
+        private final int capacity;
+        private final BlockingQueue<PeriodicUtils.ExecuteBatch> queue;
+        private final IntSupplier maxLanes;
+        private final AtomicInteger activeLanes = new AtomicInteger();
+
+        Partition(int capacity, IntSupplier maxLanes) {
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.maxLanes = maxLanes;
+        }
+
+        boolean tryAcquireLane() {
+            int current;
+            do {
+                current = activeLanes.get();
+                if (current >= maxLanes.getAsInt()) {
+                    return false;
+                }
+            } while (!activeLanes.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+}
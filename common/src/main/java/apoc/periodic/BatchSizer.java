@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+import apoc.Pools;
+import apoc.util.Util;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the batch size and the number of in-flight batches used by
+ * {@link PeriodicUtils#iterateAndExecuteBatchedInSeparateThread}.
+ * This implementation keeps both values fixed for the whole run, see {@link AdaptiveBatchSizer} for the adaptive one.
+ */
+public class BatchSizer {
+    protected volatile int batchSize;
+    protected volatile int concurrency;
+
+    public BatchSizer(int batchSize, int concurrency) {
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Returns an {@link AdaptiveBatchSizer} if `adaptive: true` is set, otherwise a fixed one.
+     * The adaptive bounds default to 1/10 and 10 times the batchSize, and to 1 and max(concurrency, apoc pool threads).
+     */
+    static BatchSizer fromConfig(Map<String, Object> config, int batchSize, int concurrency) {
+        if (!Util.toBoolean(config.getOrDefault("adaptive", false))) {
+            return new BatchSizer(batchSize, concurrency);
+        }
+        int minBatchSize = Util.toInteger(config.getOrDefault("minBatchSize", Math.max(1, batchSize / 10)));
+        int maxBatchSize = Util.toInteger(
+                config.getOrDefault("maxBatchSize", (int) Math.min(Integer.MAX_VALUE, batchSize * 10L)));
+        int minConcurrency = Util.toInteger(config.getOrDefault("minConcurrency", 1));
+        int maxConcurrency = Util.toInteger(
+                config.getOrDefault("maxConcurrency", Math.max(concurrency, Pools.DEFAULT_POOL_THREADS)));
+        long targetLatency = Util.toLong(config.getOrDefault("targetBatchLatency", 1000L));
+        return new AdaptiveBatchSizer(
+                batchSize,
+                concurrency,
+                minBatchSize,
+                maxBatchSize,
+                minConcurrency,
+                maxConcurrency,
+                TimeUnit.MILLISECONDS.toNanos(targetLatency));
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Called by the worker threads once a batch has been committed or has failed
+     * @param rows the number of rows of the batch
+     * @param latencyNanos the time spent executing and committing the batch, retries included
+     * @param collector the collector of the current iteration
+     * @return true if the batch size or the concurrency have been changed
+     */
+    public boolean onBatchCompleted(long rows, long latencyNanos, BatchAndTotalCollector collector) {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "batchSize=" + batchSize + ", concurrency=" + concurrency;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+import static apoc.ApocConfig.apocConfig;
+
+import apoc.SystemLabels;
+import apoc.SystemPropertyKeys;
+import apoc.util.Util;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.tuple.Pair;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.logging.Log;
+
+/**
+ * The checkpoint of an `apoc.periodic.iterate` executed with the `checkpoint` config, stored in the system database.
+ * It keeps the watermark of the rows of the outer statement whose batches have been committed, so that a run
+ * with the same checkpoint name resumes from there: it skips those rows or, if a `checkpointKey` is given,
+ * it passes the key of the last one as `$_checkpoint` to the outer statement, which is expected to filter and order by it.
+ * The `checkpointKey` has to be a scalar, comparable value, e.g. a number or a string, not a node or a relationship.
+ * A failed batch, or a batch with a failed row, stops the watermark for the rest of the run,
+ * and as the batches can complete out of order, the ones committed after it
+ * are executed again on resume, so the inner statement should be idempotent.
+ */
+public class IterateCheckpoint {
+    public static final String CHECKPOINT_PARAM = "_checkpoint";
+    private static final long PERSIST_INTERVAL_MILLIS = 1000;
+
+    private final String databaseName;
+    private final String name;
+    private final String checkpointKey;
+    private final Log log;
+    private final long skip;
+    // the batches committed after the watermark and before the first failed batch, by offset
+    private final TreeMap<Long, Pair<Integer, Object>> committed = new TreeMap<>();
+    // the offset of the first failed batch, which the watermark can't pass in this run
+    private long failedOffset = Long.MAX_VALUE;
+
+    private long offset;
+    private Object lastKey;
+    private long committedBatches;
+    private long failedBatches;
+    private long lastPersisted = System.currentTimeMillis();
+
+    private IterateCheckpoint(
+            String databaseName,
+            String name,
+            String checkpointKey,
+            Log log,
+            long offset,
+            Object lastKey,
+            long committedBatches) {
+        this.databaseName = databaseName;
+        this.name = name;
+        this.checkpointKey = checkpointKey;
+        this.log = log;
+        this.skip = checkpointKey == null ? offset : 0;
+        this.offset = offset;
+        this.lastKey = lastKey;
+        this.committedBatches = committedBatches;
+    }
+
+    /**
+     * Resumes the given checkpoint, unless it doesn't exist or its last run completed, in which case it starts over
+     */
+    public static IterateCheckpoint load(
+            String databaseName, String name, String statement, String checkpointKey, Log log) {
+        return withSystemDb(tx -> {
+            Node node = getOrCreateNode(tx, databaseName, name);
+            IterateCheckpoint checkpoint;
+            if ((boolean) node.getProperty(SystemPropertyKeys.completed.name(), true)) {
+                checkpoint = new IterateCheckpoint(databaseName, name, checkpointKey, log, 0, null, 0);
+            } else {
+                Object previous = node.getProperty(SystemPropertyKeys.statement.name(), null);
+                if (!statement.equals(previous)) {
+                    throw new IllegalArgumentException("The checkpoint `" + name
+                            + "` belongs to a different iterate statement: " + previous);
+                }
+                checkpoint = new IterateCheckpoint(
+                        databaseName,
+                        name,
+                        checkpointKey,
+                        log,
+                        (long) node.getProperty(SystemPropertyKeys.offset.name()),
+                        node.getProperty(SystemPropertyKeys.lastKey.name(), null),
+                        (long) node.getProperty(SystemPropertyKeys.committedBatches.name()));
+            }
+            node.setProperty(SystemPropertyKeys.statement.name(), statement);
+            checkpoint.write(node, false);
+            return checkpoint;
+        });
+    }
+
+    public static Stream<CheckpointInfo> list(String databaseName) {
+        List<CheckpointInfo> checkpoints = withSystemDb(tx -> tx
+                .findNodes(SystemLabels.ApocPeriodicCheckpoint, SystemPropertyKeys.database.name(), databaseName)
+                .stream()
+                .map(CheckpointInfo::new)
+                .toList());
+        return checkpoints.stream();
+    }
+
+    public static Stream<CheckpointInfo> drop(String databaseName, String name) {
+        return withSystemDb(tx -> {
+            Node node = tx.findNode(
+                    SystemLabels.ApocPeriodicCheckpoint,
+                    SystemPropertyKeys.database.name(),
+                    databaseName,
+                    SystemPropertyKeys.name.name(),
+                    name);
+            if (node == null) {
+                return Stream.<CheckpointInfo>empty();
+            }
+            CheckpointInfo info = new CheckpointInfo(node);
+            node.delete();
+            return Stream.of(info);
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the rows of the outer statement to be skipped, i.e. the watermark of the resumed run without a `checkpointKey`
+     */
+    public long getSkip() {
+        return skip;
+    }
+
+    /**
+     * @return the parameters of the outer statement, with the last committed key if a `checkpointKey` is given
+     */
+    public Map<String, Object> iterateParams(Map<String, Object> params) {
+        if (checkpointKey == null) {
+            return params;
+        }
+        Map<String, Object> iterateParams = new HashMap<>(params);
+        iterateParams.put(CHECKPOINT_PARAM, lastKey);
+        return iterateParams;
+    }
+
+    synchronized long getOffset() {
+        return offset;
+    }
+
+    Object keyOf(List<Map<String, Object>> rows) {
+        if (checkpointKey == null || rows.isEmpty()) {
+            return null;
+        }
+        Object key = rows.get(rows.size() - 1).get(checkpointKey);
+        // the key is compared with the ones of the outer statement, e.g. via `WHERE n.id > $_checkpoint`
+        if (key != null && !(key instanceof Comparable)) {
+            throw new IllegalArgumentException("The checkpointKey `" + checkpointKey
+                    + "` has to be a scalar value, like a number or a string, but got: "
+                    + key.getClass().getSimpleName());
+        }
+        return key;
+    }
+
+    /**
+     * Moves the watermark over the contiguous committed batches, and stores it at most once per second.
+     * After a failed batch, only the batches before it are kept, as the watermark can't move past it anymore
+     * @param batchOffset the offset, among the rows of the outer statement, of the first row of the batch
+     * @param success whether the batch has been committed without failed rows
+     */
+    synchronized void onBatchCompleted(long batchOffset, int size, Object key, boolean success) {
+        if (size == 0) {
+            return;
+        }
+        if (!success) {
+            failedBatches++;
+            if (batchOffset < failedOffset) {
+                if (failedOffset == Long.MAX_VALUE) {
+                    log.warn(
+                            "The checkpoint `%s` of periodic iteration stops at the failed batch at offset %d",
+                            name, batchOffset);
+                }
+                failedOffset = batchOffset;
+                committed.tailMap(failedOffset).clear();
+            }
+            return;
+        }
+        committedBatches++;
+        if (batchOffset > failedOffset) {
+            return;
+        }
+        committed.put(batchOffset, Pair.of(size, key));
+        boolean advanced = false;
+        Map.Entry<Long, Pair<Integer, Object>> next;
+        while ((next = committed.firstEntry()) != null && next.getKey() == offset) {
+            committed.pollFirstEntry();
+            offset += next.getValue().getLeft();
+            lastKey = next.getValue().getRight();
+            advanced = true;
+        }
+        if (advanced && System.currentTimeMillis() - lastPersisted >= PERSIST_INTERVAL_MILLIS) {
+            persist(false);
+        }
+    }
+
+    /**
+     * Stores the final watermark, the checkpoint is completed if all the rows up to the end have been committed
+     */
+    synchronized void finish(long endOffset, boolean wasTerminated) {
+        persist(!wasTerminated && offset == endOffset);
+    }
+
+    private void persist(boolean completed) {
+        try {
+            withSystemDb(tx -> {
+                write(getOrCreateNode(tx, databaseName, name), completed);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Error storing the checkpoint `%s` of periodic iteration: %s", name, e.getMessage());
+        }
+        lastPersisted = System.currentTimeMillis();
+    }
+
+    private void write(Node node, boolean completed) {
+        node.setProperty(SystemPropertyKeys.offset.name(), offset);
+        if (lastKey == null) {
+            node.removeProperty(SystemPropertyKeys.lastKey.name());
+        } else {
+            node.setProperty(SystemPropertyKeys.lastKey.name(), lastKey);
+        }
+        node.setProperty(SystemPropertyKeys.committedBatches.name(), committedBatches);
+        node.setProperty(SystemPropertyKeys.failedBatches.name(), failedBatches);
+        node.setProperty(SystemPropertyKeys.completed.name(), completed);
+        node.setProperty(SystemPropertyKeys.lastUpdated.name(), System.currentTimeMillis());
+    }
+
+    private static Node getOrCreateNode(Transaction tx, String databaseName, String name) {
+        return Util.mergeNode(
+                tx,
+                SystemLabels.ApocPeriodicCheckpoint,
+                null,
+                Pair.of(SystemPropertyKeys.database.name(), databaseName),
+                Pair.of(SystemPropertyKeys.name.name(), name));
+    }
+
+    private static <T> T withSystemDb(Function<Transaction, T> action) {
+        try (Transaction tx = apocConfig().getSystemDb().beginTx()) {
+            T result = action.apply(tx);
+            tx.commit();
+            return result;
+        }
+    }
+
+    public static class CheckpointInfo {
+        public final String name;
+        public final String statement;
+        public final long offset;
+        public final Object lastKey;
+        public final long committedBatches;
+        public final long failedBatches;
+        public final boolean completed;
+        public final long lastUpdated;
+
+        CheckpointInfo(Node node) {
+            this.name = (String) node.getProperty(SystemPropertyKeys.name.name());
+            this.statement = (String) node.getProperty(SystemPropertyKeys.statement.name(), null);
+            this.offset = (long) node.getProperty(SystemPropertyKeys.offset.name(), 0L);
+            this.lastKey = node.getProperty(SystemPropertyKeys.lastKey.name(), null);
+            this.committedBatches = (long) node.getProperty(SystemPropertyKeys.committedBatches.name(), 0L);
+            this.failedBatches = (long) node.getProperty(SystemPropertyKeys.failedBatches.name(), 0L);
+            this.completed = (boolean) node.getProperty(SystemPropertyKeys.completed.name(), false);
+            this.lastUpdated = (long) node.getProperty(SystemPropertyKeys.lastUpdated.name(), 0L);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+import apoc.util.Util;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Emits the intermediate results of an `apoc.periodic.iterate` executed with `streamProgress: true`,
+ * every `progressBatches` completed batches or every `progressSeconds` seconds, whichever comes first.
+ * The results are only emitted when a batch completes, by the thread which executed it.
+ */
+public class IterateProgress {
+    public static final long DEFAULT_PROGRESS_SECONDS = 10;
+
+    private final long everyBatches;
+    private final long everyNanos;
+    private final long expectedRows;
+    private final Consumer<BatchAndTotalResult> consumer;
+
+    private long lastBatches;
+    private long lastNanos = System.nanoTime();
+
+    public IterateProgress(
+            long everyBatches, long everySeconds, long expectedRows, Consumer<BatchAndTotalResult> consumer) {
+        this.everyBatches = everyBatches;
+        // saturated to Long.MAX_VALUE, i.e. never
+        this.everyNanos = TimeUnit.SECONDS.toNanos(everySeconds);
+        this.expectedRows = expectedRows;
+        this.consumer = consumer;
+    }
+
+    /**
+     * @return the progress configured by `progressBatches`, `progressSeconds` and `expectedRows`
+     */
+    public static IterateProgress fromConfig(Map<String, Object> config, Consumer<BatchAndTotalResult> consumer) {
+        long everyBatches = Util.toLong(config.getOrDefault("progressBatches", Long.MAX_VALUE));
+        if (everyBatches < 1) {
+            throw new IllegalArgumentException("progressBatches parameter must be > 0");
+        }
+        long everySeconds = Util.toLong(config.getOrDefault(
+                "progressSeconds", config.containsKey("progressBatches") ? Long.MAX_VALUE : DEFAULT_PROGRESS_SECONDS));
+        if (everySeconds < 1) {
+            throw new IllegalArgumentException("progressSeconds parameter must be > 0");
+        }
+        long expectedRows = Util.toLong(config.getOrDefault("expectedRows", 0));
+        return new IterateProgress(everyBatches, everySeconds, expectedRows, consumer);
+    }
+
+    synchronized void onBatchCompleted(BatchAndTotalCollector collector) {
+        long batches = collector.getBatches();
+        long now = System.nanoTime();
+        if (batches - lastBatches < everyBatches && now - lastNanos < everyNanos) {
+            return;
+        }
+        lastBatches = batches;
+        lastNanos = now;
+        consumer.accept(collector.getProgressResult(expectedRows));
+    }
+}
@@ -22,16 +22,13 @@ import static apoc.util.Util.merge;
 
 import apoc.Pools;
 import apoc.util.Util;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
@@ -91,6 +88,11 @@ public class PeriodicUtils {
         protected BatchAndTotalCollector collector;
         private List<Map<String, Object>> batch;
         protected BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer;
+        // the position of the batch among the rows of the outer statement, set by the reading thread
+        long offset;
+        Object checkpointKey;
+        // the failed operations of the last attempt, a batch with failed rows doesn't move the checkpoint
+        final AtomicLong failedOps = new AtomicLong();
 
         ExecuteBatch(
                 TerminationGuard terminationGuard,
@@ -103,6 +105,10 @@ public class PeriodicUtils {
             this.consumer = consumer;
         }
 
+        int size() {
+            return batch.size();
+        }
+
         protected List<Map<String, Object>> rebindBatch(Transaction tx) {
             return Util.rebindRows(tx, batch);
         }
@@ -128,9 +134,11 @@ public class PeriodicUtils {
         @Override
         public final Long apply(Transaction txInThread) {
             if (Util.transactionIsTerminated(terminationGuard)) return 0L;
+            failedOps.set(0);
             final var batch = rebindBatch(txInThread);
             Map<String, Object> params = Util.map("_count", collector.getCount(), "_batch", batch);
-            return executeAndReportErrors(txInThread, consumer, params, batch, batch.size(), null, collector);
+            return executeAndReportErrors(
+                    txInThread, consumer, params, batch, batch.size(), null, collector, failedOps);
         }
     }
 
@@ -147,6 +155,7 @@ public class PeriodicUtils {
         @Override
         public final Long apply(Transaction txInThread) {
             if (Util.transactionIsTerminated(terminationGuard)) return 0L;
+            failedOps.set(0);
             AtomicLong localCount = new AtomicLong(collector.getCount());
             final var batch = rebindBatch(txInThread);
             return batch.stream()
@@ -155,7 +164,8 @@ public class PeriodicUtils {
                             return 0;
                         }
                         Map<String, Object> params = merge(p, Util.map("_count", localCount.get(), "_batch", batch));
-                        return executeAndReportErrors(txInThread, consumer, params, batch, 1, localCount, collector);
+                        return executeAndReportErrors(
+                                txInThread, consumer, params, batch, 1, localCount, collector, failedOps);
                     })
                     .sum();
         }
@@ -168,7 +178,8 @@ public class PeriodicUtils {
             List<Map<String, Object>> batch,
             int returnValue,
             AtomicLong localCount,
-            BatchAndTotalCollector collector) {
+            BatchAndTotalCollector collector,
+            AtomicLong batchFailedOps) {
         try {
             QueryStatistics statistics = consumer.apply(tx, params);
             if (localCount != null) {
@@ -178,6 +189,7 @@ public class PeriodicUtils {
             return returnValue;
         } catch (Exception e) {
             collector.incrementFailedOps(batch.size());
+            batchFailedOps.addAndGet(batch.size());
             collector.amendFailedParamsMap(batch);
             recordError(collector.getOperationErrors(), e);
             throw e;
@@ -243,65 +255,166 @@ public class PeriodicUtils {
             int concurrency,
             int failedParams,
             String periodicId) {
+        return iterateAndExecuteBatchedInSeparateThread(
+                db,
+                terminationGuard,
+                log,
+                pools,
+                new BatchSizer(batchsize, concurrency),
+                parallel,
+                iterateList,
+                retries,
+                iterator,
+                consumer,
+                defaultQueueCapacity(parallel, concurrency),
+                null,
+                null,
+                null,
+                failedParams,
+                periodicId);
+    }
+
+    /**
+     * By default the reading thread can build up to two batches ahead for each in-flight batch
+     */
+    public static int defaultQueueCapacity(boolean parallel, int concurrency) {
+        return 2 * (parallel ? concurrency : 1);
+    }
+
+    public static Stream<BatchAndTotalResult> iterateAndExecuteBatchedInSeparateThread(
+            GraphDatabaseService db,
+            TerminationGuard terminationGuard,
+            Log log,
+            Pools pools,
+            BatchSizer batchSizer,
+            boolean parallel,
+            boolean iterateList,
+            long retries,
+            Iterator<Map<String, Object>> iterator,
+            BiFunction<Transaction, Map<String, Object>, QueryStatistics> consumer,
+            int queueCapacity,
+            String partitionKey,
+            IterateCheckpoint checkpoint,
+            IterateProgress progress,
+            int failedParams,
+            String periodicId) {
 
-        ExecutorService pool = parallel ? pools.getDefaultExecutorService() : pools.getSingleExecutorService();
-        List<Future<Long>> futures = new ArrayList<>(concurrency);
+        ExecutorService pool =
+                parallel ? pools.getExecutorService(Pools.Workload.PERIODIC) : pools.getSingleExecutorService();
         BatchAndTotalCollector collector = new BatchAndTotalCollector(terminationGuard, failedParams);
-        AtomicInteger activeFutures = new AtomicInteger(0);
+        long[] nextOffset = {checkpoint == null ? 0 : checkpoint.getOffset()};
+        Function<List<Map<String, Object>>, ExecuteBatch> batchFactory = batch -> {
+            ExecuteBatch executeBatch = iterateList
+                    ? new ListExecuteBatch(terminationGuard, collector, batch, consumer)
+                    : new OneByOneExecuteBatch(terminationGuard, collector, batch, consumer);
+            executeBatch.offset = nextOffset[0];
+            nextOffset[0] += batch.size();
+            if (checkpoint != null) {
+                executeBatch.checkpointKey = checkpoint.keyOf(batch);
+            }
+            return executeBatch;
+        };
+        ToLongFunction<ExecuteBatch> executor = executeBatch -> executeInTx(
+                log, db, executeBatch, retries, batchSizer, checkpoint, progress, collector, periodicId);
+        // the number of partitions is fixed, so in adaptive mode only the batch size changes
+        BatchPipeline pipeline = parallel && partitionKey != null
+                ? BatchPipeline.partitioned(
+                        pool, queueCapacity, partitionKey, batchSizer.getConcurrency(), batchFactory, executor)
+                : new BatchPipeline(
+                        pool, queueCapacity, parallel ? batchSizer::getConcurrency : () -> 1, batchFactory, executor);
+
+        if (checkpoint != null && checkpoint.getSkip() > 0) {
+            long skipped = 0;
+            while (skipped < checkpoint.getSkip() && iterator.hasNext()) {
+                if (skipped % 10000 == 0 && Util.transactionIsTerminated(terminationGuard)) break;
+                iterator.next();
+                skipped++;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(
+                        "Resumed periodic iteration with id %s from checkpoint %s, skipped %d rows",
+                        periodicId, checkpoint.getName(), skipped);
+            }
+        }
 
         do {
             if (Util.transactionIsTerminated(terminationGuard)) break;
 
-            if (activeFutures.get() < concurrency || !parallel) {
-                // we have capacity, add a new Future to the list
-                activeFutures.incrementAndGet();
-
-                if (log.isDebugEnabled())
-                    log.debug("Execute, in periodic iteration with id %s, no %d batch size ", periodicId, batchsize);
-                List<Map<String, Object>> batch = Util.take(iterator, batchsize);
-                final long currentBatchSize = batch.size();
-                ExecuteBatch executeBatch = iterateList
-                        ? new ListExecuteBatch(terminationGuard, collector, batch, consumer)
-                        : new OneByOneExecuteBatch(terminationGuard, collector, batch, consumer);
-
-                futures.add(Util.inTxFuture(
-                        log,
-                        pool,
-                        db,
-                        executeBatch,
-                        retries,
-                        retryCount -> collector.incrementRetried(),
-                        onComplete -> {
-                            collector.incrementBatches();
-                            executeBatch.release();
-                            activeFutures.decrementAndGet();
-                        }));
-                collector.incrementCount(currentBatchSize);
-                if (log.isDebugEnabled()) {
-                    log.debug(
-                            "Processed in periodic iteration with id %s, %d iterations of %d total",
-                            periodicId, batchsize, collector.getCount());
-                }
-            } else {
-                // we can't block until the counter decrease as we might miss a cancellation, so
-                // let this thread be preempted for a bit before we check for cancellation or
-                // capacity.
-                LockSupport.parkNanos(1000);
+            int batchsize = batchSizer.getBatchSize();
+            if (log.isDebugEnabled())
+                log.debug("Execute, in periodic iteration with id %s, no %d batch size ", periodicId, batchsize);
+            List<Map<String, Object>> batch = pipeline.take(iterator, batchsize);
+            if (!pipeline.offer(batch, batchsize, terminationGuard)) break;
+            collector.incrementCount(batch.size());
+            if (log.isDebugEnabled()) {
+                log.debug(
+                        "Processed in periodic iteration with id %s, %d iterations of %d total",
+                        periodicId, batchsize, collector.getCount());
             }
         } while (iterator.hasNext());
 
+        if (!Util.transactionIsTerminated(terminationGuard)) {
+            pipeline.flush(terminationGuard);
+        }
         boolean wasTerminated = Util.transactionIsTerminated(terminationGuard);
-        ToLongFunction<Future<Long>> toLongFunction = wasTerminated
-                ? f -> Util.getFutureOrCancel(f, collector.getBatchErrors(), collector.getFailedBatches(), 0L)
-                : f -> Util.getFuture(f, collector.getBatchErrors(), collector.getFailedBatches(), 0L);
-        collector.incrementSuccesses(futures.stream().mapToLong(toLongFunction).sum());
+        collector.incrementSuccesses(pipeline.awaitCompletion(wasTerminated, collector));
+        if (checkpoint != null) {
+            checkpoint.finish(nextOffset[0], wasTerminated);
+        }
 
         Util.logErrors("Error during iterate.commit:", collector.getBatchErrors(), log);
         Util.logErrors("Error during iterate.execute:", collector.getOperationErrors(), log);
         if (log.isDebugEnabled()) {
             log.debug("Terminated periodic iteration with id %s with %d executions", periodicId, collector.getCount());
         }
-        return Stream.of(collector.getResult());
+        return Stream.of(collector.getResult(pipeline.getStats()));
+    }
+
+    private static long executeInTx(
+            Log log,
+            GraphDatabaseService db,
+            ExecuteBatch executeBatch,
+            long retries,
+            BatchSizer batchSizer,
+            IterateCheckpoint checkpoint,
+            IterateProgress progress,
+            BatchAndTotalCollector collector,
+            String periodicId) {
+        long start = System.nanoTime();
+        int batchSize = executeBatch.size();
+        boolean committed = false;
+        try {
+            long successes =
+                    Util.retryInTx(log, db, executeBatch, 0, retries, retryCount -> collector.incrementRetried());
+            committed = true;
+            collector.incrementCommitted(successes);
+            return successes;
+        } catch (Exception e) {
+            collector.getFailedBatches().incrementAndGet();
+            // same message as the one of the ExecutionException wrapping it
+            collector.getBatchErrors().compute(e.toString(), (s, i) -> i == null ? 1 : i + 1);
+            return 0L;
+        } finally {
+            collector.incrementBatches();
+            collector.incrementCompletedRows(batchSize);
+            if (checkpoint != null) {
+                // a terminated batch could have been committed without executing all of its rows
+                checkpoint.onBatchCompleted(
+                        executeBatch.offset,
+                        batchSize,
+                        executeBatch.checkpointKey,
+                        committed
+                                && executeBatch.failedOps.get() == 0
+                                && !Util.transactionIsTerminated(executeBatch.terminationGuard));
+            }
+            executeBatch.release();
+            if (progress != null) {
+                progress.onBatchCompleted(collector);
+            }
+            if (batchSizer.onBatchCompleted(batchSize, System.nanoTime() - start, collector) && log.isDebugEnabled()) {
+                log.debug("Adapted periodic iteration with id %s to %s", periodicId, batchSizer);
+            }
+        }
     }
 
     public static Stream<JobInfo> submitProc(
@@ -41,9 +41,13 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.commons.io.FilenameUtils;
@@ -181,6 +185,20 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Returns a channel reading straight from the given local file,
+     * or null when the file is not a local one, like a URL or an entry of an archive.
+     */
+    public static SeekableByteChannel fileChannelFor(String fileName, URLAccessChecker urlAccessChecker)
+            throws IOException {
+        if (fileName == null || !isFile(fileName) || fileName.contains("!")) {
+            return null;
+        }
+        apocConfig().checkReadAllowed(fileName, urlAccessChecker);
+        final Path path = getPath(changeFileUrlIfImportDirectoryConstrained(fileName));
+        return Files.isRegularFile(path) ? FileChannel.open(path, StandardOpenOption.READ) : null;
+    }
+
     public static String changeFileUrlIfImportDirectoryConstrained(String url) throws IOException {
         if (isFile(url) && isImportUsingNeo4jConfig()) {
             if (!apocConfig().getBoolean(APOC_IMPORT_FILE_ALLOW__READ__FROM__FILESYSTEM)) {
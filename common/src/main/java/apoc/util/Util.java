@@ -275,8 +275,12 @@ public class Util {
     }
 
     public static <T> T inThread(Pools pools, Callable<T> callable) {
+        return inThread(pools.getDefaultExecutorService(), callable);
+    }
+
+    public static <T> T inThread(ExecutorService executorService, Callable<T> callable) {
         try {
-            return inFuture(pools, callable).get();
+            return executorService.submit(callable).get();
         } catch (Exception e) {
             throw new RuntimeException("Error executing in separate thread: " + e.getMessage(), e);
         }
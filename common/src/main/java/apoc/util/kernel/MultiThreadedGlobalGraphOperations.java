@@ -18,48 +18,165 @@
  */
 package apoc.util.kernel;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.neo4j.internal.kernel.api.Cursor;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.PartitionedScan;
 import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.internal.kernel.api.security.LoginContext;
+import org.neo4j.io.pagecache.context.CursorContext;
 import org.neo4j.kernel.api.ExecutionContext;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+/**
+ * Scans the nodes or the relationships of the store in parallel: the store is split in partitions of about
+ * `batchSize` entities, which are reserved by a fixed number of workers, each one in its own transaction.
+ * The label and type filters are checked on the scanned records, so they don't rely on the token lookup indexes.
+ */
 public class MultiThreadedGlobalGraphOperations {
 
     public static BatchJobResult forAllNodes(
             GraphDatabaseAPI db, ExecutorService executorService, int batchSize, Consumer<NodeCursor> consumer) {
-        BatchJobResult result = new BatchJobResult();
-        AtomicInteger processing = new AtomicInteger();
+        return forAllNodes(db, executorService, batchSize, List.of(), consumer);
+    }
+
+    /**
+     * @param labels the nodes must have at least one of them, all the nodes are scanned if empty
+     */
+    public static BatchJobResult forAllNodes(
+            GraphDatabaseAPI db,
+            ExecutorService executorService,
+            int batchSize,
+            Collection<String> labels,
+            Consumer<NodeCursor> consumer) {
+        return scan(
+                db, executorService, batchSize, new NodeScan(labels), () -> consumer, Consumer::accept, (a, b) -> a);
+    }
+
+    /**
+     * Each worker accumulates the nodes in its own accumulator, then the accumulators are combined,
+     * so that the accumulator doesn't have to be thread-safe
+     * @param labels the nodes must have at least one of them, all the nodes are scanned if empty
+     */
+    public static <A> AggregateJobResult<A> forAllNodes(
+            GraphDatabaseAPI db,
+            ExecutorService executorService,
+            int batchSize,
+            Collection<String> labels,
+            Supplier<A> supplier,
+            BiConsumer<A, NodeCursor> accumulator,
+            BinaryOperator<A> combiner) {
+        return scan(db, executorService, batchSize, new NodeScan(labels), supplier, accumulator, combiner);
+    }
+
+    /**
+     * @param types the relationships must have one of them, all the relationships are scanned if empty
+     */
+    public static BatchJobResult forAllRelationships(
+            GraphDatabaseAPI db,
+            ExecutorService executorService,
+            int batchSize,
+            Collection<String> types,
+            Consumer<RelationshipScanCursor> consumer) {
+        return scan(
+                db,
+                executorService,
+                batchSize,
+                new RelationshipScan(types),
+                () -> consumer,
+                Consumer::accept,
+                (a, b) -> a);
+    }
+
+    /**
+     * Each worker accumulates the relationships in its own accumulator, then the accumulators are combined,
+     * so that the accumulator doesn't have to be thread-safe
+     * @param types the relationships must have one of them, all the relationships are scanned if empty
+     */
+    public static <A> AggregateJobResult<A> forAllRelationships(
+            GraphDatabaseAPI db,
+            ExecutorService executorService,
+            int batchSize,
+            Collection<String> types,
+            Supplier<A> supplier,
+            BiConsumer<A, RelationshipScanCursor> accumulator,
+            BinaryOperator<A> combiner) {
+        return scan(db, executorService, batchSize, new RelationshipScan(types), supplier, accumulator, combiner);
+    }
+
+    private static <C extends Cursor, A> AggregateJobResult<A> scan(
+            GraphDatabaseAPI db,
+            ExecutorService executorService,
+            int batchSize,
+            EntityScan<C> entityScan,
+            Supplier<A> supplier,
+            BiConsumer<A, C> accumulator,
+            BinaryOperator<A> combiner) {
+        AggregateJobResult<A> result = new AggregateJobResult<>();
+        Queue<A> accumulators = new ConcurrentLinkedQueue<>();
+        List<Future<Void>> futures = new ArrayList<>();
         try (InternalTransaction tx =
                 db.beginTransaction(KernelTransaction.Type.EXPLICIT, LoginContext.AUTH_DISABLED)) {
             KernelTransaction ktx = tx.kernelTransaction();
             Read dataRead = ktx.dataRead();
-            PartitionedScan<NodeCursor> scan = dataRead.allNodesScan(1, ktx.cursorContext());
-            Function<KernelTransaction, NodeCursor> cursorAllocator =
-                    ktx2 -> ktx2.cursors().allocateNodeCursor(ktx2.cursorContext());
-            executorService.submit(
-                    new BatchJob(scan, batchSize, db, consumer, result, cursorAllocator, executorService, processing));
-        }
-
-        try {
-            while (processing.get() > 0) {
-                Thread.sleep(10);
+            Predicate<C> filter = entityScan.filter(ktx.tokenRead());
+            if (filter == null) {
+                // none of the requested tokens exists
+                result.aggregate = supplier.get();
+                return result;
+            }
+            long partitions = Math.max(1, entityScan.count(dataRead) / Math.max(1, batchSize));
+            PartitionedScan<C> scan =
+                    entityScan.scan(dataRead, (int) Math.min(Integer.MAX_VALUE, partitions), ktx.cursorContext());
+            int workers = (int) Math.min(scan.getNumberOfPartitions(), parallelism(executorService));
+            try {
+                for (int i = 0; i < workers; i++) {
+                    futures.add(executorService.submit(new BatchJob<>(
+                            scan, db, entityScan, filter, supplier, accumulator, accumulators, result)));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new RuntimeException("Interrupted while scanning the graph", e);
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new RuntimeException("Error while scanning the graph: " + e.getCause().getMessage(), e);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
         }
+        result.aggregate = accumulators.stream().reduce(combiner).orElseGet(supplier);
         return result;
     }
 
+    private static int parallelism(ExecutorService executorService) {
+        if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return Math.max(1, threadPoolExecutor.getMaximumPoolSize());
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
     public static class BatchJobResult {
         final AtomicInteger batches = new AtomicInteger();
         final AtomicLong succeeded = new AtomicLong();
@@ -80,78 +197,186 @@ public class MultiThreadedGlobalGraphOperations {
         public long getFailures() {
             return failures.get();
         }
+
+        public int getBatches() {
+            return batches.get();
+        }
+    }
+
+    public static class AggregateJobResult<A> extends BatchJobResult {
+        private A aggregate;
+
+        public A getAggregate() {
+            return aggregate;
+        }
+    }
+
+    private interface EntityScan<C extends Cursor> {
+        long count(Read read);
+
+        PartitionedScan<C> scan(Read read, int partitions, CursorContext cursorContext);
+
+        C allocateCursor(KernelTransaction ktx);
+
+        /**
+         * @return the filter of the scanned entities, or null if none can match
+         */
+        Predicate<C> filter(TokenRead tokenRead);
+    }
+
+    private static class NodeScan implements EntityScan<NodeCursor> {
+        private final Collection<String> labels;
+
+        NodeScan(Collection<String> labels) {
+            this.labels = labels;
+        }
+
+        @Override
+        public long count(Read read) {
+            return read.nodesGetCount();
+        }
+
+        @Override
+        public PartitionedScan<NodeCursor> scan(Read read, int partitions, CursorContext cursorContext) {
+            return read.allNodesScan(partitions, cursorContext);
+        }
+
+        @Override
+        public NodeCursor allocateCursor(KernelTransaction ktx) {
+            return ktx.cursors().allocateNodeCursor(ktx.cursorContext());
+        }
+
+        @Override
+        public Predicate<NodeCursor> filter(TokenRead tokenRead) {
+            if (labels == null || labels.isEmpty()) {
+                return cursor -> true;
+            }
+            int[] labelIds = labels.stream()
+                    .mapToInt(tokenRead::nodeLabel)
+                    .filter(id -> id != TokenRead.NO_TOKEN)
+                    .toArray();
+            if (labelIds.length == 0) {
+                return null;
+            }
+            return cursor -> {
+                for (int labelId : labelIds) {
+                    if (cursor.hasLabel(labelId)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
     }
 
-    private static class BatchJob implements Callable<Void> {
-        private final PartitionedScan<NodeCursor> scan;
-        private final int batchSize;
+    private static class RelationshipScan implements EntityScan<RelationshipScanCursor> {
+        private final Collection<String> types;
+
+        RelationshipScan(Collection<String> types) {
+            this.types = types;
+        }
+
+        @Override
+        public long count(Read read) {
+            return read.relationshipsGetCount();
+        }
+
+        @Override
+        public PartitionedScan<RelationshipScanCursor> scan(Read read, int partitions, CursorContext cursorContext) {
+            return read.allRelationshipsScan(partitions, cursorContext);
+        }
+
+        @Override
+        public RelationshipScanCursor allocateCursor(KernelTransaction ktx) {
+            return ktx.cursors().allocateRelationshipScanCursor(ktx.cursorContext());
+        }
+
+        @Override
+        public Predicate<RelationshipScanCursor> filter(TokenRead tokenRead) {
+            if (types == null || types.isEmpty()) {
+                return cursor -> true;
+            }
+            int[] typeIds = types.stream()
+                    .mapToInt(tokenRead::relationshipType)
+                    .filter(id -> id != TokenRead.NO_TOKEN)
+                    .toArray();
+            if (typeIds.length == 0) {
+                return null;
+            }
+            return cursor -> {
+                int type = cursor.type();
+                for (int typeId : typeIds) {
+                    if (type == typeId) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+    }
+
+    private static class BatchJob<C extends Cursor, A> implements Callable<Void> {
+        private final PartitionedScan<C> scan;
         private final GraphDatabaseAPI db;
-        private final Consumer<NodeCursor> consumer;
+        private final EntityScan<C> entityScan;
+        private final Predicate<C> filter;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, C> accumulator;
+        private final Queue<A> accumulators;
         private final BatchJobResult result;
-        private final Function<KernelTransaction, NodeCursor> cursorAllocator;
-        private final ExecutorService executorService;
-        private final AtomicInteger processing;
 
-        public BatchJob(
-                PartitionedScan<NodeCursor> scan,
-                int batchSize,
+        BatchJob(
+                PartitionedScan<C> scan,
                 GraphDatabaseAPI db,
-                Consumer<NodeCursor> consumer,
-                BatchJobResult result,
-                Function<KernelTransaction, NodeCursor> cursorAllocator,
-                ExecutorService executorService,
-                AtomicInteger processing) {
+                EntityScan<C> entityScan,
+                Predicate<C> filter,
+                Supplier<A> supplier,
+                BiConsumer<A, C> accumulator,
+                Queue<A> accumulators,
+                BatchJobResult result) {
             this.scan = scan;
-            this.batchSize = batchSize;
             this.db = db;
-            this.consumer = consumer;
+            this.entityScan = entityScan;
+            this.filter = filter;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.accumulators = accumulators;
             this.result = result;
-            this.cursorAllocator = cursorAllocator;
-            this.executorService = executorService;
-            this.processing = processing;
-            processing.incrementAndGet();
         }
 
         @Override
         public Void call() {
+            A accumulated = supplier.get();
             try (InternalTransaction tx =
                     db.beginTransaction(KernelTransaction.Type.EXPLICIT, LoginContext.AUTH_DISABLED)) {
                 KernelTransaction ktx = tx.kernelTransaction();
                 ktx.acquireStatement();
                 ExecutionContext executionContext = ktx.createExecutionContext();
-                try (NodeCursor cursor = cursorAllocator.apply(ktx)) {
+                try (C cursor = entityScan.allocateCursor(ktx)) {
                     while (scan.reservePartition(cursor, executionContext)) {
-                        // Branch out so that all available threads will get saturated
-                        executorService.submit(new BatchJob(
-                                scan, batchSize, db, consumer, result, cursorAllocator, executorService, processing));
-                        executorService.submit(new BatchJob(
-                                scan, batchSize, db, consumer, result, cursorAllocator, executorService, processing));
-                        while (processAndReport(cursor)) {
-                            // just continue processing...
+                        while (cursor.next()) {
+                            process(accumulated, cursor);
                         }
+                        result.batches.incrementAndGet();
                     }
                 }
                 tx.commit();
                 executionContext.complete();
                 executionContext.close();
-                return null;
-            } finally {
-                result.batches.incrementAndGet();
-                processing.decrementAndGet();
             }
+            accumulators.add(accumulated);
+            return null;
         }
 
-        private boolean processAndReport(NodeCursor cursor) {
-            if (cursor.next()) {
-                try {
-                    consumer.accept(cursor);
+        private void process(A accumulated, C cursor) {
+            try {
+                if (filter.test(cursor)) {
+                    accumulator.accept(accumulated, cursor);
                     result.incrementSuceeded();
-                } catch (Exception e) {
-                    result.incrementFailures();
                 }
-                return true;
+            } catch (Exception e) {
+                result.incrementFailures();
             }
-            return false;
         }
     }
 }
@@ -123,6 +123,11 @@ public class DatabaseSubGraph implements SubGraph {
     public Iterator<Node> findNodes(Label label) {
         return transaction.findNodes(label);
     }
+
+    @Override
+    public Iterator<Relationship> findRelationships(RelationshipType type) {
+        return transaction.findRelationships(type);
+    }
 }
 
 /**
@@ -57,6 +57,10 @@ public interface SubGraph {
 
     Iterator<Node> findNodes(Label label);
 
+    default Iterator<Relationship> findRelationships(RelationshipType type) {
+        return Iterables.stream(getRelationships()).filter(rel -> rel.isType(type)).iterator();
+    }
+
     default Map<String, Integer> relTypesInUse(TokenRead ops, Collection<String> relTypeNames) {
         Stream<RelationshipType> stream = Iterables.stream(this.getAllRelationshipTypesInUse());
         if (CollectionUtils.isNotEmpty(relTypeNames)) {
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ThreadFactory;
+import org.junit.Test;
+
+public class PoolsTest {
+
+    @Test
+    public void shouldCreateVirtualThreadsOnlyWhenTheJvmSupportsThem() throws Exception {
+        ThreadFactory factory = Pools.virtualThreadFactory();
+        if (Runtime.version().feature() < 21) {
+            assertNull(factory);
+            return;
+        }
+        Thread thread = factory.newThread(() -> {});
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+        assertEquals("apoc-io-0", thread.getName());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class IdMappingTest {
+
+    @Test
+    public void shouldMapNumericAndStringIds() {
+        IdMapping mapping = new IdMapping();
+        IdMapping.IdSpace space = mapping.idSpace("Person");
+        for (int i = 0; i < 100_000; i++) {
+            String numeric = String.valueOf(i - 50_000);
+            String text = "person-" + i;
+            assertTrue(space.reserve(numeric));
+            assertTrue(space.reserve(text));
+            space.put(numeric, i);
+            space.put(text, i + 1_000_000L);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, mapping.get("Person", String.valueOf(i - 50_000)));
+            assertEquals(i + 1_000_000L, mapping.get("Person", "person-" + i));
+        }
+        assertEquals(IdMapping.NOT_FOUND, mapping.get("Person", "person-100000"));
+        assertEquals(IdMapping.NOT_FOUND, mapping.get("Company", "1"));
+    }
+
+    @Test
+    public void shouldSpillToDiskPastTheHeapBudget() {
+        try (IdMapping mapping = new IdMapping(64 * 1024)) {
+            IdMapping.IdSpace space = mapping.idSpace("Person");
+            for (int i = 0; i < 100_000; i++) {
+                assertTrue(space.reserve(String.valueOf(i)));
+                assertTrue(space.reserve("person-" + i));
+                space.put(String.valueOf(i), i);
+                space.put("person-" + i, i + 1_000_000L);
+            }
+            assertTrue(mapping.spilledBytes() > 0);
+            for (int i = 0; i < 100_000; i++) {
+                assertEquals(i, space.get(String.valueOf(i)));
+                assertEquals(i + 1_000_000L, space.get("person-" + i));
+            }
+            assertFalse(space.reserve("person-42"));
+            assertEquals(IdMapping.NOT_FOUND, space.get("person-100000"));
+        }
+    }
+
+    @Test
+    public void shouldNotSpillWithinTheHeapBudget() {
+        try (IdMapping mapping = new IdMapping()) {
+            IdMapping.IdSpace space = mapping.idSpace("Person");
+            for (int i = 0; i < 10_000; i++) {
+                space.put("person-" + i, i);
+            }
+            assertEquals(0, mapping.spilledBytes());
+            assertEquals(9_999, space.get("person-9999"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeHeapBudget() {
+        new IdMapping(-1);
+    }
+
+    @Test
+    public void shouldNotMixNonCanonicalNumbers() {
+        IdMapping.IdSpace space = new IdMapping().idSpace("default");
+        space.reserve("1");
+        space.put("1", 10);
+        assertTrue(space.reserve("01"));
+        space.put("01", 20);
+        assertTrue(space.reserve("-0"));
+        space.put("-0", 30);
+        assertTrue(space.reserve("12345678901234567890"));
+        space.put("12345678901234567890", 40);
+        assertTrue(space.reserve("ü"));
+        space.put("ü", 50);
+
+        assertEquals(10, space.get("1"));
+        assertEquals(20, space.get("01"));
+        assertEquals(30, space.get("-0"));
+        assertEquals(40, space.get("12345678901234567890"));
+        assertEquals(50, space.get("ü"));
+        assertEquals(IdMapping.NOT_FOUND, space.get("0"));
+    }
+
+    @Test
+    public void shouldDetectDuplicates() {
+        IdMapping.IdSpace space = new IdMapping().idSpace("default");
+        assertTrue(space.reserve("a"));
+        // a reserved id is not found until its node is mapped
+        assertEquals(IdMapping.NOT_FOUND, space.get("a"));
+        assertFalse(space.reserve("a"));
+        space.put("a", 1);
+        assertFalse(space.reserve("a"));
+        assertTrue(space.reserve(null));
+        assertFalse(space.reserve(null));
+    }
+
+    @Test
+    public void shouldReserveConcurrently() throws Exception {
+        IdMapping.IdSpace space = new IdMapping().idSpace("default");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        if (space.reserve("id" + i)) {
+                            space.put("id" + i, i);
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            int reserved = 0;
+            for (Future<Integer> future : futures) {
+                reserved += future.get();
+            }
+            assertEquals(10_000, reserved);
+            assertEquals(9_999, space.get("id9999"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
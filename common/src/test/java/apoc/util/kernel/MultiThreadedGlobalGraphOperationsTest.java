@@ -18,10 +18,14 @@
  */
 package apoc.util.kernel;
 
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.AggregateJobResult;
 import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.BatchJobResult;
 import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.forAllNodes;
+import static apoc.util.kernel.MultiThreadedGlobalGraphOperations.forAllRelationships;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.AfterClass;
@@ -49,6 +53,8 @@ public class MultiThreadedGlobalGraphOperationsTest {
     private static void createData() {
         db.executeTransactionally(
                 "UNWIND range(1,1000) as x MERGE (s{id:x}) MERGE (e{id:x+1}) merge (s)-[:REL{id:x}]->(e)");
+        db.executeTransactionally("MATCH (n) WHERE n.id % 2 = 0 SET n:Even");
+        db.executeTransactionally("MATCH (s{id:1}), (e{id:3}) CREATE (s)-[:OTHER]->(e)");
     }
 
     @Test
@@ -60,4 +66,43 @@ public class MultiThreadedGlobalGraphOperationsTest {
         assertEquals(1001, result.getSucceeded());
         assertEquals(0, result.getFailures());
     }
+
+    @Test
+    public void shouldForAllNodesFilterByLabel() {
+        AtomicInteger counter = new AtomicInteger();
+        BatchJobResult result = forAllNodes(
+                db, Executors.newFixedThreadPool(4), 10, List.of("Even"), (nodeCursor) -> counter.incrementAndGet());
+        assertEquals(500, counter.get());
+        assertEquals(500, result.getSucceeded());
+
+        result = forAllNodes(db, Executors.newFixedThreadPool(4), 10, List.of("Missing"), (nodeCursor) -> fail());
+        assertEquals(0, result.getSucceeded());
+    }
+
+    @Test
+    public void shouldForAllRelationshipsWork() {
+        AtomicInteger counter = new AtomicInteger();
+        BatchJobResult result = forAllRelationships(
+                db, Executors.newFixedThreadPool(4), 10, List.of(), (relCursor) -> counter.incrementAndGet());
+        assertEquals(1001, counter.get());
+        assertEquals(1001, result.getSucceeded());
+        assertEquals(0, result.getFailures());
+
+        result = forAllRelationships(db, Executors.newFixedThreadPool(4), 10, List.of("OTHER"), (relCursor) -> {});
+        assertEquals(1, result.getSucceeded());
+    }
+
+    @Test
+    public void shouldCombineTheAccumulatorsOfTheWorkers() {
+        AggregateJobResult<long[]> result = forAllRelationships(
+                db,
+                Executors.newFixedThreadPool(4),
+                10,
+                List.of("REL"),
+                () -> new long[1],
+                (count, relCursor) -> count[0]++,
+                (a, b) -> new long[] {a[0] + b[0]});
+        assertEquals(1000, result.getAggregate()[0]);
+        assertEquals(1000, result.getSucceeded());
+    }
 }
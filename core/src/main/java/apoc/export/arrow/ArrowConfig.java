@@ -26,17 +26,71 @@ public class ArrowConfig {
 
     private final int batchSize;
 
+    private final boolean typed;
+
+    private final boolean parallel;
+
+    private final int concurrency;
+
+    private final boolean ordered;
+
+    private final long memoryLimit;
+
     private final Map<String, Object> config;
 
     public ArrowConfig(Map<String, Object> config) {
         this.config = config == null ? Collections.emptyMap() : config;
         this.batchSize = Util.toInteger(this.config.getOrDefault("batchSize", 2000));
+        this.typed = Util.toBoolean(this.config.getOrDefault("typed", false));
+        this.parallel = Util.toBoolean(this.config.getOrDefault("parallel", false));
+        this.concurrency = Util.toInteger(
+                this.config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors()));
+        if (this.concurrency < 1) {
+            throw new IllegalArgumentException("concurrency parameter must be > 0");
+        }
+        this.ordered = Util.toBoolean(this.config.getOrDefault("ordered", true));
+        this.memoryLimit = Util.toLong(this.config.getOrDefault("memoryLimit", Long.MAX_VALUE));
+        if (this.memoryLimit < 1) {
+            throw new IllegalArgumentException("memoryLimit parameter must be > 0");
+        }
     }
 
     public int getBatchSize() {
         return batchSize;
     }
 
+    /**
+     * Whether to write natively typed vectors, instead of JSON strings for the maps, the lists and the entities.
+     */
+    public boolean isTyped() {
+        return typed;
+    }
+
+    /**
+     * Whether the file export fills the record batches on the Arrow pool
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Whether the record batches filled in parallel are written in the order of the rows
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * The bytes the record batches filled in parallel can allocate before the export waits for them to be written
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
     public Map<String, Object> getConfig() {
         return config;
     }
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.Channels;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -56,33 +57,57 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
         List<Map<String, Object>> rows = new ArrayList<>(config.getBatchSize());
         VectorSchemaRoot root = null;
         ArrowWriter writer = null;
+        TypedArrowWriter typedWriter = null;
+        ParallelBatchWriter batchWriter = null;
+        Exception failure = null;
         try {
+            if (config.isTyped()) {
+                typedWriter = newTypedWriter(data);
+            }
             Iterator<Map<String, Object>> it = toIterator(reporter, data);
             while (!Util.transactionIsTerminated(getTerminationGuard()) && it.hasNext()) {
-                rows.add(it.next());
+                rows.add(config.isParallel() ? detach(it.next()) : it.next());
                 if (batchCount > 0 && batchCount % config.getBatchSize() == 0) {
                     if (root == null) {
-                        root = VectorSchemaRoot.create(schemaFor(rows), getBufferAllocator());
-                        writer = newArrowWriter(root, out);
+                        root = VectorSchemaRoot.create(schemaFor(rows, typedWriter), getBufferAllocator());
+                        writer = newArrowWriter(root, out, dictionaryProvider(typedWriter));
+                        batchWriter = newBatchWriter(root, writer, config);
                     }
-                    writeBatch(root, writer, rows);
-                    rows.clear();
+                    writeBatch(root, writer, rows, typedWriter, batchWriter);
+                    rows = new ArrayList<>(config.getBatchSize());
                 }
                 ++batchCount;
             }
             if (!rows.isEmpty()) {
                 if (root == null) {
-                    root = VectorSchemaRoot.create(schemaFor(rows), getBufferAllocator());
-                    writer = newArrowWriter(root, out);
+                    root = VectorSchemaRoot.create(schemaFor(rows, typedWriter), getBufferAllocator());
+                    writer = newArrowWriter(root, out, dictionaryProvider(typedWriter));
+                    batchWriter = newBatchWriter(root, writer, config);
                 }
-                writeBatch(root, writer, rows);
+                writeBatch(root, writer, rows, typedWriter, batchWriter);
+            }
+            if (batchWriter != null) {
+                batchWriter.flush();
             }
         } catch (Exception e) {
-            getLogger().error("Exception while extracting Arrow data:", e);
+            failure = e;
         } finally {
             reporter.done();
+            // the batches still in flight are released first, an error doing it doesn't hide the original one
+            final Exception primary = failure;
+            Util.close(batchWriter, e -> {
+                if (primary != null) {
+                    primary.addSuppressed(e);
+                } else {
+                    getLogger().error("Exception while releasing the Arrow batches:", e);
+                }
+            });
             Util.close(root);
             Util.close(writer);
+            Util.close(typedWriter);
+        }
+        if (failure != null) {
+            getLogger().error("Exception while extracting Arrow data:", failure);
         }
 
         return Stream.of(progressInfo);
@@ -90,17 +115,23 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
 
     String getSource(IN data);
 
-    default void writeBatch(VectorSchemaRoot root, ArrowWriter writer, List<Map<String, Object>> rows) {
-        AtomicInteger counter = new AtomicInteger();
-        root.allocateNew();
-        rows.forEach(row -> {
-            final int index = counter.getAndIncrement();
-            root.getFieldVectors().forEach(fe -> {
-                Object value = convertValue(row.get(fe.getName()));
-                write(index, value, fe);
-            });
-        });
-        root.setRowCount(counter.get());
+    private ParallelBatchWriter newBatchWriter(VectorSchemaRoot root, ArrowWriter writer, ArrowConfig config) {
+        return config.isParallel()
+                ? new ParallelBatchWriter(root, writer, getBufferAllocator(), getExecutorService(), config)
+                : null;
+    }
+
+    default void writeBatch(
+            VectorSchemaRoot root,
+            ArrowWriter writer,
+            List<Map<String, Object>> rows,
+            TypedArrowWriter typedWriter,
+            ParallelBatchWriter batchWriter) {
+        if (batchWriter != null) {
+            batchWriter.submit(batch -> fillBatch(batch, rows, typedWriter));
+            return;
+        }
+        fillBatch(root, rows, typedWriter);
         try {
             writer.writeBatch();
         } catch (IOException e) {
@@ -109,6 +140,34 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
         root.clear();
     }
 
+    default void fillBatch(VectorSchemaRoot root, List<Map<String, Object>> rows, TypedArrowWriter typedWriter) {
+        AtomicInteger counter = new AtomicInteger();
+        root.allocateNew();
+        if (typedWriter != null) {
+            typedWriter.write(root, rows);
+            counter.set(rows.size());
+        } else {
+            rows.forEach(row -> {
+                final int index = counter.getAndIncrement();
+                root.getFieldVectors().forEach(fe -> {
+                    Object value = convertValue(row.get(fe.getName()));
+                    write(index, value, fe);
+                });
+            });
+        }
+        root.setRowCount(counter.get());
+    }
+
+    /**
+     * Returns a copy of the row that the batches filled in parallel can read outside the transaction,
+     * i.e. with the entities already converted as by {@link #convertValue(Object)}.
+     */
+    default Map<String, Object> detach(Map<String, Object> row) {
+        final Map<String, Object> detached = new HashMap<>(row.size());
+        row.forEach((key, value) -> detached.put(key, convertValue(value)));
+        return detached;
+    }
+
     String getFileName();
 
     TerminationGuard getTerminationGuard();
@@ -125,8 +184,8 @@ public interface ExportArrowFileStrategy<IN> extends ExportArrowStrategy<IN, Str
         return data == null ? null : Json.writeJsonResult(data);
     }
 
-    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowFileWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out, DictionaryProvider dictionaryProvider) {
+        return new ArrowFileWriter(root, dictionaryProvider, Channels.newChannel(out));
     }
 
     Schema schemaFor(List<Map<String, Object>> rows);
@@ -42,6 +42,7 @@ import org.apache.arrow.vector.Float8Vector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.impl.UnionListWriter;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
@@ -59,10 +60,25 @@ public interface ExportArrowStrategy<IN, OUT> {
 
     Object convertValue(Object data);
 
-    ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out);
+    ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out, DictionaryProvider dictionaryProvider);
 
     Schema schemaFor(List<Map<String, Object>> rows);
 
+    default TypedArrowWriter newTypedWriter(IN data) {
+        return new TypedArrowWriter(getBufferAllocator(), Map.of());
+    }
+
+    default Schema schemaFor(List<Map<String, Object>> rows, TypedArrowWriter typedWriter) {
+        final Schema schema = schemaFor(rows);
+        return typedWriter == null ? schema : typedWriter.schemaFor(schema, rows);
+    }
+
+    default DictionaryProvider dictionaryProvider(TypedArrowWriter typedWriter) {
+        return typedWriter == null
+                ? new DictionaryProvider.MapDictionaryProvider()
+                : typedWriter.getDictionaryProvider();
+    }
+
     TerminationGuard getTerminationGuard();
 
     BufferAllocator getBufferAllocator();
@@ -43,19 +43,25 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
 
     Iterator<Map<String, Object>> toIterator(IN data);
 
-    default byte[] writeBatch(BufferAllocator bufferAllocator, List<Map<String, Object>> rows) {
-        try (final VectorSchemaRoot root = VectorSchemaRoot.create(schemaFor(rows), bufferAllocator);
+    default byte[] writeBatch(
+            BufferAllocator bufferAllocator, List<Map<String, Object>> rows, TypedArrowWriter typedWriter) {
+        try (final VectorSchemaRoot root = VectorSchemaRoot.create(schemaFor(rows, typedWriter), bufferAllocator);
                 final ByteArrayOutputStream out = new ByteArrayOutputStream();
-                final ArrowWriter writer = newArrowWriter(root, out)) {
+                final ArrowWriter writer = newArrowWriter(root, out, dictionaryProvider(typedWriter))) {
             AtomicInteger counter = new AtomicInteger();
             root.allocateNew();
-            rows.forEach(row -> {
-                final int index = counter.getAndIncrement();
-                root.getFieldVectors().forEach(fe -> {
-                    Object value = convertValue(row.get(fe.getName()));
-                    write(index, value, fe);
+            if (typedWriter != null) {
+                typedWriter.write(root, rows);
+                counter.set(rows.size());
+            } else {
+                rows.forEach(row -> {
+                    final int index = counter.getAndIncrement();
+                    root.getFieldVectors().forEach(fe -> {
+                        Object value = convertValue(row.get(fe.getName()));
+                        write(index, value, fe);
+                    });
                 });
-            });
+            }
             root.setRowCount(counter.get());
             writer.writeBatch();
             root.clear();
@@ -66,6 +72,7 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
     }
 
     default Stream<ByteArrayResult> export(IN data, ArrowConfig config) {
+        final TypedArrowWriter typedWriter = config.isTyped() ? newTypedWriter(data) : null;
         class ExportIterator implements Iterator<ByteArrayResult> {
             ByteArrayResult current;
             int batchCount = 0;
@@ -97,7 +104,7 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
                 while (!Util.transactionIsTerminated(getTerminationGuard()) && it.hasNext() && keepIterating) {
                     rows.add(it.next());
                     if (batchCount > 0 && batchCount % config.getBatchSize() == 0) {
-                        final byte[] bytes = writeBatch(getBufferAllocator(), rows);
+                        final byte[] bytes = writeBatch(getBufferAllocator(), rows, typedWriter);
                         current = new ByteArrayResult(bytes);
                         keepIterating = false;
                     }
@@ -105,7 +112,7 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
                 }
 
                 if (!rows.isEmpty()) {
-                    final byte[] bytes = writeBatch(getBufferAllocator(), rows);
+                    final byte[] bytes = writeBatch(getBufferAllocator(), rows, typedWriter);
                     current = new ByteArrayResult(bytes);
                 }
             }
@@ -113,15 +120,15 @@ public interface ExportArrowStreamStrategy<IN> extends ExportArrowStrategy<IN, S
 
         var streamIterator = new ExportIterator(data);
         Iterable<ByteArrayResult> iterable = () -> streamIterator;
-        return StreamSupport.stream(iterable.spliterator(), false);
+        return StreamSupport.stream(iterable.spliterator(), false).onClose(() -> Util.close(typedWriter));
     }
 
     default Object convertValue(Object data) {
         return data == null ? null : Json.writeJsonResult(data);
     }
 
-    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowStreamWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    default ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out, DictionaryProvider dictionaryProvider) {
+        return new ArrowStreamWriter(root, dictionaryProvider, Channels.newChannel(out));
     }
 
     Schema schemaFor(List<Map<String, Object>> rows);
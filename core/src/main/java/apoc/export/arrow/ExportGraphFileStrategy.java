@@ -82,6 +82,17 @@ public class ExportGraphFileStrategy implements ExportArrowFileStrategy<SubGraph
         return ExportArrowFileStrategy.super.export(data, config);
     }
 
+    @Override
+    public TypedArrowWriter newTypedWriter(SubGraph subGraph) {
+        return new TypedArrowWriter(bufferAllocator, dictionariesFor(subGraph));
+    }
+
+    @Override
+    public Map<String, Object> detach(Map<String, Object> row) {
+        // the flattened entities hold only their properties
+        return row;
+    }
+
     @Override
     public String getFileName() {
         return fileName;
@@ -104,7 +115,7 @@ public class ExportGraphFileStrategy implements ExportArrowFileStrategy<SubGraph
 
     @Override
     public ExecutorService getExecutorService() {
-        return pools.getDefaultExecutorService();
+        return pools.getExecutorService(Pools.Workload.ARROW);
     }
 
     @Override
@@ -95,6 +95,19 @@ public interface ExportGraphStrategy {
         return flattened;
     }
 
+    /**
+     * The node labels and the relationship types in use, which the typed writer encodes as dictionaries.
+     */
+    default Map<String, List<String>> dictionariesFor(SubGraph subGraph) {
+        return Map.of(
+                FIELD_LABELS.getName(),
+                Iterables.stream(subGraph.getAllLabelsInUse()).map(Label::name).collect(Collectors.toList()),
+                FIELD_TYPE.getName(),
+                Iterables.stream(subGraph.getAllRelationshipTypesInUse())
+                        .map(RelationshipType::name)
+                        .collect(Collectors.toList()));
+    }
+
     default Map<String, Object> createConfigMap(SubGraph subGraph, ArrowConfig config) {
         final List<String> allLabelsInUse =
                 Iterables.stream(subGraph.getAllLabelsInUse()).map(Label::name).collect(Collectors.toList());
@@ -74,6 +74,11 @@ public class ExportGraphStreamStrategy implements ExportArrowStreamStrategy<SubG
         return ExportArrowStreamStrategy.super.export(subGraph, config);
     }
 
+    @Override
+    public TypedArrowWriter newTypedWriter(SubGraph subGraph) {
+        return new TypedArrowWriter(bufferAllocator, dictionariesFor(subGraph));
+    }
+
     @Override
     public TerminationGuard getTerminationGuard() {
         return terminationGuard;
@@ -91,7 +96,7 @@ public class ExportGraphStreamStrategy implements ExportArrowStreamStrategy<SubG
 
     @Override
     public ExecutorService getExecutorService() {
-        return pools.getDefaultExecutorService();
+        return pools.getExecutorService(Pools.Workload.ARROW);
     }
 
     @Override
@@ -100,8 +105,8 @@ public class ExportGraphStreamStrategy implements ExportArrowStreamStrategy<SubG
     }
 
     @Override
-    public ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out) {
-        return new ArrowStreamWriter(root, new DictionaryProvider.MapDictionaryProvider(), Channels.newChannel(out));
+    public ArrowWriter newArrowWriter(VectorSchemaRoot root, OutputStream out, DictionaryProvider dictionaryProvider) {
+        return new ArrowStreamWriter(root, dictionaryProvider, Channels.newChannel(out));
     }
 
     @Override
@@ -73,7 +73,7 @@ public class ExportResultStreamStrategy implements ExportArrowStreamStrategy<Res
 
     @Override
     public ExecutorService getExecutorService() {
-        return pools.getDefaultExecutorService();
+        return pools.getExecutorService(Pools.Workload.ARROW);
     }
 
     @Override
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.arrow;
+
+import static apoc.export.arrow.ArrowUtils.FIELD_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_LABELS;
+import static apoc.export.arrow.ArrowUtils.FIELD_SOURCE_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_TARGET_ID;
+import static apoc.export.arrow.ArrowUtils.FIELD_TYPE;
+
+import apoc.Pools;
+import apoc.export.util.IdMapping;
+import apoc.export.util.Lanes;
+import apoc.export.util.ProgressReporter;
+import apoc.load.LoadArrow;
+import apoc.result.ProgressInfo;
+import apoc.util.JsonUtil;
+import apoc.util.Util;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransientFailureException;
+import org.neo4j.graphdb.security.URLAccessChecker;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+public class ImportArrow {
+    private static final String ID_SPACE = "arrow";
+    // a parallel batch can deadlock with another one on the same nodes, so it's retried a few times
+    private static final int MAX_RETRIES = 5;
+    private static final Set<String> META_FIELDS = Set.of(
+            FIELD_ID.getName(),
+            FIELD_LABELS.getName(),
+            FIELD_SOURCE_ID.getName(),
+            FIELD_TARGET_ID.getName(),
+            FIELD_TYPE.getName());
+
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public Pools pools;
+
+    @Context
+    public URLAccessChecker urlAccessChecker;
+
+    @Procedure(name = "apoc.import.arrow", mode = Mode.WRITE)
+    @Description("Imports `NODE` and `RELATIONSHIP` values from the provided arrow file or byte array.")
+    public Stream<ProgressInfo> importFile(
+            @Name("input") Object input, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        ProgressInfo result = Util.inThread(pools.getExecutorService(Pools.Workload.IO), () -> {
+            final String file = input instanceof String ? (String) input : null;
+            final String source = file == null ? "binary" : "file";
+            final ArrowConfig arrowConfig = new ArrowConfig(config);
+            final ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(file, source, "arrow"));
+            final Lanes lanes = arrowConfig.isParallel()
+                    ? new Lanes(pools.getDefaultExecutorService(), arrowConfig.getConcurrency())
+                    : null;
+
+            try (IdMapping idMapping = new IdMapping()) {
+                final IdMapping.IdSpace ids = idMapping.idSpace(ID_SPACE);
+                try {
+                    // the relationships need all the nodes to be in the id mapping, so the input is read twice
+                    try (Stream<Map<String, Object>> rows = rows(input)) {
+                        importBatches(
+                                rows.filter(row -> row.get(FIELD_TYPE.getName()) == null).iterator(),
+                                arrowConfig.getBatchSize(),
+                                lanes,
+                                row -> Objects.hashCode(row.get(FIELD_ID.getName())),
+                                batch -> createNodes(batch, ids, reporter));
+                    }
+                    try (Stream<Map<String, Object>> rows = rows(input)) {
+                        // the relationships of the same start node go to the same lane, so no two lanes write it,
+                        // but they can still lock the same end nodes, hence the retries of the deadlocked batches
+                        importBatches(
+                                rows.filter(row -> row.get(FIELD_TYPE.getName()) != null).iterator(),
+                                arrowConfig.getBatchSize(),
+                                lanes,
+                                row -> Objects.hashCode(row.get(FIELD_SOURCE_ID.getName())),
+                                batch -> createRelationships(batch, ids, reporter));
+                    }
+                } finally {
+                    // on a failure, e.g. of a corrupt batch, no batch may still use the id mapping once it's closed
+                    if (lanes != null) {
+                        lanes.cancelAll();
+                    }
+                }
+            }
+
+            return reporter.getTotal();
+        });
+        return Stream.of(result);
+    }
+
+    private Stream<Map<String, Object>> rows(Object input) throws IOException {
+        final LoadArrow loadArrow = new LoadArrow();
+        loadArrow.urlAccessChecker = urlAccessChecker;
+        if (input instanceof String) {
+            return loadArrow.file((String) input, Map.of()).map(result -> result.value);
+        }
+        if (input instanceof byte[]) {
+            return loadArrow.stream((byte[]) input, Map.of()).map(result -> result.value);
+        }
+        if (input instanceof List) {
+            Stream<Map<String, Object>> rows = Stream.empty();
+            for (Object item : (List<?>) input) {
+                if (!(item instanceof byte[])) {
+                    throw new IllegalArgumentException("The input list must contain only byte arrays");
+                }
+                rows = Stream.concat(rows, rows(item));
+            }
+            return rows;
+        }
+        throw new IllegalArgumentException("The input must be a file name, a byte array or a list of byte arrays");
+    }
+
+    private void importBatches(
+            Iterator<Map<String, Object>> rows,
+            int batchSize,
+            Lanes lanes,
+            ToIntFunction<Map<String, Object>> laneKey,
+            Consumer<List<Map<String, Object>>> writer) {
+        if (lanes == null) {
+            List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() >= batchSize) {
+                    writer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) writer.accept(batch);
+            return;
+        }
+
+        final List<List<Map<String, Object>>> batches = new ArrayList<>(lanes.size());
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            batches.add(new ArrayList<>(batchSize));
+        }
+        while (rows.hasNext()) {
+            final Map<String, Object> row = rows.next();
+            final int lane = Math.floorMod(laneKey.applyAsInt(row), lanes.size());
+            final List<Map<String, Object>> batch = batches.get(lane);
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                lanes.submit(lane, () -> writer.accept(batch));
+                batches.set(lane, new ArrayList<>(batchSize));
+            }
+        }
+        for (int lane = 0; lane < lanes.size(); lane++) {
+            final List<Map<String, Object>> batch = batches.get(lane);
+            if (!batch.isEmpty()) lanes.submit(lane, () -> writer.accept(batch));
+        }
+        lanes.awaitAll();
+    }
+
+    private void createNodes(List<Map<String, Object>> rows, IdMapping.IdSpace ids, ProgressReporter reporter) {
+        final long[] nodeIds = new long[rows.size()];
+        long properties = 0;
+        try (Transaction tx = db.beginTx()) {
+            for (int i = 0; i < rows.size(); i++) {
+                final Map<String, Object> row = rows.get(i);
+                final Node node = tx.createNode(Util.labels(row.get(FIELD_LABELS.getName())));
+                properties += setProperties(node, row);
+                nodeIds[i] = node.getId();
+            }
+            tx.commit();
+        }
+        // the ids are mapped only once the nodes are committed
+        for (int i = 0; i < rows.size(); i++) {
+            ids.put(String.valueOf(rows.get(i).get(FIELD_ID.getName())), nodeIds[i]);
+        }
+        synchronized (reporter) {
+            reporter.update(rows.size(), 0, properties);
+        }
+    }
+
+    private void createRelationships(List<Map<String, Object>> rows, IdMapping.IdSpace ids, ProgressReporter reporter) {
+        for (int attempt = 1; ; attempt++) {
+            long properties = 0;
+            try (Transaction tx = db.beginTx()) {
+                for (Map<String, Object> row : rows) {
+                    final Node start = tx.getNodeById(nodeId(ids, row.get(FIELD_SOURCE_ID.getName())));
+                    final Node end = tx.getNodeById(nodeId(ids, row.get(FIELD_TARGET_ID.getName())));
+                    final RelationshipType type = RelationshipType.withName((String) row.get(FIELD_TYPE.getName()));
+                    properties += setProperties(start.createRelationshipTo(end, type), row);
+                }
+                tx.commit();
+            } catch (TransientFailureException e) {
+                if (attempt < MAX_RETRIES) continue;
+                throw e;
+            }
+            synchronized (reporter) {
+                reporter.update(0, rows.size(), properties);
+            }
+            return;
+        }
+    }
+
+    private static long nodeId(IdMapping.IdSpace ids, Object id) {
+        final long nodeId = id == null ? IdMapping.NOT_FOUND : ids.get(id.toString());
+        if (nodeId == IdMapping.NOT_FOUND) {
+            throw new IllegalStateException("Node with id " + id + " not found in the imported nodes");
+        }
+        return nodeId;
+    }
+
+    private static long setProperties(Entity entity, Map<String, Object> row) {
+        long properties = 0;
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (META_FIELDS.contains(entry.getKey()) || entry.getValue() == null) continue;
+            entity.setProperty(entry.getKey(), toPropertyValue(entry.getValue()));
+            properties++;
+        }
+        return properties;
+    }
+
+    /**
+     * Converts the maps and the mixed lists, which can't be stored as properties, to JSON strings,
+     * and the homogeneous lists to the arrays of their type
+     */
+    private static Object toPropertyValue(Object value) {
+        if (value instanceof Map) {
+            return JsonUtil.writeValueAsString(value);
+        }
+        if (value instanceof List<?> list) {
+            final Class<?> type = list.isEmpty() || list.get(0) == null ? null : list.get(0).getClass();
+            if (type == null || list.stream().anyMatch(item -> item == null || item.getClass() != type)) {
+                return JsonUtil.writeValueAsString(value);
+            }
+            final Object array = Array.newInstance(type, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Array.set(array, i, list.get(i));
+            }
+            return array;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.arrow;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+/**
+ * Fills the record batches of an Arrow file on an executor, each one in its own root,
+ * and writes them through the single root of the writer, by moving their buffers.
+ * At most `concurrency` batches are in flight, and no new one is submitted while the ones in flight
+ * allocate more than the memory limit.
+ */
+public class ParallelBatchWriter implements AutoCloseable {
+
+    private final VectorSchemaRoot root;
+    private final ArrowWriter writer;
+    private final BufferAllocator allocator;
+    private final ExecutorService executor;
+    private final CompletionService<VectorSchemaRoot> completionService;
+    private final Deque<Batch> pending = new ArrayDeque<>();
+    private final int concurrency;
+    private final boolean ordered;
+    private final long memoryLimit;
+
+    public ParallelBatchWriter(
+            VectorSchemaRoot root,
+            ArrowWriter writer,
+            BufferAllocator allocator,
+            ExecutorService executor,
+            ArrowConfig config) {
+        this.root = root;
+        this.writer = writer;
+        this.allocator = allocator.newChildAllocator("apoc.export.arrow.batches", 0, Long.MAX_VALUE);
+        this.executor = executor;
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.concurrency = config.getConcurrency();
+        this.ordered = config.isOrdered();
+        this.memoryLimit = config.getMemoryLimit();
+    }
+
+    /**
+     * Submits a batch, that the given consumer fills into a new root,
+     * after writing the batches in flight beyond the concurrency and the memory limit.
+     */
+    public void submit(Consumer<VectorSchemaRoot> fill) {
+        while (pending.size() >= concurrency || (!pending.isEmpty() && allocator.getAllocatedMemory() >= memoryLimit)) {
+            writeNext();
+        }
+        final Batch batch = new Batch();
+        final Callable<VectorSchemaRoot> task = () -> batch.fill(fill);
+        // in order, the completed batches are taken from the pending ones instead of the completion queue
+        batch.future = ordered ? executor.submit(task) : completionService.submit(task);
+        pending.add(batch);
+    }
+
+    /**
+     * Writes all the batches in flight
+     */
+    public void flush() {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() {
+        try {
+            final Future<VectorSchemaRoot> future = ordered ? pending.peekFirst().future : completionService.take();
+            pending.removeIf(batch -> batch.future == future);
+            try (VectorSchemaRoot batch = future.get();
+                    ArrowRecordBatch recordBatch = new VectorUnloader(batch).getRecordBatch()) {
+                new VectorLoader(root).load(recordBatch);
+                writer.writeBatch();
+            } finally {
+                root.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Drops the batches that haven't started yet, waits for the running ones and releases their roots,
+     * so that closing the allocator doesn't fail because of them.
+     * The first error is thrown once everything is released, with the following ones as suppressed.
+     */
+    @Override
+    public void close() {
+        RuntimeException failure = null;
+        for (Batch batch : pending) {
+            if (batch.discard()) {
+                batch.future.cancel(false);
+                continue;
+            }
+            try {
+                batch.future.get().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = addFailure(failure, new RuntimeException(e));
+            } catch (ExecutionException e) {
+                // the batch failed and already released its root
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        pending.clear();
+        try {
+            allocator.close();
+        } catch (RuntimeException e) {
+            failure = addFailure(failure, e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException addFailure(RuntimeException failure, RuntimeException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    private class Batch {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<VectorSchemaRoot> future;
+
+        VectorSchemaRoot fill(Consumer<VectorSchemaRoot> consumer) {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            final VectorSchemaRoot batch = VectorSchemaRoot.create(root.getSchema(), allocator);
+            try {
+                consumer.accept(batch);
+                return batch;
+            } catch (RuntimeException e) {
+                batch.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return true if the batch won't be filled, false if it's already being filled or done
+         */
+        boolean discard() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
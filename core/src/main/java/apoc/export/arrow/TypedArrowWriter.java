@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.arrow;
+
+import apoc.convert.ConvertUtils;
+import apoc.convert.Json;
+import apoc.util.JsonUtil;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.IntervalMonthDayNanoVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.IntervalUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.spatial.Point;
+import org.neo4j.values.storable.DurationValue;
+
+/**
+ * Writes batches of rows into natively typed Arrow vectors, filling one column at a time.
+ * Maps, entities and points become Struct vectors, lists become List vectors with a typed child,
+ * temporal values keep their own vectors, and the columns with a dictionary,
+ * i.e. the node labels and the relationship types, are dictionary encoded.
+ * The types are inferred from the values of the first batch, as for the default writer,
+ * so a later value of a different type fails the export.
+ */
+public class TypedArrowWriter implements AutoCloseable {
+
+    private static final ArrowType.Int INDEX_TYPE = new ArrowType.Int(32, true);
+    private static final String DATA_FIELD = "$data$";
+
+    private enum Kind {
+        LONG(new ArrowType.Int(64, true)),
+        DOUBLE(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+        BOOLEAN(ArrowType.Bool.INSTANCE),
+        STRING(ArrowType.Utf8.INSTANCE),
+        DATE_TIME(new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC")),
+        LOCAL_DATE_TIME(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)),
+        DATE(new ArrowType.Date(DateUnit.DAY)),
+        LOCAL_TIME(new ArrowType.Time(TimeUnit.NANOSECOND, 64)),
+        DURATION(new ArrowType.Interval(IntervalUnit.MONTH_DAY_NANO)),
+        STRUCT(ArrowType.Struct.INSTANCE),
+        LIST(ArrowType.List.INSTANCE),
+        JSON(ArrowType.Utf8.INSTANCE);
+
+        private final ArrowType type;
+
+        Kind(ArrowType type) {
+            this.type = type;
+        }
+
+        static Kind of(Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return LONG;
+            } else if (value instanceof Double || value instanceof Float) {
+                return DOUBLE;
+            } else if (value instanceof Boolean) {
+                return BOOLEAN;
+            } else if (value instanceof String) {
+                return STRING;
+            } else if (value instanceof ZonedDateTime || value instanceof OffsetDateTime) {
+                return DATE_TIME;
+            } else if (value instanceof LocalDateTime) {
+                return LOCAL_DATE_TIME;
+            } else if (value instanceof LocalDate) {
+                return DATE;
+            } else if (value instanceof LocalTime) {
+                return LOCAL_TIME;
+            } else if (value instanceof DurationValue) {
+                return DURATION;
+            } else if (value instanceof Map) {
+                return STRUCT;
+            } else if (value instanceof Collection || value.getClass().isArray()) {
+                return LIST;
+            }
+            // e.g. the times with an offset, that have no Arrow counterpart
+            return JSON;
+        }
+    }
+
+    private interface ValueWriter {
+        void write(int index, Object value);
+    }
+
+    private final DictionaryProvider.MapDictionaryProvider dictionaryProvider =
+            new DictionaryProvider.MapDictionaryProvider();
+    private final Map<String, Dictionary> dictionaries = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> dictionaryIndexes = new HashMap<>();
+
+    /**
+     * @param dictionaryValues the values of the dictionary encoded columns, by column name
+     */
+    public TypedArrowWriter(BufferAllocator allocator, Map<String, List<String>> dictionaryValues) {
+        long id = 0;
+        for (Map.Entry<String, List<String>> entry : dictionaryValues.entrySet()) {
+            final VarCharVector vector = new VarCharVector(entry.getKey(), allocator);
+            vector.allocateNew();
+            final Map<String, Integer> indexes = new HashMap<>();
+            for (String value : entry.getValue()) {
+                final int index = indexes.size();
+                if (indexes.putIfAbsent(value, index) == null) {
+                    vector.setSafe(index, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            vector.setValueCount(indexes.size());
+            final Dictionary dictionary = new Dictionary(vector, new DictionaryEncoding(id, false, INDEX_TYPE));
+            dictionaryProvider.put(dictionary);
+            dictionaries.put(entry.getKey(), dictionary);
+            dictionaryIndexes.put(id, indexes);
+            ++id;
+        }
+    }
+
+    public DictionaryProvider getDictionaryProvider() {
+        return dictionaryProvider;
+    }
+
+    /**
+     * Refines the given schema with the types of the values in the rows.
+     * The columns without any value keep the type of the given schema.
+     */
+    public Schema schemaFor(Schema baseSchema, List<Map<String, Object>> rows) {
+        final Map<String, Field> baseFields = new LinkedHashMap<>();
+        baseSchema.getFields().forEach(field -> baseFields.put(field.getName(), field));
+        rows.forEach(row -> row.keySet().forEach(name -> baseFields.putIfAbsent(name, null)));
+
+        final List<Field> fields = new ArrayList<>(baseFields.size());
+        baseFields.forEach((name, baseField) -> {
+            final Dictionary dictionary = dictionaries.get(name);
+            if (dictionary != null) {
+                fields.add(dictionaryField(name, dictionary.getEncoding(), baseField));
+                return;
+            }
+            final List<Object> values = rows.stream()
+                    .map(row -> normalize(row.get(name)))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            fields.add(values.isEmpty() && baseField != null ? baseField : inferField(name, values));
+        });
+        return new Schema(fields);
+    }
+
+    private static Field dictionaryField(String name, DictionaryEncoding encoding, Field baseField) {
+        final FieldType indexType = new FieldType(true, INDEX_TYPE, encoding);
+        if (baseField != null && baseField.getType() instanceof ArrowType.List) {
+            // e.g. the labels, a list of dictionary entries
+            return new Field(
+                    name, FieldType.nullable(ArrowType.List.INSTANCE), List.of(new Field(DATA_FIELD, indexType, null)));
+        }
+        return new Field(name, indexType, null);
+    }
+
+    private static Field inferField(String name, List<Object> values) {
+        Kind kind = null;
+        for (Object value : values) {
+            final Kind valueKind = Kind.of(value);
+            if (kind == null) {
+                kind = valueKind;
+            } else if (kind != valueKind) {
+                // mixed types are written as strings, as the default writer does
+                return new Field(name, FieldType.nullable(ArrowType.Utf8.INSTANCE), null);
+            }
+        }
+        if (kind == null) {
+            return new Field(name, FieldType.nullable(ArrowType.Utf8.INSTANCE), null);
+        }
+        switch (kind) {
+            case STRUCT:
+                final Map<String, List<Object>> childValues = new LinkedHashMap<>();
+                for (Object value : values) {
+                    ((Map<String, Object>) value).forEach((key, childValue) -> {
+                        final List<Object> keyValues = childValues.computeIfAbsent(key, k -> new ArrayList<>());
+                        final Object normalized = normalize(childValue);
+                        if (normalized != null) {
+                            keyValues.add(normalized);
+                        }
+                    });
+                }
+                final List<Field> children = childValues.entrySet().stream()
+                        .map(e -> inferField(e.getKey(), e.getValue()))
+                        .collect(Collectors.toList());
+                return new Field(name, FieldType.nullable(kind.type), children);
+            case LIST:
+                final List<Object> elements = new ArrayList<>();
+                for (Object value : values) {
+                    for (Object element : (List<Object>) ConvertUtils.convertToList(value)) {
+                        final Object normalized = normalize(element);
+                        if (normalized != null) {
+                            elements.add(normalized);
+                        }
+                    }
+                }
+                return new Field(name, FieldType.nullable(kind.type), List.of(inferField(DATA_FIELD, elements)));
+            default:
+                return new Field(name, FieldType.nullable(kind.type), null);
+        }
+    }
+
+    /**
+     * Fills the vectors of the root with the rows, column by column.
+     * The caller allocates the root and sets its row count.
+     */
+    public void write(VectorSchemaRoot root, List<Map<String, Object>> rows) {
+        for (FieldVector vector : root.getFieldVectors()) {
+            final String name = vector.getName();
+            final ValueWriter writer = writerFor(vector);
+            for (int index = 0; index < rows.size(); index++) {
+                writer.write(index, normalize(rows.get(index).get(name)));
+            }
+        }
+    }
+
+    private ValueWriter writerFor(FieldVector vector) {
+        final DictionaryEncoding encoding = vector.getField().getDictionary();
+        if (encoding != null) {
+            final IntVector indexVector = (IntVector) vector;
+            final Map<String, Integer> indexes = dictionaryIndexes.get(encoding.getId());
+            return (index, value) -> {
+                final Integer entry = value == null ? null : indexes.get(value.toString());
+                if (value == null) {
+                    indexVector.setNull(index);
+                } else if (entry == null) {
+                    throw mismatch(vector, value);
+                } else {
+                    indexVector.setSafe(index, entry);
+                }
+            };
+        } else if (vector instanceof StructVector) {
+            return structWriter((StructVector) vector);
+        } else if (vector instanceof ListVector) {
+            return listWriter((ListVector) vector);
+        } else if (vector instanceof BigIntVector) {
+            final BigIntVector bigIntVector = (BigIntVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    bigIntVector.setNull(index);
+                } else if (Kind.of(value) == Kind.LONG) {
+                    bigIntVector.setSafe(index, ((Number) value).longValue());
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof Float8Vector) {
+            final Float8Vector float8Vector = (Float8Vector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    float8Vector.setNull(index);
+                } else if (value instanceof Number) {
+                    float8Vector.setSafe(index, ((Number) value).doubleValue());
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof BitVector) {
+            final BitVector bitVector = (BitVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    bitVector.setNull(index);
+                } else if (value instanceof Boolean) {
+                    bitVector.setSafe(index, (Boolean) value ? 1 : 0);
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof BaseVariableWidthVector) {
+            final BaseVariableWidthVector stringVector = (BaseVariableWidthVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    stringVector.setNull(index);
+                } else if (value instanceof String) {
+                    stringVector.setSafe(index, ((String) value).getBytes(StandardCharsets.UTF_8));
+                } else if (value instanceof DurationValue) {
+                    stringVector.setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    stringVector.setSafe(index, JsonUtil.writeValueAsBytes(value));
+                }
+            };
+        } else if (vector instanceof TimeStampMicroTZVector) {
+            final TimeStampMicroTZVector timestampVector = (TimeStampMicroTZVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    timestampVector.setNull(index);
+                } else if (value instanceof ZonedDateTime) {
+                    timestampVector.setSafe(index, toEpochMicros(((ZonedDateTime) value).toInstant()));
+                } else if (value instanceof OffsetDateTime) {
+                    timestampVector.setSafe(index, toEpochMicros(((OffsetDateTime) value).toInstant()));
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof TimeStampMicroVector) {
+            final TimeStampMicroVector timestampVector = (TimeStampMicroVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    timestampVector.setNull(index);
+                } else if (value instanceof LocalDateTime) {
+                    timestampVector.setSafe(index, toEpochMicros(((LocalDateTime) value).toInstant(ZoneOffset.UTC)));
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof DateDayVector) {
+            final DateDayVector dateVector = (DateDayVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    dateVector.setNull(index);
+                } else if (value instanceof LocalDate) {
+                    dateVector.setSafe(index, Math.toIntExact(((LocalDate) value).toEpochDay()));
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof TimeNanoVector) {
+            final TimeNanoVector timeVector = (TimeNanoVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    timeVector.setNull(index);
+                } else if (value instanceof LocalTime) {
+                    timeVector.setSafe(index, ((LocalTime) value).toNanoOfDay());
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof IntervalMonthDayNanoVector) {
+            final IntervalMonthDayNanoVector durationVector = (IntervalMonthDayNanoVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    durationVector.setNull(index);
+                } else if (value instanceof DurationValue) {
+                    final DurationValue duration = (DurationValue) value;
+                    durationVector.setSafe(
+                            index,
+                            Math.toIntExact(duration.get(ChronoUnit.MONTHS)),
+                            Math.toIntExact(duration.get(ChronoUnit.DAYS)),
+                            Math.addExact(
+                                    Math.multiplyExact(duration.get(ChronoUnit.SECONDS), 1_000_000_000L),
+                                    duration.get(ChronoUnit.NANOS)));
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        } else if (vector instanceof DateMilliVector) {
+            // the columns typed from apoc.meta.* without any value in the first batch
+            final DateMilliVector dateVector = (DateMilliVector) vector;
+            return (index, value) -> {
+                if (value == null) {
+                    dateVector.setNull(index);
+                } else if (value instanceof Date) {
+                    dateVector.setSafe(index, ((Date) value).getTime());
+                } else if (value instanceof LocalDateTime) {
+                    dateVector.setSafe(index, ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli());
+                } else if (value instanceof ZonedDateTime) {
+                    dateVector.setSafe(index, ((ZonedDateTime) value).toInstant().toEpochMilli());
+                } else if (value instanceof OffsetDateTime) {
+                    dateVector.setSafe(index, ((OffsetDateTime) value).toInstant().toEpochMilli());
+                } else {
+                    throw mismatch(vector, value);
+                }
+            };
+        }
+        throw new IllegalStateException("Unsupported Arrow vector " + vector.getField());
+    }
+
+    private ValueWriter structWriter(StructVector vector) {
+        final List<FieldVector> children = vector.getChildrenFromFields();
+        final List<String> names = new ArrayList<>(children.size());
+        final List<ValueWriter> writers = new ArrayList<>(children.size());
+        for (FieldVector child : children) {
+            names.add(child.getName());
+            writers.add(writerFor(child));
+        }
+        return (index, value) -> {
+            if (value == null) {
+                vector.setNull(index);
+                writers.forEach(writer -> writer.write(index, null));
+                return;
+            }
+            if (!(value instanceof Map)) {
+                throw mismatch(vector, value);
+            }
+            final Map<String, Object> map = (Map<String, Object>) value;
+            if (!names.containsAll(map.keySet())) {
+                throw mismatch(vector, value);
+            }
+            vector.setIndexDefined(index);
+            for (int i = 0; i < writers.size(); i++) {
+                writers.get(i).write(index, normalize(map.get(names.get(i))));
+            }
+        };
+    }
+
+    private ValueWriter listWriter(ListVector vector) {
+        final ValueWriter elementWriter = writerFor(vector.getDataVector());
+        return (index, value) -> {
+            if (value == null) {
+                vector.setNull(index);
+                return;
+            }
+            if (Kind.of(value) != Kind.LIST) {
+                throw mismatch(vector, value);
+            }
+            final List<Object> elements = ConvertUtils.convertToList(value);
+            final int offset = vector.startNewValue(index);
+            for (int i = 0; i < elements.size(); i++) {
+                elementWriter.write(offset + i, normalize(elements.get(i)));
+            }
+            vector.endValue(index, elements.size());
+        };
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Entity || value instanceof Path) {
+            return Json.writeJsonResult(value);
+        }
+        if (value instanceof Point) {
+            final Point point = (Point) value;
+            final double[] coordinates = point.getCoordinate().getCoordinate();
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("crs", point.getCRS().getType());
+            map.put("x", coordinates[0]);
+            map.put("y", coordinates[1]);
+            map.put("z", coordinates.length > 2 ? coordinates[2] : null);
+            return map;
+        }
+        return value;
+    }
+
+    private static long toEpochMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static IllegalArgumentException mismatch(FieldVector vector, Object value) {
+        return new IllegalArgumentException(String.format(
+                "The value `%s` does not match the Arrow type %s of the column `%s`, "
+                        + "as the types are inferred from the first batch, try with a bigger batchSize",
+                value, vector.getField().getType(), vector.getName()));
+    }
+
+    @Override
+    public void close() {
+        dictionaries.values().forEach(dictionary -> dictionary.getVector().close());
+    }
+}
@@ -20,6 +20,8 @@ package apoc.export.csv;
 
 import apoc.export.util.BatchTransaction;
 import apoc.export.util.CountingReader;
+import apoc.export.util.IdMapping;
+import apoc.export.util.Lanes;
 import apoc.export.util.ProgressReporter;
 import apoc.load.CSVResult;
 import apoc.load.Mapping;
@@ -31,7 +33,9 @@ import com.opencsv.CSVReaderBuilder;
 import com.opencsv.RFC4180ParserBuilder;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.neo4j.graphdb.*;
@@ -40,25 +44,64 @@ import org.neo4j.logging.Log;
 
 public class CsvEntityLoader {
 
+    // how many times a batch of relationships is retried after a deadlock with another batch
+    private static final int RELATIONSHIP_BATCH_RETRIES = 5;
+
     private final CsvLoaderConfig clc;
     private final ProgressReporter reporter;
     private final Log log;
     private final URLAccessChecker urlAccessChecker;
+    private final Lanes lanes;
 
     /**
      * @param clc configuration object
      * @param reporter
      */
     public CsvEntityLoader(CsvLoaderConfig clc, ProgressReporter reporter, Log log, URLAccessChecker urlAccessChecker) {
+        this(clc, reporter, log, urlAccessChecker, null);
+    }
+
+    /**
+     * @param clc configuration object
+     * @param reporter
+     * @param executor the executor of the batches when the config has `parallel: true`,
+     *                 in that case {@link #awaitBatches()} has to be called after the nodes and after the relationships
+     */
+    public CsvEntityLoader(
+            CsvLoaderConfig clc,
+            ProgressReporter reporter,
+            Log log,
+            URLAccessChecker urlAccessChecker,
+            ExecutorService executor) {
         this.clc = clc;
         this.reporter = reporter;
         this.log = log;
         this.urlAccessChecker = urlAccessChecker;
+        this.lanes = executor != null && clc.isParallel() ? new Lanes(executor, clc.getConcurrency()) : null;
+    }
+
+    /**
+     * Waits for the batches submitted so far, when the rows are loaded in parallel
+     */
+    public void awaitBatches() {
+        if (lanes != null) {
+            lanes.awaitAll();
+        }
+    }
+
+    /**
+     * Drops the batches that haven't started yet and waits for the running ones, when the rows are loaded in parallel.
+     * After a failure it has to be called before the id mapping is closed.
+     */
+    public void cancelBatches() {
+        if (lanes != null) {
+            lanes.cancelAll();
+        }
     }
 
     /**
      * Loads nodes from a CSV file with given labels to an online database, and fills the {@code idMapping},
-     * which will be used by the {@link #loadRelationships(Object, String, GraphDatabaseService, Map)}
+     * which will be used by the {@link #loadRelationships(Object, String, GraphDatabaseService, IdMapping, URLAccessChecker)}
      * method.
      *
      * @param fileName URI/Binary of the CSV file representing the node
@@ -71,7 +114,7 @@ public class CsvEntityLoader {
             final Object fileName,
             final List<String> labels,
             final GraphDatabaseService db,
-            final Map<String, Map<String, String>> idMapping)
+            final IdMapping idMapping)
             throws IOException {
 
         try (final CountingReader reader = FileUtils.readerFor(fileName, clc.getCompressionAlgo(), urlAccessChecker)) {
@@ -93,8 +136,7 @@ public class CsvEntityLoader {
             final String idSpace =
                     idField.isPresent() ? idField.get().getIdSpace() : CsvLoaderConstants.DEFAULT_IDSPACE;
 
-            idMapping.putIfAbsent(idSpace, new HashMap<>());
-            final Map<String, String> idspaceIdMapping = idMapping.get(idSpace);
+            final IdMapping.IdSpace idspaceIdMapping = idMapping.idSpace(idSpace);
 
             final Map<String, Mapping> mapping = getMapping(fields);
 
@@ -108,76 +150,32 @@ public class CsvEntityLoader {
 
             final String[] loadCsvCompatibleHeader =
                     fields.stream().map(f -> f.getName()).toArray(String[]::new);
+            final NodeFile file =
+                    new NodeFile(labels, fields, loadCsvCompatibleHeader, mapping, idAttribute, idspaceIdMapping);
             AtomicInteger lineNo = new AtomicInteger();
+
+            if (lanes != null) {
+                // the rows are converted and written by the workers, one batch after the other on each lane
+                LaneBuffers buffers = new LaneBuffers(rows -> createNodes(db, file, rows));
+                csv.forEach(line -> {
+                    int currentLine = lineNo.incrementAndGet();
+                    buffers.add((currentLine - 1) / clc.getBatchSize(), new Row(line, currentLine));
+                });
+                buffers.submitAll();
+                return;
+            }
+
             BatchTransaction btx = new BatchTransaction(db, clc.getBatchSize(), reporter);
             try {
                 csv.forEach(line -> {
                     lineNo.getAndIncrement();
 
-                    final EnumSet<Results> results = EnumSet.of(Results.map);
-                    final CSVResult result = new CSVResult(
-                            loadCsvCompatibleHeader,
-                            line,
-                            lineNo.get(),
-                            false,
-                            mapping,
-                            Collections.emptyList(),
-                            results);
-
-                    final String nodeCsvId =
-                            (String) idAttribute.map(result.map::get).orElse(null);
-
-                    // if 'ignore duplicate nodes' is false, there is an id field and the mapping already has the
-                    // current id,
-                    // we either fail the loading process or skip it depending on the 'ignore duplicate nodes' setting
-                    if (idField.isPresent() && idspaceIdMapping.containsKey(nodeCsvId)) {
-                        if (clc.getIgnoreDuplicateNodes()) {
-                            return;
-                        } else {
-                            throw new IllegalStateException("Duplicate node with id " + nodeCsvId + " found on line "
-                                    + lineNo + "\n" + Arrays.toString(line));
-                        }
-                    }
-
-                    // create node and add its id to the mapping
-                    final Node node = btx.getTransaction().createNode();
-                    if (idField.isPresent()) {
-                        idspaceIdMapping.put(nodeCsvId, node.getElementId());
-                    }
-
-                    // add labels
-                    for (String label : labels) {
-                        node.addLabel(Label.label(label));
-                    }
-
-                    // add properties
-                    int props = 0;
-                    for (CsvHeaderField field : fields) {
-                        final String name = field.getName();
-                        Object value = result.map.get(name);
-
-                        if (field.isMeta()) {
-                            final List<String> customLabels = (List<String>) value;
-                            for (String customLabel : customLabels) {
-                                node.addLabel(Label.label(customLabel));
-                            }
-                        } else if (field.isId()) {
-                            final Object idValue;
-                            if (clc.getStringIds()) {
-                                idValue = value;
-                            } else {
-                                idValue = Long.valueOf((String) value);
-                            }
-                            node.setProperty(field.getName(), idValue);
-                            props++;
-                        } else {
-                            boolean propertyAdded =
-                                    CsvPropertyConverter.addPropertyToGraphEntity(node, field, value, clc);
-                            props += propertyAdded ? 1 : 0;
-                        }
+                    final int props = createNode(btx.getTransaction(), file, new Row(line, lineNo.get()));
+                    if (props < 0) {
+                        return;
                     }
                     btx.increment();
-                    reporter.update(1, 0, props++);
+                    reporter.update(1, 0, props);
                 });
                 btx.doCommit();
             } catch (RuntimeException e) {
@@ -189,10 +187,90 @@ public class CsvEntityLoader {
         }
     }
 
+    private void createNodes(GraphDatabaseService db, NodeFile file, List<Row> rows) {
+        long nodes = 0;
+        long props = 0;
+        try (Transaction tx = db.beginTx()) {
+            for (Row row : rows) {
+                final int rowProps = createNode(tx, file, row);
+                if (rowProps >= 0) {
+                    nodes++;
+                    props += rowProps;
+                }
+            }
+            tx.commit();
+        }
+        synchronized (reporter) {
+            reporter.update(nodes, 0, props);
+        }
+    }
+
+    /**
+     * Creates the node of a row, returning the number of properties added, or -1 if the node is a duplicate to skip
+     */
+    private int createNode(Transaction tx, NodeFile file, Row row) {
+        final String[] line = row.line();
+        final EnumSet<Results> results = EnumSet.of(Results.map);
+        final CSVResult result = new CSVResult(
+                file.header(), line, row.lineNo(), false, file.mapping(), Collections.emptyList(), results);
+
+        final String nodeCsvId = (String) file.idAttribute().map(result.map::get).orElse(null);
+
+        // if 'ignore duplicate nodes' is false, there is an id field and the mapping already has the
+        // current id,
+        // we either fail the loading process or skip it depending on the 'ignore duplicate nodes' setting
+        if (file.idAttribute().isPresent() && !file.idMapping().reserve(nodeCsvId)) {
+            if (clc.getIgnoreDuplicateNodes()) {
+                return -1;
+            } else {
+                throw new IllegalStateException("Duplicate node with id " + nodeCsvId + " found on line "
+                        + row.lineNo() + "\n" + Arrays.toString(line));
+            }
+        }
+
+        // create node and add its id to the mapping
+        final Node node = tx.createNode();
+        if (file.idAttribute().isPresent()) {
+            file.idMapping().put(nodeCsvId, node.getId());
+        }
+
+        // add labels
+        for (String label : file.labels()) {
+            node.addLabel(Label.label(label));
+        }
+
+        // add properties
+        int props = 0;
+        for (CsvHeaderField field : file.fields()) {
+            final String name = field.getName();
+            Object value = result.map.get(name);
+
+            if (field.isMeta()) {
+                final List<String> customLabels = (List<String>) value;
+                for (String customLabel : customLabels) {
+                    node.addLabel(Label.label(customLabel));
+                }
+            } else if (field.isId()) {
+                final Object idValue;
+                if (clc.getStringIds()) {
+                    idValue = value;
+                } else {
+                    idValue = Long.valueOf((String) value);
+                }
+                node.setProperty(field.getName(), idValue);
+                props++;
+            } else {
+                boolean propertyAdded = CsvPropertyConverter.addPropertyToGraphEntity(node, field, value, clc);
+                props += propertyAdded ? 1 : 0;
+            }
+        }
+        return props;
+    }
+
     /**
      * Loads relationships from a CSV file with given relationship types to an online database,
      * using the {@code idMapping} created by the
-     * {@link #loadNodes(Object, List, GraphDatabaseService, Map)} method.
+     * {@link #loadNodes(Object, List, GraphDatabaseService, IdMapping)} method.
      *
      * @param data URI / Binary of the CSV file representing the relationship
      * @param type relationship type to be applied to each relationships
@@ -205,7 +283,7 @@ public class CsvEntityLoader {
             final Object data,
             final String type,
             final GraphDatabaseService db,
-            final Map<String, Map<String, String>> idMapping,
+            final IdMapping idMapping,
             final URLAccessChecker urlAccessChecker)
             throws IOException {
 
@@ -237,60 +315,35 @@ public class CsvEntityLoader {
                     new CSVReaderBuilder(reader).withCSVParser(parser).build()) {
                 final String[] loadCsvCompatibleHeader =
                         fields.stream().map(f -> f.getName()).toArray(String[]::new);
+                final RelationshipFile file = new RelationshipFile(
+                        type,
+                        loadCsvCompatibleHeader,
+                        mapping,
+                        startIdField,
+                        endIdField,
+                        edgePropertiesFields,
+                        idMapping);
 
                 AtomicInteger lineNo = new AtomicInteger();
+                if (lanes != null) {
+                    // the relationships are partitioned by start node, so that the batches of different lanes
+                    // don't lock the same start node
+                    final int startIdIndex = fields.indexOf(startIdField);
+                    LaneBuffers buffers = new LaneBuffers(rows -> createRelationships(db, file, rows));
+                    csv.forEach(line -> {
+                        final int lane = startIdIndex < line.length ? line[startIdIndex].hashCode() : 0;
+                        buffers.add(lane, new Row(line, lineNo.incrementAndGet()));
+                    });
+                    buffers.submitAll();
+                    return;
+                }
+
                 BatchTransaction btx = new BatchTransaction(db, clc.getBatchSize(), reporter);
                 try {
                     csv.forEach(line -> {
                         lineNo.getAndIncrement();
 
-                        final EnumSet<Results> results = EnumSet.of(Results.map);
-                        final CSVResult result = new CSVResult(
-                                loadCsvCompatibleHeader,
-                                line,
-                                lineNo.get(),
-                                false,
-                                mapping,
-                                Collections.emptyList(),
-                                results);
-
-                        final Object startId = result.map.get(CsvLoaderConstants.START_ID_ATTR);
-                        final Object startInternalId =
-                                idMapping.get(startIdField.getIdSpace()).get(startId.toString());
-                        if (startInternalId == null) {
-                            throw new IllegalStateException("Node for id space " + endIdField.getIdSpace() + " and id "
-                                    + startId + " not found");
-                        }
-                        final Node source = btx.getTransaction().getNodeByElementId(startInternalId.toString());
-
-                        final Object endId = result.map.get(CsvLoaderConstants.END_ID_ATTR);
-                        final Object endInternalId =
-                                idMapping.get(endIdField.getIdSpace()).get(endId.toString());
-                        if (endInternalId == null) {
-                            throw new IllegalStateException(
-                                    "Node for id space " + endIdField.getIdSpace() + " and id " + endId + " not found");
-                        }
-                        final Node target = btx.getTransaction().getNodeByElementId(endInternalId.toString());
-
-                        final String currentType;
-                        final Object overridingType = result.map.get(CsvLoaderConstants.TYPE_ATTR);
-                        if (overridingType != null && !((String) overridingType).isEmpty()) {
-                            currentType = (String) overridingType;
-                        } else {
-                            currentType = type;
-                        }
-                        final Relationship rel =
-                                source.createRelationshipTo(target, RelationshipType.withName(currentType));
-
-                        // add properties
-                        int props = 0;
-                        for (CsvHeaderField field : edgePropertiesFields) {
-                            final String name = field.getName();
-                            Object value = result.map.get(name);
-                            boolean propertyAdded =
-                                    CsvPropertyConverter.addPropertyToGraphEntity(rel, field, value, clc);
-                            props += propertyAdded ? 1 : 0;
-                        }
+                        final int props = createRelationship(btx.getTransaction(), file, new Row(line, lineNo.get()));
                         btx.increment();
                         reporter.update(0, 1, props);
                     });
@@ -305,6 +358,72 @@ public class CsvEntityLoader {
         }
     }
 
+    private void createRelationships(GraphDatabaseService db, RelationshipFile file, List<Row> rows) {
+        for (int attempt = 0; ; attempt++) {
+            long props = 0;
+            try (Transaction tx = db.beginTx()) {
+                for (Row row : rows) {
+                    props += createRelationship(tx, file, row);
+                }
+                tx.commit();
+            } catch (TransientFailureException e) {
+                // e.g. a deadlock with another lane on the end nodes
+                if (attempt < RELATIONSHIP_BATCH_RETRIES) {
+                    continue;
+                }
+                throw e;
+            }
+            synchronized (reporter) {
+                reporter.update(0, rows.size(), props);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Creates the relationship of a row, returning the number of properties added
+     */
+    private int createRelationship(Transaction tx, RelationshipFile file, Row row) {
+        final EnumSet<Results> results = EnumSet.of(Results.map);
+        final CSVResult result = new CSVResult(
+                file.header(), row.line(), row.lineNo(), false, file.mapping(), Collections.emptyList(), results);
+
+        final Object startId = result.map.get(CsvLoaderConstants.START_ID_ATTR);
+        final long startInternalId = file.idMapping().get(file.startIdField().getIdSpace(), startId.toString());
+        if (startInternalId == IdMapping.NOT_FOUND) {
+            throw new IllegalStateException("Node for id space "
+                    + file.endIdField().getIdSpace() + " and id " + startId + " not found");
+        }
+        final Node source = tx.getNodeById(startInternalId);
+
+        final Object endId = result.map.get(CsvLoaderConstants.END_ID_ATTR);
+        final long endInternalId = file.idMapping().get(file.endIdField().getIdSpace(), endId.toString());
+        if (endInternalId == IdMapping.NOT_FOUND) {
+            throw new IllegalStateException("Node for id space "
+                    + file.endIdField().getIdSpace() + " and id " + endId + " not found");
+        }
+        final Node target = tx.getNodeById(endInternalId);
+
+        final String currentType;
+        final Object overridingType = result.map.get(CsvLoaderConstants.TYPE_ATTR);
+        if (overridingType != null && !((String) overridingType).isEmpty()) {
+            currentType = (String) overridingType;
+        } else {
+            currentType = file.type();
+        }
+        final Relationship rel = source.createRelationshipTo(target, RelationshipType.withName(currentType));
+
+        // add properties
+        int props = 0;
+        for (CsvHeaderField field : file.propertyFields()) {
+            final String name = field.getName();
+            Object value = result.map.get(name);
+            boolean propertyAdded = CsvPropertyConverter.addPropertyToGraphEntity(rel, field, value, clc);
+            props += propertyAdded ? 1 : 0;
+        }
+        return props;
+    }
+
     private Map<String, Mapping> getMapping(List<CsvHeaderField> fields) {
         return fields.stream().collect(Collectors.toMap(CsvHeaderField::getName, f -> {
             final Map<String, Object> mappingMap = Collections.unmodifiableMap(Stream.of(
@@ -327,4 +446,62 @@ public class CsvEntityLoader {
         }
         return line;
     }
+
+    private record Row(String[] line, int lineNo) {}
+
+    private record NodeFile(
+            List<String> labels,
+            List<CsvHeaderField> fields,
+            String[] header,
+            Map<String, Mapping> mapping,
+            Optional<String> idAttribute,
+            IdMapping.IdSpace idMapping) {}
+
+    private record RelationshipFile(
+            String type,
+            String[] header,
+            Map<String, Mapping> mapping,
+            CsvHeaderField startIdField,
+            CsvHeaderField endIdField,
+            List<CsvHeaderField> propertyFields,
+            IdMapping idMapping) {}
+
+    /**
+     * The rows of a file waiting to be submitted, one batch for each lane
+     */
+    private class LaneBuffers {
+        private final Consumer<List<Row>> writer;
+        private final List<List<Row>> buffers;
+
+        LaneBuffers(Consumer<List<Row>> writer) {
+            this.writer = writer;
+            this.buffers = new ArrayList<>(lanes.size());
+            for (int i = 0; i < lanes.size(); i++) {
+                buffers.add(new ArrayList<>(clc.getBatchSize()));
+            }
+        }
+
+        void add(int key, Row row) {
+            final int lane = Math.floorMod(key, lanes.size());
+            final List<Row> buffer = buffers.get(lane);
+            buffer.add(row);
+            if (buffer.size() >= clc.getBatchSize()) {
+                submit(lane);
+            }
+        }
+
+        void submitAll() {
+            for (int lane = 0; lane < buffers.size(); lane++) {
+                if (!buffers.get(lane).isEmpty()) {
+                    submit(lane);
+                }
+            }
+        }
+
+        private void submit(int lane) {
+            final List<Row> rows = buffers.get(lane);
+            buffers.set(lane, new ArrayList<>(clc.getBatchSize()));
+            lanes.submit(lane, () -> writer.accept(rows));
+        }
+    }
 }
@@ -26,29 +26,43 @@ import static apoc.export.util.MetaInformation.updateKeyTypes;
 import static apoc.util.Util.INVALID_QUERY_MODE_ERROR;
 import static apoc.util.Util.getNodeId;
 import static apoc.util.Util.getRelationshipId;
-import static apoc.util.Util.joinLabels;
 
 import apoc.export.cypher.ExportFileManager;
 import apoc.export.util.ExportConfig;
 import apoc.export.util.FormatUtils;
 import apoc.export.util.MetaInformation;
+import apoc.export.util.ParallelExporter;
 import apoc.export.util.Reporter;
 import apoc.result.ProgressInfo;
 import com.opencsv.CSVWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.Entity;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -79,9 +93,23 @@ public class CsvFormat {
     }
 
     public void dump(SubGraph graph, ExportFileManager writer, Reporter reporter, ExportConfig config) {
+        dump(graph, writer, reporter, config, null);
+    }
+
+    /**
+     * With a parallelExporter, the rows are serialized in chunks on its threads
+     */
+    public void dump(
+            SubGraph graph,
+            ExportFileManager writer,
+            Reporter reporter,
+            ExportConfig config,
+            ParallelExporter parallelExporter) {
         try (Transaction tx = db.beginTx()) {
             if (config.isBulkImport()) {
-                writeAllBulkImport(graph, reporter, config, writer);
+                writeAllBulkImport(graph, reporter, config, writer, parallelExporter);
+            } else if (parallelExporter != null) {
+                writeAllInParallel(graph, reporter, config, writer, parallelExporter);
             } else {
                 try (PrintWriter printWriter = writer.getPrintWriter("csv")) {
                     CSVWriter out = getCsvWriter(printWriter, config);
@@ -94,38 +122,40 @@ public class CsvFormat {
     }
 
     private CSVWriter getCsvWriter(Writer writer, ExportConfig config) {
-        CSVWriter out;
+        applyQuotesToAll = isQuotedToAll(config);
+        return newCsvWriter(writer, config);
+    }
+
+    private static boolean isQuotedToAll(ExportConfig config) {
+        return !ExportConfig.NONE_QUOTES.equals(config.isQuotes())
+                && !ExportConfig.IF_NEEDED_QUUOTES.equals(config.isQuotes());
+    }
+
+    private static CSVWriter newCsvWriter(Writer writer, ExportConfig config) {
         switch (config.isQuotes()) {
             case ExportConfig.NONE_QUOTES:
-                out = new CSVWriter(
+                return new CSVWriter(
                         writer,
                         config.getDelimChar(),
                         '\0', // quote char
                         '\0', // escape char
                         CSVWriter.DEFAULT_LINE_END);
-                applyQuotesToAll = false;
-                break;
             case ExportConfig.IF_NEEDED_QUUOTES:
-                out = new CSVWriter(
+                return new CSVWriter(
                         writer,
                         config.getDelimChar(),
                         ExportConfig.QUOTECHAR,
                         '\0', // escape char
                         CSVWriter.DEFAULT_LINE_END);
-                applyQuotesToAll = false;
-                break;
             case ExportConfig.ALWAYS_QUOTES:
             default:
-                out = new CSVWriter(
+                return new CSVWriter(
                         writer,
                         config.getDelimChar(),
                         ExportConfig.QUOTECHAR,
                         CSVWriter.DEFAULT_ESCAPE_CHARACTER,
                         CSVWriter.DEFAULT_LINE_END);
-                applyQuotesToAll = true;
-                break;
         }
-        return out;
     }
 
     public ProgressInfo dump(Result result, ExportFileManager writer, Reporter reporter, ExportConfig config) {
@@ -166,6 +196,10 @@ public class CsvFormat {
     }
 
     public void writeAll(SubGraph graph, Reporter reporter, ExportConfig config, CSVWriter out) {
+        if (config.isSinglePass() && !config.isSampling()) {
+            writeAllInSinglePass(graph, reporter, config, out);
+            return;
+        }
         Map<String, Class> nodePropTypes = collectPropTypesForNodes(graph, db, config);
         Map<String, Class> relPropTypes = collectPropTypesForRelationships(graph, db, config);
         List<String> nodeHeader = generateHeader(nodePropTypes, config.useTypes(), NODE_HEADER_FIXED_COLUMNS);
@@ -176,14 +210,16 @@ public class CsvFormat {
         int cols = header.size();
 
         writeNodes(
-                graph,
+                graph.getNodes(),
+                tx,
                 out,
                 reporter,
                 nodeHeader.subList(NODE_HEADER_FIXED_COLUMNS.length, nodeHeader.size()),
                 cols,
                 config.getBatchSize());
         writeRels(
-                graph,
+                graph.getRelationships(),
+                tx,
                 out,
                 reporter,
                 relHeader.subList(REL_HEADER_FIXED_COLUMNS.length, relHeader.size()),
@@ -192,93 +228,344 @@ public class CsvFormat {
                 config.getBatchSize());
     }
 
-    private void writeAllBulkImport(SubGraph graph, Reporter reporter, ExportConfig config, ExportFileManager writer) {
-        Map<Iterable<Label>, List<Node>> objectNodes = StreamSupport.stream(
-                        graph.getNodes().spliterator(), false)
-                .collect(Collectors.groupingBy(Node::getLabels));
-        Map<RelationshipType, List<Relationship>> objectRels = StreamSupport.stream(
-                        graph.getRelationships().spliterator(), false)
-                .collect(Collectors.groupingBy(Relationship::getType));
-        writeNodesBulkImport(reporter, config, writer, objectNodes);
-        writeRelsBulkImport(reporter, config, writer, objectRels);
+    /**
+     * Spills the rows to a temp file while collecting the property types,
+     * then writes the header and copies the spilled rows into its columns, so that each entity is read only once
+     */
+    private void writeAllInSinglePass(SubGraph graph, Reporter reporter, ExportConfig config, CSVWriter out) {
+        Map<String, Class> nodePropTypes = new LinkedHashMap<>();
+        Map<String, Class> relPropTypes = new LinkedHashMap<>();
+        Path spill = null;
+        try {
+            spill = Files.createTempFile("apoc-export-csv", ".bin");
+            long nodes = 0;
+            long rels = 0;
+            try (DataOutputStream spillOut =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spill)))) {
+                for (Node node : graph.getNodes()) {
+                    spillRow(
+                            spillOut,
+                            nodePropTypes,
+                            node.getAllProperties(),
+                            String.valueOf(getNodeId(tx, node.getElementId())),
+                            getLabelsString(node));
+                    nodes++;
+                }
+                for (Relationship rel : graph.getRelationships()) {
+                    spillRow(
+                            spillOut,
+                            relPropTypes,
+                            rel.getAllProperties(),
+                            String.valueOf(getNodeId(tx, rel.getStartNode().getElementId())),
+                            String.valueOf(getNodeId(tx, rel.getEndNode().getElementId())),
+                            rel.getType().name());
+                    rels++;
+                }
+            }
+
+            List<String> nodeHeader = generateHeader(nodePropTypes, config.useTypes(), NODE_HEADER_FIXED_COLUMNS);
+            List<String> relHeader = generateHeader(relPropTypes, config.useTypes(), REL_HEADER_FIXED_COLUMNS);
+            List<String> header = new ArrayList<>(nodeHeader);
+            header.addAll(relHeader);
+            out.writeNext(header.toArray(new String[header.size()]), applyQuotesToAll);
+            int cols = header.size();
+
+            try (DataInputStream spillIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(spill)))) {
+                copyRows(spillIn, nodes, true, nodeHeader, 0, cols, out, reporter, config.getBatchSize());
+                copyRows(
+                        spillIn, rels, false, relHeader, nodeHeader.size(), cols, out, reporter, config.getBatchSize());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill the rows of the csv export", e);
+        } finally {
+            if (spill != null) {
+                try {
+                    Files.deleteIfExists(spill);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static void spillRow(
+            DataOutputStream spillOut, Map<String, Class> propTypes, Map<String, Object> props, String... fixed)
+            throws IOException {
+        updateKeyTypes(propTypes, props);
+        for (String value : fixed) {
+            writeSpilled(spillOut, value);
+        }
+        spillOut.writeInt(props.size());
+        for (Map.Entry<String, Object> prop : props.entrySet()) {
+            writeSpilled(spillOut, prop.getKey());
+            writeSpilled(spillOut, FormatUtils.toString(prop.getValue()));
+        }
+    }
+
+    private void copyRows(
+            DataInputStream spillIn,
+            long count,
+            boolean isNode,
+            List<String> header,
+            int offset,
+            int cols,
+            CSVWriter out,
+            Reporter reporter,
+            int batchSize)
+            throws IOException {
+        int fixed = isNode ? NODE_HEADER_FIXED_COLUMNS.length : REL_HEADER_FIXED_COLUMNS.length;
+        // the properties are matched with the header fields, as in collectProps
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = fixed; i < header.size(); i++) {
+            columns.put(header.get(i), offset + i);
+        }
+        String[] row = new String[cols];
+        int entities = 0;
+        for (long i = 0; i < count; i++) {
+            for (int col = 0; col < fixed; col++) {
+                row[offset + col] = readSpilled(spillIn);
+            }
+            Arrays.fill(row, offset + fixed, offset + header.size(), "");
+            int props = spillIn.readInt();
+            for (int p = 0; p < props; p++) {
+                Integer column = columns.get(readSpilled(spillIn));
+                String value = readSpilled(spillIn);
+                if (column != null) {
+                    row[column] = value;
+                    reporter.update(0, 0, 1);
+                }
+            }
+            out.writeNext(row, applyQuotesToAll);
+            entities++;
+            if (batchSize == -1 || entities % batchSize == 0) {
+                reporter.update(isNode ? entities : 0, isNode ? 0 : entities, 0);
+                entities = 0;
+            }
+        }
+        if (entities > 0) {
+            reporter.update(isNode ? entities : 0, isNode ? 0 : entities, 0);
+        }
+    }
+
+    private static void writeSpilled(DataOutputStream spillOut, String value) throws IOException {
+        // writeUTF is limited to 64KB, which is too little for the property values
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        spillOut.writeInt(bytes.length);
+        spillOut.write(bytes);
+    }
+
+    private static String readSpilled(DataInputStream spillIn) throws IOException {
+        byte[] bytes = new byte[spillIn.readInt()];
+        spillIn.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the header, then the chunks of rows serialized in parallel in their order,
+     * or each chunk in a part file with the header of its own if the writer has separated files
+     */
+    private void writeAllInParallel(
+            SubGraph graph,
+            Reporter reporter,
+            ExportConfig config,
+            ExportFileManager writer,
+            ParallelExporter parallelExporter) {
+        // the chunks are serialized with the quotes of the header
+        applyQuotesToAll = isQuotedToAll(config);
+        Map<String, Class> nodePropTypes = collectPropTypesForNodes(graph, db, config);
+        Map<String, Class> relPropTypes = collectPropTypesForRelationships(graph, db, config);
+        List<String> nodeHeader = generateHeader(nodePropTypes, config.useTypes(), NODE_HEADER_FIXED_COLUMNS);
+        List<String> relHeader = generateHeader(relPropTypes, config.useTypes(), REL_HEADER_FIXED_COLUMNS);
+        List<String> header = new ArrayList<>(nodeHeader);
+        header.addAll(relHeader);
+        String[] headerRow = header.toArray(new String[header.size()]);
+        int cols = header.size();
+        List<String> nodeProps = nodeHeader.subList(NODE_HEADER_FIXED_COLUMNS.length, nodeHeader.size());
+        List<String> relProps = relHeader.subList(REL_HEADER_FIXED_COLUMNS.length, relHeader.size());
+
+        ParallelExporter.ChunkSerializer<Node> nodes = (chunkTx, chunk, out, chunkReporter) -> {
+            CSVWriter csvWriter = newCsvWriter(out, config);
+            writeNodes(chunk, chunkTx, csvWriter, chunkReporter, nodeProps, cols, -1);
+            csvWriter.flush();
+        };
+        ParallelExporter.ChunkSerializer<Relationship> rels = (chunkTx, chunk, out, chunkReporter) -> {
+            CSVWriter csvWriter = newCsvWriter(out, config);
+            writeRels(chunk, chunkTx, csvWriter, chunkReporter, relProps, cols, nodeHeader.size(), -1);
+            csvWriter.flush();
+        };
+
+        if (writer.separatedFiles()) {
+            AtomicInteger part = new AtomicInteger();
+            ParallelExporter.ChunkSink sink = chunk -> {
+                String partName = ParallelExporter.partName(part.getAndIncrement());
+                try (PrintWriter printWriter = writer.getPrintWriter(partName)) {
+                    CSVWriter out = getCsvWriter(printWriter, config);
+                    out.writeNext(headerRow, applyQuotesToAll);
+                    out.flush();
+                    printWriter.write(chunk);
+                }
+            };
+            parallelExporter.nodes(graph.getNodes(), nodes, reporter, sink);
+            parallelExporter.relationships(graph.getRelationships(), rels, reporter, sink);
+        } else {
+            try (PrintWriter printWriter = writer.getPrintWriter("csv")) {
+                CSVWriter out = getCsvWriter(printWriter, config);
+                out.writeNext(headerRow, applyQuotesToAll);
+                out.flush();
+                parallelExporter.nodes(graph.getNodes(), nodes, reporter, printWriter::write);
+                parallelExporter.relationships(graph.getRelationships(), rels, reporter, printWriter::write);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Collects the header of each label set and of each relationship type, then writes the entities of each group
+     * to its file. The whole database is streamed through the label and relationship type indexes, so that only
+     * the headers are kept in memory, while the entities of the other subgraphs, already in memory,
+     * are grouped in the same pass.
+     * With a parallelExporter, the files are written concurrently, each in a transaction of its own
+     */
+    private void writeAllBulkImport(
+            SubGraph graph,
+            Reporter reporter,
+            ExportConfig config,
+            ExportFileManager writer,
+            ParallelExporter parallelExporter) {
+        boolean indexed = graph instanceof DatabaseSubGraph;
+        Map<List<String>, Map<String, Class>> nodeKeyTypes = new LinkedHashMap<>();
+        Map<List<String>, List<Node>> nodesByLabels = new HashMap<>();
+        Map<String, Long> labelCounts = new HashMap<>();
+        for (Node node : graph.getNodes()) {
+            List<String> labels = labelNames(node);
+            labels.forEach(label -> labelCounts.merge(label, 1L, Long::sum));
+            if (!indexed) {
+                nodesByLabels.computeIfAbsent(labels, key -> new ArrayList<>()).add(node);
+            }
+            updateKeyTypes(nodeKeyTypes.computeIfAbsent(labels, key -> new LinkedHashMap<>()), node);
+        }
+        Map<String, Map<String, Class>> relKeyTypes = new LinkedHashMap<>();
+        Map<String, List<Relationship>> relsByType = new HashMap<>();
+        for (Relationship rel : graph.getRelationships()) {
+            String type = rel.getType().name();
+            if (!indexed) {
+                relsByType.computeIfAbsent(type, key -> new ArrayList<>()).add(rel);
+            }
+            updateKeyTypes(relKeyTypes.computeIfAbsent(type, key -> new LinkedHashMap<>()), rel);
+        }
+
+        List<ParallelExporter.GroupWriter> groups = new ArrayList<>();
+        nodeKeyTypes.forEach((labels, keyTypes) -> {
+            // the label of the set with the fewest nodes is scanned, the nodes without labels are scanned all
+            Label scanLabel = labels.stream()
+                    .min(Comparator.comparing(labelCounts::get))
+                    .map(Label::label)
+                    .orElse(null);
+            Set<String> header = generateHeaderNodeBulkImport(keyTypes);
+            groups.add((groupTx, groupReporter) -> {
+                Iterator<Node> nodes;
+                if (!indexed) {
+                    nodes = nodesByLabels.get(labels).iterator();
+                } else {
+                    SubGraph source = parallelExporter == null ? graph : new DatabaseSubGraph(groupTx);
+                    nodes = scanLabel == null ? source.getNodes().iterator() : source.findNodes(scanLabel);
+                }
+                writeNodesBulkImport(groupTx, groupReporter, config, writer, header, labels, nodes);
+            });
+        });
+        relKeyTypes.forEach((type, keyTypes) -> {
+            Set<String> header = generateHeaderRelationshipBulkImport(keyTypes);
+            groups.add((groupTx, groupReporter) -> {
+                Iterator<Relationship> rels;
+                if (!indexed) {
+                    rels = relsByType.get(type).iterator();
+                } else {
+                    SubGraph source = parallelExporter == null ? graph : new DatabaseSubGraph(groupTx);
+                    rels = source.findRelationships(RelationshipType.withName(type));
+                }
+                writeRelsBulkImport(groupTx, groupReporter, config, writer, header, type, rels);
+            });
+        });
+
+        if (parallelExporter == null) {
+            groups.forEach(group -> group.write(tx, reporter));
+        } else {
+            parallelExporter.groups(groups, reporter);
+        }
+    }
+
+    private static List<String> labelNames(Node node) {
+        List<String> labels = new ArrayList<>();
+        node.getLabels().forEach(label -> labels.add(label.name()));
+        return labels;
     }
 
     private void writeNodesBulkImport(
+            InternalTransaction tx,
             Reporter reporter,
             ExportConfig config,
             ExportFileManager writer,
-            Map<Iterable<Label>, List<Node>> objectNode) {
-        objectNode.entrySet().forEach(entrySet -> {
-            Set<String> headerNode = generateHeaderNodeBulkImport(entrySet);
-
-            List<List<String>> rows = entrySet.getValue().stream()
-                    .map(n -> {
-                        reporter.update(1, 0, n.getAllProperties().size());
-                        return headerNode.stream()
-                                .map(s -> {
-                                    if (s.equals(":LABEL")) {
-                                        return joinLabels(entrySet.getKey(), config.getArrayDelim());
-                                    }
-                                    String prop = s.split(":")[0];
-                                    return prop.isEmpty()
-                                            ? String.valueOf(getNodeId(tx, n.getElementId()))
-                                            : FormatUtils.toString(n.getProperty(prop, ""));
-                                })
-                                .collect(Collectors.toList());
-                    })
-                    .collect(Collectors.toList());
-
-            String type = joinLabels(entrySet.getKey(), ".");
-            writeRow(config, writer, headerNode, rows, "nodes." + type);
+            Set<String> header,
+            List<String> labels,
+            Iterator<Node> nodes) {
+        String joinedLabels = String.join(config.getArrayDelim(), labels);
+        String[] row = new String[header.size()];
+        writeBulkImportFile(config, writer, header, "nodes." + String.join(".", labels), csvWriter -> {
+            while (nodes.hasNext()) {
+                Node n = nodes.next();
+                if (!labelNames(n).equals(labels)) continue;
+                reporter.update(1, 0, n.getAllProperties().size());
+                int col = 0;
+                for (String s : header) {
+                    if (s.equals(":LABEL")) {
+                        row[col++] = joinedLabels;
+                        continue;
+                    }
+                    String prop = s.split(":")[0];
+                    row[col++] = prop.isEmpty()
+                            ? String.valueOf(getNodeId(tx, n.getElementId()))
+                            : FormatUtils.toString(n.getProperty(prop, ""));
+                }
+                csvWriter.writeNext(row, false);
+            }
         });
     }
 
     private void writeRelsBulkImport(
+            InternalTransaction tx,
             Reporter reporter,
             ExportConfig config,
             ExportFileManager writer,
-            Map<RelationshipType, List<Relationship>> objectRel) {
-        objectRel.entrySet().forEach(entrySet -> {
-            Set<String> headerRel = generateHeaderRelationshipBulkImport(entrySet);
-
-            List<List<String>> rows = entrySet.getValue().stream()
-                    .map(r -> {
-                        reporter.update(0, 1, r.getAllProperties().size());
-                        return headerRel.stream()
-                                .map(s -> {
-                                    switch (s) {
-                                        case ":START_ID":
-                                            return String.valueOf(getNodeId(
-                                                    tx, r.getStartNode().getElementId()));
-                                        case ":END_ID":
-                                            return String.valueOf(
-                                                    getNodeId(tx, r.getEndNode().getElementId()));
-                                        case ":TYPE":
-                                            return entrySet.getKey().name();
-                                        default:
-                                            String prop = s.split(":")[0];
-                                            return prop.isEmpty()
-                                                    ? String.valueOf(getRelationshipId(tx, r.getElementId()))
-                                                    : FormatUtils.toString(r.getProperty(prop, ""));
-                                    }
-                                })
-                                .collect(Collectors.toList());
-                    })
-                    .collect(Collectors.toList());
-            writeRow(
-                    config,
-                    writer,
-                    headerRel,
-                    rows,
-                    "relationships." + entrySet.getKey().name());
+            Set<String> header,
+            String type,
+            Iterator<Relationship> rels) {
+        String[] row = new String[header.size()];
+        writeBulkImportFile(config, writer, header, "relationships." + type, csvWriter -> {
+            while (rels.hasNext()) {
+                Relationship r = rels.next();
+                reporter.update(0, 1, r.getAllProperties().size());
+                int col = 0;
+                for (String s : header) {
+                    row[col++] = switch (s) {
+                        case ":START_ID" -> String.valueOf(getNodeId(tx, r.getStartNode().getElementId()));
+                        case ":END_ID" -> String.valueOf(getNodeId(tx, r.getEndNode().getElementId()));
+                        case ":TYPE" -> type;
+                        default -> {
+                            String prop = s.split(":")[0];
+                            yield prop.isEmpty()
+                                    ? String.valueOf(getRelationshipId(tx, r.getElementId()))
+                                    : FormatUtils.toString(r.getProperty(prop, ""));
+                        }
+                    };
+                }
+                csvWriter.writeNext(row, false);
+            }
         });
     }
 
-    private Set<String> generateHeaderNodeBulkImport(Map.Entry<Iterable<Label>, List<Node>> entrySet) {
+    private Set<String> generateHeaderNodeBulkImport(Map<String, Class> keyTypes) {
         Set<String> headerNode = new LinkedHashSet<>();
         headerNode.add(":ID");
-        Map<String, Class> keyTypes = new LinkedHashMap<>();
-        entrySet.getValue().forEach(node -> updateKeyTypes(keyTypes, node));
         final LinkedHashSet<String> otherFields = keyTypes.entrySet().stream()
                 .map(stringClassEntry -> formatHeader(stringClassEntry))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
@@ -287,10 +574,8 @@ public class CsvFormat {
         return headerNode;
     }
 
-    private Set<String> generateHeaderRelationshipBulkImport(Map.Entry<RelationshipType, List<Relationship>> entrySet) {
+    private Set<String> generateHeaderRelationshipBulkImport(Map<String, Class> keyTypes) {
         Set<String> headerNode = new LinkedHashSet<>();
-        Map<String, Class> keyTypes = new LinkedHashMap<>();
-        entrySet.getValue().forEach(relationship -> updateKeyTypes(keyTypes, relationship));
         headerNode.add(":START_ID");
         headerNode.add(":END_ID");
         headerNode.add(":TYPE");
@@ -300,23 +585,22 @@ public class CsvFormat {
         return headerNode;
     }
 
-    private void writeRow(
-            ExportConfig config,
-            ExportFileManager writer,
-            Set<String> headerNode,
-            List<List<String>> rows,
-            String name) {
+    /**
+     * Writes the header, in a file of its own with separateHeader: true, then the rows of a group
+     */
+    private static void writeBulkImportFile(
+            ExportConfig config, ExportFileManager writer, Set<String> header, String name, Consumer<CSVWriter> rows) {
         try (PrintWriter pw = writer.getPrintWriter(name);
-                CSVWriter csvWriter = getCsvWriter(pw, config)) {
+                CSVWriter csvWriter = newCsvWriter(pw, config)) {
             if (config.isSeparateHeader()) {
                 try (PrintWriter pwHeader = writer.getPrintWriter("header." + name)) {
-                    CSVWriter csvWriterHeader = getCsvWriter(pwHeader, config);
-                    csvWriterHeader.writeNext(headerNode.toArray(new String[headerNode.size()]), false);
+                    CSVWriter csvWriterHeader = newCsvWriter(pwHeader, config);
+                    csvWriterHeader.writeNext(header.toArray(new String[header.size()]), false);
                 }
             } else {
-                csvWriter.writeNext(headerNode.toArray(new String[headerNode.size()]), false);
+                csvWriter.writeNext(header.toArray(new String[header.size()]), false);
             }
-            rows.forEach(row -> csvWriter.writeNext(row.toArray(new String[row.size()]), false));
+            rows.accept(csvWriter);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -342,10 +626,16 @@ public class CsvFormat {
     }
 
     private void writeNodes(
-            SubGraph graph, CSVWriter out, Reporter reporter, List<String> header, int cols, int batchSize) {
+            Iterable<Node> graphNodes,
+            InternalTransaction tx,
+            CSVWriter out,
+            Reporter reporter,
+            List<String> header,
+            int cols,
+            int batchSize) {
         String[] row = new String[cols];
         int nodes = 0;
-        for (Node node : graph.getNodes()) {
+        for (Node node : graphNodes) {
             row[0] = String.valueOf(getNodeId(tx, node.getElementId()));
             row[1] = getLabelsString(node);
             collectProps(header, node, reporter, row, 2);
@@ -374,7 +664,8 @@ public class CsvFormat {
     }
 
     private void writeRels(
-            SubGraph graph,
+            Iterable<Relationship> graphRels,
+            InternalTransaction tx,
             CSVWriter out,
             Reporter reporter,
             List<String> relHeader,
@@ -383,7 +674,7 @@ public class CsvFormat {
             int batchSize) {
         String[] row = new String[cols];
         int rels = 0;
-        for (Relationship rel : graph.getRelationships()) {
+        for (Relationship rel : graphRels) {
             row[offset] = String.valueOf(getNodeId(tx, rel.getStartNode().getElementId()));
             row[offset + 1] = String.valueOf(getNodeId(tx, rel.getEndNode().getElementId()));
             row[offset + 2] = rel.getType().name();
@@ -26,6 +26,7 @@ import apoc.export.util.ExportConfig;
 import apoc.export.util.ExportFormat;
 import apoc.export.util.ExportUtils;
 import apoc.export.util.NodesAndRelsSubGraph;
+import apoc.export.util.ParallelExporter;
 import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
 import apoc.util.Util;
@@ -34,6 +35,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
 import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -73,7 +75,8 @@ public class ExportCSV {
 
     @NotThreadSafe
     @Procedure("apoc.export.csv.all")
-    @Description("Exports the full database to the provided CSV file.")
+    @Description("Exports the full database to the provided CSV file. "
+            + "With `parallel: true` it's read in chunks, each in its own transaction, so the output isn't a snapshot.")
     public Stream<ProgressInfo> all(@Name("file") String fileName, @Name("config") Map<String, Object> config) {
         String source = String.format("database: nodes(%d), rels(%d)", Util.nodeCount(tx), Util.relCount(tx));
         return exportCsv(fileName, source, new DatabaseSubGraph(tx), new ExportConfig(config, ExportFormat.CSV));
@@ -141,30 +144,41 @@ public class ExportCSV {
         progressInfo.batchSize = exportConfig.getBatchSize();
         ProgressReporter reporter = new ProgressReporter(null, null, progressInfo);
         CsvFormat exporter = new CsvFormat(db, (InternalTransaction) tx);
+        ParallelExporter parallelExporter = ParallelExporter.supports(data, exportConfig, tx)
+                ? new ParallelExporter(db, pools.getExecutorService(Pools.Workload.EXPORT), exportConfig)
+                : null;
+        // with parallel: true and separateFiles: true each chunk of rows is written to a part file
+        boolean partFiles =
+                parallelExporter != null && exportConfig.separateFiles() && StringUtils.isNotBlank(fileName);
 
-        ExportFileManager cypherFileManager =
-                FileManagerFactory.createFileManager(fileName, exportConfig.isBulkImport(), exportConfig);
+        ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(
+                fileName, exportConfig.isBulkImport() || partFiles, exportConfig);
 
         if (exportConfig.streamStatements()) {
             return ExportUtils.getProgressInfoStream(
                     db,
-                    pools.getDefaultExecutorService(),
+                    pools.getExecutorService(Pools.Workload.EXPORT),
                     terminationGuard,
                     format,
                     exportConfig,
                     reporter,
                     cypherFileManager,
-                    (reporterWithConsumer) ->
-                            dump(data, exportConfig, reporterWithConsumer, cypherFileManager, exporter));
+                    (reporterWithConsumer) -> dump(
+                            data, exportConfig, reporterWithConsumer, cypherFileManager, exporter, parallelExporter));
         } else {
-            dump(data, exportConfig, reporter, cypherFileManager, exporter);
+            dump(data, exportConfig, reporter, cypherFileManager, exporter, parallelExporter);
             return reporter.stream();
         }
     }
 
     private void dump(
-            Object data, ExportConfig c, ProgressReporter reporter, ExportFileManager printWriter, CsvFormat exporter) {
-        if (data instanceof SubGraph) exporter.dump((SubGraph) data, printWriter, reporter, c);
+            Object data,
+            ExportConfig c,
+            ProgressReporter reporter,
+            ExportFileManager printWriter,
+            CsvFormat exporter,
+            ParallelExporter parallelExporter) {
+        if (data instanceof SubGraph) exporter.dump((SubGraph) data, printWriter, reporter, c, parallelExporter);
         if (data instanceof Result) exporter.dump((Result) data, printWriter, reporter, c);
     }
 }
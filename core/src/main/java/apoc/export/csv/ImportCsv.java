@@ -19,10 +19,10 @@
 package apoc.export.csv;
 
 import apoc.Pools;
+import apoc.export.util.IdMapping;
 import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
 import apoc.util.Util;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -50,7 +50,7 @@ public class ImportCsv {
             @Name("nodes") List<Map<String, Object>> nodes,
             @Name("rels") List<Map<String, Object>> relationships,
             @Name("config") Map<String, Object> config) {
-        ProgressInfo result = Util.inThread(pools, () -> {
+        ProgressInfo result = Util.inThread(pools.getExecutorService(Pools.Workload.IO), () -> {
             String file = "progress.csv";
             String source = "file";
             if (nodes.stream().anyMatch(node -> node.containsKey("data"))) {
@@ -59,19 +59,29 @@ public class ImportCsv {
             }
             final CsvLoaderConfig clc = CsvLoaderConfig.from(config);
             final ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(file, source, "csv"));
-            final CsvEntityLoader loader = new CsvEntityLoader(clc, reporter, log, urlAccessChecker);
+            final CsvEntityLoader loader =
+                    new CsvEntityLoader(clc, reporter, log, urlAccessChecker, pools.getDefaultExecutorService());
 
-            final Map<String, Map<String, String>> idMapping = new HashMap<>();
-            for (Map<String, Object> node : nodes) {
-                final Object data = node.getOrDefault("fileName", node.get("data"));
-                final List<String> labels = (List<String>) node.get("labels");
-                loader.loadNodes(data, labels, db, idMapping);
-            }
+            try (IdMapping idMapping = new IdMapping(clc.getIdMappingHeapBudget())) {
+                try {
+                    for (Map<String, Object> node : nodes) {
+                        final Object data = node.getOrDefault("fileName", node.get("data"));
+                        final List<String> labels = (List<String>) node.get("labels");
+                        loader.loadNodes(data, labels, db, idMapping);
+                    }
+                    // the relationships need all the nodes to be in the id mapping
+                    loader.awaitBatches();
 
-            for (Map<String, Object> relationship : relationships) {
-                final Object fileName = relationship.getOrDefault("fileName", relationship.get("data"));
-                final String type = (String) relationship.get("type");
-                loader.loadRelationships(fileName, type, db, idMapping, urlAccessChecker);
+                    for (Map<String, Object> relationship : relationships) {
+                        final Object fileName = relationship.getOrDefault("fileName", relationship.get("data"));
+                        final String type = (String) relationship.get("type");
+                        loader.loadRelationships(fileName, type, db, idMapping, urlAccessChecker);
+                    }
+                    loader.awaitBatches();
+                } finally {
+                    // on a failure, e.g. of a later file, no batch may still use the id mapping once it's closed
+                    loader.cancelBatches();
+                }
             }
 
             return reporter.getTotal();
@@ -169,7 +169,7 @@ public class ExportCypher {
                     timeout));
             Util.inTxFuture(
                     null,
-                    pools.getDefaultExecutorService(),
+                    pools.getExecutorService(Pools.Workload.EXPORT),
                     db,
                     txInThread -> {
                         doExport(graph, c, onlySchema, reporterWithConsumer, cypherFileManager);
@@ -25,6 +25,7 @@ import apoc.export.cypher.FileManagerFactory;
 import apoc.export.util.ExportConfig;
 import apoc.export.util.ExportUtils;
 import apoc.export.util.NodesAndRelsSubGraph;
+import apoc.export.util.ParallelExporter;
 import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
 import apoc.util.FileUtils;
@@ -79,7 +80,7 @@ public class ExportGraphML {
     @Description("Imports a graph from the provided GraphML file.")
     public Stream<ProgressInfo> file(
             @Name("urlOrBinaryFile") Object urlOrBinaryFile, @Name("config") Map<String, Object> config) {
-        ProgressInfo result = Util.inThread(pools, () -> {
+        ProgressInfo result = Util.inThread(pools.getExecutorService(Pools.Workload.IO), () -> {
             ExportConfig exportConfig = new ExportConfig(config);
             String file = null;
             String source = "binary";
@@ -94,7 +95,9 @@ public class ExportGraphML {
                     .relType(exportConfig.defaultRelationshipType())
                     .source(exportConfig.getSource())
                     .target(exportConfig.getTarget())
-                    .nodeLabels(exportConfig.readLabels());
+                    .nodeLabels(exportConfig.readLabels())
+                    .idMappingHeapBudget(exportConfig.getIdMappingHeapBudget())
+                    .cursorParser(exportConfig.useCursorParser());
 
             if (exportConfig.storeNodeIds()) graphMLReader.storeNodeIds();
 
@@ -108,7 +111,8 @@ public class ExportGraphML {
 
     @NotThreadSafe
     @Procedure("apoc.export.graphml.all")
-    @Description("Exports the full database to the provided GraphML file.")
+    @Description("Exports the full database to the provided GraphML file. "
+            + "With `parallel: true` it's read in chunks, each in its own transaction, so the output isn't a snapshot.")
     public Stream<ProgressInfo> all(@Name("file") String fileName, @Name("config") Map<String, Object> config)
             throws Exception {
 
@@ -165,12 +169,15 @@ public class ExportGraphML {
         final String format = "graphml";
         ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(fileName, source, format));
         XmlGraphMLWriter exporter = new XmlGraphMLWriter();
+        ParallelExporter parallelExporter = ParallelExporter.supports(graph, exportConfig, tx)
+                ? new ParallelExporter(db, pools.getExecutorService(Pools.Workload.EXPORT), exportConfig)
+                : null;
         ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(fileName, false, exportConfig);
         final PrintWriter graphMl = cypherFileManager.getPrintWriter(format);
         if (exportConfig.streamStatements()) {
             return ExportUtils.getProgressInfoStream(
                     db,
-                    pools.getDefaultExecutorService(),
+                    pools.getExecutorService(Pools.Workload.EXPORT),
                     terminationGuard,
                     format,
                     exportConfig,
@@ -178,13 +185,13 @@ public class ExportGraphML {
                     cypherFileManager,
                     (reporterWithConsumer) -> {
                         try {
-                            exporter.write(graph, graphMl, reporterWithConsumer, exportConfig);
+                            exporter.write(graph, graphMl, reporterWithConsumer, exportConfig, parallelExporter);
                         } catch (Exception e) {
                             throw new RuntimeException(e);
                         }
                     });
         } else {
-            exporter.write(graph, graphMl, reporter, exportConfig);
+            exporter.write(graph, graphMl, reporter, exportConfig, parallelExporter);
             closeWriter(graphMl);
             return reporter.stream();
         }
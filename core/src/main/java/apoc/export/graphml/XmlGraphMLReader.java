@@ -20,6 +20,7 @@ package apoc.export.graphml;
 
 import apoc.export.util.BatchTransaction;
 import apoc.export.util.ExportConfig;
+import apoc.export.util.IdMapping;
 import apoc.export.util.Reporter;
 import apoc.util.JsonUtil;
 import java.io.Reader;
@@ -30,11 +31,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
@@ -48,6 +51,7 @@ import org.neo4j.procedure.TerminationGuard;
 public class XmlGraphMLReader {
 
     public static final String LABEL_SPLIT = " *: *";
+    private static final Pattern LABEL_PATTERN = Pattern.compile(LABEL_SPLIT);
     private final GraphDatabaseService db;
     private boolean storeNodeIds;
     private RelationshipType defaultRelType = RelationshipType.withName("UNKNOWN");
@@ -56,6 +60,8 @@ public class XmlGraphMLReader {
     private int batchSize = 40000;
     private Reporter reporter;
     private boolean labels;
+    private long idMappingHeapBudget = IdMapping.UNLIMITED_HEAP_BUDGET;
+    private boolean cursorParser;
 
     public XmlGraphMLReader storeNodeIds() {
         this.storeNodeIds = true;
@@ -92,6 +98,16 @@ public class XmlGraphMLReader {
         return this;
     }
 
+    public XmlGraphMLReader idMappingHeapBudget(long idMappingHeapBudget) {
+        this.idMappingHeapBudget = idMappingHeapBudget;
+        return this;
+    }
+
+    public XmlGraphMLReader cursorParser(boolean cursorParser) {
+        this.cursorParser = cursorParser;
+        return this;
+    }
+
     public ExportConfig.NodeConfig getSource() {
         return source;
     }
@@ -180,6 +196,8 @@ public class XmlGraphMLReader {
         Type listType;
         Type type;
         Object defaultValue;
+        // resolved once from the key definition, instead of for each value
+        private final Function<String, Object> converter;
 
         public Key(String nameOrId, String type, String listType, String forNode) {
             this.nameOrId = nameOrId;
@@ -188,6 +206,7 @@ public class XmlGraphMLReader {
                 this.listType = Type.forType(listType);
             }
             this.forNode = forNode == null || forNode.equalsIgnoreCase("node");
+            this.converter = this.listType != null ? this.listType::parseList : this.type::parse;
         }
 
         private static Key defaultKey(String id, boolean forNode) {
@@ -199,9 +218,8 @@ public class XmlGraphMLReader {
         }
 
         public Object parseValue(String input) {
-            if (input == null || input.trim().isEmpty()) return defaultValue;
-            if (listType != null) return listType.parseList(input);
-            return type.parse(input);
+            if (StringUtils.isBlank(input)) return defaultValue;
+            return converter.apply(input);
         }
     }
 
@@ -213,23 +231,36 @@ public class XmlGraphMLReader {
     public static final QName TYPE = QName.valueOf("attr.type");
     public static final QName LIST = QName.valueOf("attr.list");
     public static final QName KEY = QName.valueOf("key");
+    public static final QName SOURCE = QName.valueOf("source");
+    public static final QName SOURCE_TYPE = QName.valueOf("sourceType");
+    public static final QName TARGET = QName.valueOf("target");
+    public static final QName TARGET_TYPE = QName.valueOf("targetType");
 
     public XmlGraphMLReader(GraphDatabaseService db) {
         this.db = db;
     }
 
     public long parseXML(Reader input, TerminationGuard terminationGuard) throws XMLStreamException {
-        Map<String, String> cache = new HashMap<>(1024 * 32);
+        return cursorParser ? parseWithCursor(input, terminationGuard) : parseWithEvents(input, terminationGuard);
+    }
+
+    private static XMLInputFactory createInputFactory() {
         XMLInputFactory inputFactory = XMLInputFactory.newInstance();
         inputFactory.setProperty("javax.xml.stream.isCoalescing", true);
         inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
         inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
         inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-        XMLEventReader reader = inputFactory.createXMLEventReader(input);
+        return inputFactory;
+    }
+
+    private long parseWithEvents(Reader input, TerminationGuard terminationGuard) throws XMLStreamException {
+        XMLEventReader reader = createInputFactory().createXMLEventReader(input);
         Entity last = null;
         Map<String, Key> nodeKeys = new HashMap<>();
         Map<String, Key> relKeys = new HashMap<>();
         int count = 0;
+        IdMapping idMapping = new IdMapping(idMappingHeapBudget);
+        IdMapping.IdSpace cache = idMapping.idSpace("graphml");
         BatchTransaction tx = new BatchTransaction(db, batchSize * 10, reporter);
         try {
 
@@ -286,32 +317,12 @@ public class XmlGraphMLReader {
                         final Map.Entry<XMLEvent, Object> eventEntry = getDataEventEntry(reader, key);
                         final XMLEvent next = eventEntry.getKey();
                         final Object value = eventEntry.getValue();
-                        if (value != null) {
-                            if (this.labels && isNode && id.equals("labels")) {
-                                addLabels((Node) last, value.toString());
-                            } else if (!this.labels || isNode || !id.equals("label")) {
-                                last.setProperty(key.nameOrId, value);
-                                if (reporter != null) reporter.update(0, 0, 1);
-                            }
-                        } else if (next.getEventType() == XMLStreamConstants.END_ELEMENT) {
-                            last.setProperty(key.nameOrId, StringUtils.EMPTY);
-                            reporter.update(0, 0, 1);
-                        }
+                        setData(last, key, id, value, next.getEventType() == XMLStreamConstants.END_ELEMENT);
                         continue;
                     }
                     if (name.equals("node")) {
-                        tx.increment();
-                        String id = getAttribute(element, ID);
-                        Node node = tx.getTransaction().createNode();
-                        if (this.labels) {
-                            String labels = getAttribute(element, LABELS);
-                            addLabels(node, labels);
-                        }
-                        if (storeNodeIds) node.setProperty("id", id);
-                        setDefaults(nodeKeys, node);
-                        last = node;
-                        cache.put(id, node.getElementId());
-                        if (reporter != null) reporter.update(1, 0, 0);
+                        last = createNode(
+                                tx, getAttribute(element, ID), getAttribute(element, LABELS), nodeKeys, cache);
                         count++;
                         continue;
                     }
@@ -323,10 +334,7 @@ public class XmlGraphMLReader {
 
                         RelationshipType relationshipType =
                                 label == null ? getRelationshipType(reader) : RelationshipType.withName(label);
-                        Relationship relationship = from.createRelationshipTo(to, relationshipType);
-                        setDefaults(relKeys, relationship);
-                        last = relationship;
-                        if (reporter != null) reporter.update(0, 1, 0);
+                        last = createRelationship(from, to, relationshipType, relKeys);
                         count++;
                     }
                 }
@@ -337,10 +345,171 @@ public class XmlGraphMLReader {
             throw e;
         } finally {
             tx.close();
+            idMapping.close();
         }
         return count;
     }
 
+    /**
+     * Same as {@link #parseWithEvents(Reader, TerminationGuard)}, but it walks the document with the cursor of an
+     * {@link XMLStreamReader}, so that no event object is created. The text of the data elements is collected
+     * in a single reused buffer, and converted with the converter precomputed by its key.
+     */
+    private long parseWithCursor(Reader input, TerminationGuard terminationGuard) throws XMLStreamException {
+        Cursor reader = new Cursor(createInputFactory().createXMLStreamReader(input));
+        Entity last = null;
+        Map<String, Key> nodeKeys = new HashMap<>();
+        Map<String, Key> relKeys = new HashMap<>();
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        IdMapping idMapping = new IdMapping(idMappingHeapBudget);
+        IdMapping.IdSpace cache = idMapping.idSpace("graphml");
+        BatchTransaction tx = new BatchTransaction(db, batchSize * 10, reporter);
+        try {
+
+            while (reader.hasNext()) {
+                terminationGuard.check();
+                int event;
+                try {
+                    event = reader.next();
+                    if (event == XMLStreamConstants.DTD) {
+                        generateXmlDoctypeException();
+                    }
+                } catch (Exception e) {
+                    // in case of unicode invalid chars we skip the event, or we exit in case of EOF
+                    if (e.getMessage().contains("Unexpected EOF")) {
+                        break;
+                    } else if (e.getMessage().contains("DOCTYPE")) {
+                        throw e;
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+
+                String name = reader.getLocalName();
+                if (name.equals("key")) {
+                    String id = reader.getAttribute(ID);
+                    Key key = new Key(
+                            reader.getAttribute(NAME),
+                            reader.getAttribute(TYPE),
+                            reader.getAttribute(LIST),
+                            reader.getAttribute(FOR));
+
+                    if (reader.peekSkippingWhitespace() == XMLStreamConstants.START_ELEMENT
+                            && reader.getLocalName().equals("default")) {
+                        reader.next();
+                        reader.next();
+                        key.setDefault(reader.getText());
+                    }
+                    if (key.forNode) nodeKeys.put(id, key);
+                    else relKeys.put(id, key);
+                    continue;
+                }
+                if (name.equals("data")) {
+                    if (last == null) continue;
+                    String id = reader.getAttribute(KEY);
+                    boolean isNode = last instanceof Node;
+                    Key key = isNode ? nodeKeys.get(id) : relKeys.get(id);
+                    if (key == null) key = Key.defaultKey(id, isNode);
+                    final int next = readText(reader, text);
+                    final Object value = text.isEmpty() ? key.defaultValue : key.parseValue(text.toString());
+                    setData(last, key, id, value, next == XMLStreamConstants.END_ELEMENT);
+                    continue;
+                }
+                if (name.equals("node")) {
+                    last = createNode(tx, reader.getAttribute(ID), reader.getAttribute(LABELS), nodeKeys, cache);
+                    count++;
+                    continue;
+                }
+                if (name.equals("edge")) {
+                    tx.increment();
+                    String label = reader.getAttribute(LABEL);
+                    Node from = getByNodeId(
+                            cache,
+                            tx.getTransaction(),
+                            reader.getAttribute(SOURCE),
+                            reader.getAttribute(SOURCE_TYPE),
+                            XmlNodeExport.NodeType.SOURCE);
+                    Node to = getByNodeId(
+                            cache,
+                            tx.getTransaction(),
+                            reader.getAttribute(TARGET),
+                            reader.getAttribute(TARGET_TYPE),
+                            XmlNodeExport.NodeType.TARGET);
+
+                    RelationshipType relationshipType =
+                            label == null ? getRelationshipType(reader) : RelationshipType.withName(label);
+                    last = createRelationship(from, to, relationshipType, relKeys);
+                    count++;
+                }
+            }
+            tx.doCommit();
+        } catch (Exception e) {
+            tx.rollback();
+            throw e;
+        } finally {
+            tx.close();
+            idMapping.close();
+        }
+        return count;
+    }
+
+    private Node createNode(
+            BatchTransaction tx, String id, String labels, Map<String, Key> nodeKeys, IdMapping.IdSpace cache) {
+        tx.increment();
+        Node node = tx.getTransaction().createNode();
+        if (this.labels) {
+            addLabels(node, labels);
+        }
+        if (storeNodeIds) node.setProperty("id", id);
+        setDefaults(nodeKeys, node);
+        cache.put(id, node.getId());
+        if (reporter != null) reporter.update(1, 0, 0);
+        return node;
+    }
+
+    private Relationship createRelationship(
+            Node from, Node to, RelationshipType relationshipType, Map<String, Key> relKeys) {
+        Relationship relationship = from.createRelationshipTo(to, relationshipType);
+        setDefaults(relKeys, relationship);
+        if (reporter != null) reporter.update(0, 1, 0);
+        return relationship;
+    }
+
+    private void setData(Entity last, Key key, String id, Object value, boolean endElement) {
+        boolean isNode = last instanceof Node;
+        if (value != null) {
+            if (this.labels && isNode && id.equals("labels")) {
+                addLabels((Node) last, value.toString());
+            } else if (!this.labels || isNode || !id.equals("label")) {
+                last.setProperty(key.nameOrId, value);
+                if (reporter != null) reporter.update(0, 0, 1);
+            }
+        } else if (endElement) {
+            last.setProperty(key.nameOrId, StringUtils.EMPTY);
+            if (reporter != null) reporter.update(0, 0, 1);
+        }
+    }
+
+    /**
+     * Same as {@link #peekRecursively(XMLEventReader, String)}: collects in the buffer the text up to the next element,
+     * skipping the invalid chars, and returns the type of the event after it, on which the cursor is left
+     */
+    private static int readText(Cursor reader, StringBuilder text) throws XMLStreamException {
+        text.setLength(0);
+        while (true) {
+            try {
+                int event = reader.peekSkippingWhitespace();
+                if (!Cursor.isCharacters(event)) return event;
+                reader.next();
+                reader.appendText(text);
+            } catch (XMLStreamException e) {
+                // in case of unicode invalid chars we continue until we get a valid event
+                if (String.valueOf(e.getMessage()).contains("Unexpected EOF")) throw e;
+            }
+        }
+    }
+
     private Map.Entry<XMLEvent, Object> getDataEventEntry(XMLEventReader reader, Key key) {
         Object value = key.defaultValue;
 
@@ -369,20 +538,30 @@ public class XmlGraphMLReader {
     }
 
     private Node getByNodeId(
-            Map<String, String> cache, Transaction tx, StartElement element, XmlNodeExport.NodeType nodeType) {
+            IdMapping.IdSpace cache, Transaction tx, StartElement element, XmlNodeExport.NodeType nodeType) {
+        return getByNodeId(
+                cache,
+                tx,
+                getAttribute(element, QName.valueOf(nodeType.getName())),
+                getAttribute(element, QName.valueOf(nodeType.getNameType())),
+                nodeType);
+    }
+
+    private Node getByNodeId(
+            IdMapping.IdSpace cache,
+            Transaction tx,
+            String sourceTargetValue,
+            String attribute,
+            XmlNodeExport.NodeType nodeType) {
         final XmlNodeExport.ExportNode xmlNodeInterface = nodeType.get();
         final ExportConfig.NodeConfig nodeConfig = xmlNodeInterface.getNodeConfigReader(this);
 
-        final String sourceTargetValue = getAttribute(element, QName.valueOf(nodeType.getName()));
-
-        final String id = cache.get(sourceTargetValue);
         // without source/target config, we look for the internal id
         if (StringUtils.isBlank(nodeConfig.label)) {
-            return tx.getNodeByElementId(id);
+            return tx.getNodeById(cache.get(sourceTargetValue));
         }
         // with source/target configured, we search a node with a specified label
         // and with a type specified in sourceType, if present, or string by default
-        final String attribute = getAttribute(element, QName.valueOf(nodeType.getNameType()));
         final Object value =
                 attribute == null ? sourceTargetValue : Type.forType(attribute).parse(sourceTargetValue);
 
@@ -397,10 +576,7 @@ public class XmlGraphMLReader {
             XMLEvent peek = reader.peek();
             boolean isChar = peek.isCharacters();
             if (isChar && !(peek.asCharacters().isWhiteSpace())) {
-                String value = peek.asCharacters().getData();
-                String el = ":";
-                String typeRel = value.contains(el) ? value.replace(el, StringUtils.EMPTY) : value;
-                return RelationshipType.withName(typeRel.trim());
+                return relationshipTypeOf(peek.asCharacters().getData());
             }
 
             boolean notStartElementOrContainsKeyLabel = isChar || !peek.isStartElement() || containsLabelKey(peek);
@@ -414,6 +590,33 @@ public class XmlGraphMLReader {
         return defaultRelType;
     }
 
+    private RelationshipType getRelationshipType(Cursor reader) throws XMLStreamException {
+        if (this.labels) {
+            while (true) {
+                int peek = reader.peek();
+                boolean isChar = Cursor.isCharacters(peek);
+                if (isChar && !reader.isWhiteSpace()) {
+                    return relationshipTypeOf(reader.getText());
+                }
+
+                boolean notStartElementOrContainsKeyLabel = isChar
+                        || peek != XMLStreamConstants.START_ELEMENT
+                        || "label".equals(reader.getAttribute(KEY));
+
+                if (peek == XMLStreamConstants.END_DOCUMENT || !notStartElementOrContainsKeyLabel) break;
+                reader.next();
+            }
+        }
+        reader.next(); // to prevent eventual wrong reader (f.e. self-closing tag)
+        return defaultRelType;
+    }
+
+    private static RelationshipType relationshipTypeOf(String value) {
+        String el = ":";
+        String typeRel = value.contains(el) ? value.replace(el, StringUtils.EMPTY) : value;
+        return RelationshipType.withName(typeRel.trim());
+    }
+
     private boolean containsLabelKey(XMLEvent peek) {
         final Attribute keyAttribute = peek.asStartElement().getAttributeByName(new QName("key"));
         return keyAttribute != null && keyAttribute.getValue().equals("label");
@@ -423,7 +626,7 @@ public class XmlGraphMLReader {
         if (labels == null) return;
         labels = labels.trim();
         if (labels.isEmpty()) return;
-        String[] parts = labels.split(LABEL_SPLIT);
+        String[] parts = LABEL_PATTERN.split(labels);
         for (String part : parts) {
             if (part.trim().isEmpty()) continue;
             node.addLabel(Label.label(part.trim()));
@@ -454,4 +657,73 @@ public class XmlGraphMLReader {
     private RuntimeException generateXmlDoctypeException() {
         throw new RuntimeException("XML documents with a DOCTYPE are not allowed.");
     }
+
+    /**
+     * An {@link XMLStreamReader} with the look-ahead of an {@link XMLEventReader}: after a {@link #peek()} the reader
+     * is positioned on the peeked event, which is returned by the following {@link #next()}
+     */
+    private static final class Cursor {
+        private final XMLStreamReader reader;
+        private boolean peeked;
+
+        private Cursor(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        boolean hasNext() throws XMLStreamException {
+            return peeked || reader.hasNext();
+        }
+
+        int next() throws XMLStreamException {
+            if (peeked) {
+                peeked = false;
+                return reader.getEventType();
+            }
+            return reader.next();
+        }
+
+        int peek() throws XMLStreamException {
+            if (!peeked) {
+                if (!reader.hasNext()) return XMLStreamConstants.END_DOCUMENT;
+                reader.next();
+                peeked = true;
+            }
+            return reader.getEventType();
+        }
+
+        int peekSkippingWhitespace() throws XMLStreamException {
+            int event = peek();
+            while (isCharacters(event) && reader.isWhiteSpace()) {
+                next();
+                event = peek();
+            }
+            return event;
+        }
+
+        static boolean isCharacters(int event) {
+            return event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE;
+        }
+
+        boolean isWhiteSpace() {
+            return reader.isWhiteSpace();
+        }
+
+        String getLocalName() {
+            return reader.getLocalName();
+        }
+
+        String getAttribute(QName qname) {
+            return reader.getAttributeValue(null, qname.getLocalPart());
+        }
+
+        String getText() {
+            return reader.getText();
+        }
+
+        void appendText(StringBuilder text) {
+            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+        }
+    }
 }
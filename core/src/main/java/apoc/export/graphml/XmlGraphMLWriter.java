@@ -58,6 +58,51 @@ public class XmlGraphMLWriter {
         reporter.done();
     }
 
+    /**
+     * With a parallelExporter, the node and edge elements are serialized in chunks on its threads,
+     * and written in their order between the header and the footer
+     */
+    public void write(
+            SubGraph graph, Writer writer, Reporter reporter, ExportConfig config, ParallelExporter parallelExporter)
+            throws Exception {
+        if (parallelExporter == null) {
+            write(graph, writer, reporter, config);
+            return;
+        }
+        XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+        XMLStreamWriter xmlWriter = xmlOutputFactory.createXMLStreamWriter(writer);
+        writeHeader(xmlWriter);
+        writeKey(xmlWriter, graph, config);
+        writeGraph(xmlWriter);
+        xmlWriter.flush();
+        parallelExporter.nodes(
+                graph.getNodes(),
+                (tx, chunk, out, chunkReporter) -> {
+                    XMLStreamWriter chunkWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+                    for (Node node : chunk) {
+                        int props = writeNode(chunkWriter, node, config);
+                        chunkReporter.update(1, 0, props);
+                    }
+                    chunkWriter.flush();
+                },
+                reporter,
+                writer::write);
+        parallelExporter.relationships(
+                graph.getRelationships(),
+                (tx, chunk, out, chunkReporter) -> {
+                    XMLStreamWriter chunkWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+                    for (Relationship rel : chunk) {
+                        int props = writeRelationship(chunkWriter, rel, config);
+                        chunkReporter.update(0, 1, props);
+                    }
+                    chunkWriter.flush();
+                },
+                reporter,
+                writer::write);
+        writeFooter(xmlWriter);
+        reporter.done();
+    }
+
     private void writeKey(XMLStreamWriter writer, SubGraph ops, ExportConfig config) throws Exception {
         Map<String, Class> keyTypes = new HashMap<>();
         for (Node node : ops.getNodes()) {
@@ -25,6 +25,7 @@ import apoc.export.cypher.FileManagerFactory;
 import apoc.export.util.ExportConfig;
 import apoc.export.util.ExportUtils;
 import apoc.export.util.NodesAndRelsSubGraph;
+import apoc.export.util.ParallelExporter;
 import apoc.export.util.ProgressReporter;
 import apoc.result.ProgressInfo;
 import apoc.util.Util;
@@ -33,6 +34,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
 import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -65,7 +67,8 @@ public class ExportJson {
 
     @NotThreadSafe
     @Procedure("apoc.export.json.all")
-    @Description("Exports the full database to the provided JSON file.")
+    @Description("Exports the full database to the provided JSON file. "
+            + "With `parallel: true` it's read in chunks, each in its own transaction, so the output isn't a snapshot.")
     public Stream<ProgressInfo> all(
             @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
@@ -123,21 +126,30 @@ public class ExportJson {
         apocConfig.checkWriteAllowed(exportConfig, fileName);
         final String format = "json";
         ProgressReporter reporter = new ProgressReporter(null, null, new ProgressInfo(fileName, source, format));
-        JsonFormat exporter = new JsonFormat(db, getJsonFormat(config));
-        ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(fileName, false, exportConfig);
+        JsonFormat.Format jsonFormat = getJsonFormat(config);
+        JsonFormat exporter = new JsonFormat(db, jsonFormat);
+        ParallelExporter parallelExporter = ParallelExporter.supports(data, exportConfig, tx)
+                ? new ParallelExporter(db, pools.getExecutorService(Pools.Workload.EXPORT), exportConfig)
+                : null;
+        // with parallel: true and separateFiles: true each chunk of JSON lines is written to a part file
+        boolean partFiles = parallelExporter != null
+                && exportConfig.separateFiles()
+                && jsonFormat == JsonFormat.Format.JSON_LINES
+                && StringUtils.isNotBlank(fileName);
+        ExportFileManager cypherFileManager = FileManagerFactory.createFileManager(fileName, partFiles, exportConfig);
         if (exportConfig.streamStatements()) {
             return ExportUtils.getProgressInfoStream(
                     db,
-                    pools.getDefaultExecutorService(),
+                    pools.getExecutorService(Pools.Workload.EXPORT),
                     terminationGuard,
                     format,
                     exportConfig,
                     reporter,
                     cypherFileManager,
-                    (reporterWithConsumer) ->
-                            dump(data, exportConfig, reporterWithConsumer, exporter, cypherFileManager));
+                    (reporterWithConsumer) -> dump(
+                            data, exportConfig, reporterWithConsumer, exporter, cypherFileManager, parallelExporter));
         } else {
-            dump(data, exportConfig, reporter, exporter, cypherFileManager);
+            dump(data, exportConfig, reporter, exporter, cypherFileManager, parallelExporter);
             return reporter.stream();
         }
     }
@@ -157,9 +169,11 @@ public class ExportJson {
             ExportConfig c,
             ProgressReporter reporter,
             JsonFormat exporter,
-            ExportFileManager cypherFileManager) {
+            ExportFileManager cypherFileManager,
+            ParallelExporter parallelExporter) {
         try {
-            if (data instanceof SubGraph) exporter.dump(((SubGraph) data), cypherFileManager, reporter, c);
+            if (data instanceof SubGraph)
+                exporter.dump(((SubGraph) data), cypherFileManager, reporter, c, parallelExporter);
             if (data instanceof Result) exporter.dump(((Result) data), cypherFileManager, reporter, c);
         } catch (Exception e) {
             throw new RuntimeException(e);
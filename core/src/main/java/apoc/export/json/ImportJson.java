@@ -55,7 +55,7 @@ public class ImportJson {
     public Stream<ProgressInfo> all(
             @Name("urlOrBinaryFile") Object urlOrBinaryFile,
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
-        ProgressInfo result = Util.inThread(pools, () -> {
+        ProgressInfo result = Util.inThread(pools.getExecutorService(Pools.Workload.IO), () -> {
             ImportJsonConfig importJsonConfig = new ImportJsonConfig(config);
             String file = null;
             String source = "binary";
@@ -68,7 +68,8 @@ public class ImportJson {
             try (final CountingReader reader = FileUtils.readerFor(
                             urlOrBinaryFile, importJsonConfig.getCompressionAlgo(), urlAccessChecker);
                     final Scanner scanner = new Scanner(reader).useDelimiter("\n|\r");
-                    JsonImporter jsonImporter = new JsonImporter(importJsonConfig, db, reporter)) {
+                    JsonImporter jsonImporter =
+                            new JsonImporter(importJsonConfig, db, reporter, pools.getDefaultExecutorService())) {
                 while (scanner.hasNext() && !Util.transactionIsTerminated(terminationGuard)) {
                     Map<String, Object> row = JsonUtil.OBJECT_MAPPER.readValue(scanner.nextLine(), Map.class);
                     jsonImporter.importRow(row);
@@ -41,6 +41,9 @@ public class ImportJsonConfig extends CompressionConfig {
 
     private final boolean cleanup;
 
+    private final boolean parallel;
+    private final int concurrency;
+
     public ImportJsonConfig(Map<String, Object> config) {
         super(config);
         config = config == null ? Collections.emptyMap() : config;
@@ -54,6 +57,12 @@ public class ImportJsonConfig extends CompressionConfig {
         this.cleanup = Util.toBoolean(config.get("cleanup"));
         this.nodePropFilter = (Map<String, List<String>>) config.getOrDefault("nodePropFilter", Collections.emptyMap());
         this.relPropFilter = (Map<String, List<String>>) config.getOrDefault("relPropFilter", Collections.emptyMap());
+        this.parallel = Util.toBoolean(config.get("parallel"));
+        this.concurrency = Util.toInteger(
+                config.getOrDefault("concurrency", Runtime.getRuntime().availableProcessors()));
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency parameter must be > 0");
+        }
     }
 
     public String typeForNode(Collection<String> labels, String property) {
@@ -93,4 +102,12 @@ public class ImportJsonConfig extends CompressionConfig {
     public Map<String, List<String>> getRelPropFilter() {
         return relPropFilter;
     }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
 }
@@ -22,6 +22,7 @@ import static apoc.util.Util.INVALID_QUERY_MODE_ERROR;
 
 import apoc.export.cypher.ExportFileManager;
 import apoc.export.util.ExportConfig;
+import apoc.export.util.ParallelExporter;
 import apoc.export.util.Reporter;
 import apoc.meta.Types;
 import apoc.result.ProgressInfo;
@@ -30,9 +31,13 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -92,6 +97,106 @@ public class JsonFormat {
         return dump(writer.getPrintWriter("json"), reporter, consumer);
     }
 
+    /**
+     * Writes the containers, and in between the chunks of entities serialized in parallel in their order.
+     * With JSON lines and a writer with separated files, each chunk is written to a part file instead.
+     */
+    public ProgressInfo dump(
+            SubGraph graph,
+            ExportFileManager writer,
+            Reporter reporter,
+            ExportConfig config,
+            ParallelExporter parallelExporter)
+            throws Exception {
+        if (parallelExporter == null) {
+            return dump(graph, writer, reporter, config);
+        }
+        isExportSubGraph = true;
+        ParallelExporter.ChunkSerializer<Node> nodes = (tx, chunk, out, chunkReporter) ->
+                writeJsonChunk(out, jsonGenerator -> writeNodes(chunk, chunkReporter, jsonGenerator, config));
+        ParallelExporter.ChunkSerializer<Relationship> rels = (tx, chunk, out, chunkReporter) ->
+                writeJsonChunk(out, jsonGenerator -> writeRels(chunk, chunkReporter, jsonGenerator, config));
+
+        if (format == Format.JSON_LINES && writer.separatedFiles()) {
+            AtomicInteger part = new AtomicInteger();
+            ParallelExporter.ChunkSink sink = chunk -> {
+                String partName = ParallelExporter.partName(part.getAndIncrement());
+                try (PrintWriter printWriter = writer.getPrintWriter(partName)) {
+                    printWriter.write(chunk);
+                }
+            };
+            parallelExporter.nodes(graph.getNodes(), nodes, reporter, sink);
+            parallelExporter.relationships(graph.getRelationships(), rels, reporter, sink);
+            reporter.done();
+            return reporter.getTotal();
+        }
+
+        Writer out = writer.getPrintWriter("json");
+        // the JSON lines are separated by a new line, the entities in a container by a comma
+        String separator = format == Format.JSON_LINES ? "\n" : ",";
+        AtomicBoolean empty = new AtomicBoolean(true);
+        ParallelExporter.ChunkSink sink = chunk -> {
+            if (chunk.isEmpty()) return;
+            if (!empty.getAndSet(false)) out.write(separator);
+            out.write(chunk);
+        };
+        Consumer<JsonGenerator> consumer = (jsonGenerator) -> {
+            try {
+                writeJsonContainerStart(jsonGenerator);
+                writeJsonNodeContainerStart(jsonGenerator);
+                jsonGenerator.flush();
+                parallelExporter.nodes(graph.getNodes(), nodes, reporter, sink);
+                writeJsonNodeContainerEnd(jsonGenerator);
+                if (format == Format.JSON || format == Format.JSON_ID_AS_KEYS) {
+                    // the relationships are in a container of their own
+                    empty.set(true);
+                }
+                writeJsonRelationshipContainerStart(jsonGenerator);
+                jsonGenerator.flush();
+                parallelExporter.relationships(graph.getRelationships(), rels, reporter, sink);
+                writeJsonRelationshipContainerEnd(jsonGenerator);
+                writeJsonContainerEnd(jsonGenerator);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        return dump(out, reporter, consumer);
+    }
+
+    @FunctionalInterface
+    private interface JsonChunk {
+        void write(JsonGenerator jsonGenerator) throws IOException;
+    }
+
+    /**
+     * The entities of a chunk are serialized in a container of their own, so that they are separated as in the
+     * whole file, then the brackets of the container are stripped
+     */
+    private void writeJsonChunk(Writer out, JsonChunk chunk) throws IOException {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator jsonGenerator = getJsonGenerator(json)) {
+            switch (format) {
+                case JSON_LINES -> chunk.write(jsonGenerator);
+                case JSON_ID_AS_KEYS -> {
+                    jsonGenerator.writeStartObject();
+                    chunk.write(jsonGenerator);
+                    jsonGenerator.writeEndObject();
+                }
+                default -> {
+                    jsonGenerator.writeStartArray();
+                    chunk.write(jsonGenerator);
+                    jsonGenerator.writeEndArray();
+                }
+            }
+        }
+        StringBuffer buffer = json.getBuffer();
+        if (format == Format.JSON_LINES) {
+            out.append(buffer);
+        } else {
+            out.append(buffer, 1, buffer.length() - 1);
+        }
+    }
+
     private void writeJsonRelationshipContainerEnd(JsonGenerator jsonGenerator) throws IOException {
         switch (format) {
             case JSON:
@@ -20,6 +20,7 @@ package apoc.export.json;
 
 import static apoc.export.json.ImportJsonConfig.WILDCARD_PROPS;
 
+import apoc.export.util.Lanes;
 import apoc.export.util.Reporter;
 import apoc.util.Util;
 import com.google.common.collect.Iterables;
@@ -33,8 +34,13 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -43,7 +49,9 @@ import java.util.stream.StreamSupport;
 import org.apache.commons.lang3.StringUtils;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransientFailureException;
 import org.neo4j.graphdb.schema.ConstraintType;
 import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.values.storable.DurationValue;
@@ -58,6 +66,8 @@ public class JsonImporter implements Closeable {
     public static final String MISSING_CONSTRAINT_ERROR_MSG =
             "Missing constraint required for import. Execute this query: \n"
                     + "CREATE CONSTRAINT FOR (n:%s) REQUIRE n.%s IS UNIQUE;";
+    // a parallel batch can deadlock with another one on the same nodes, so it's retried a few times
+    private static final int MAX_RETRIES = 5;
 
     private final List<Map<String, Object>> paramList;
     private final int unwindBatchSize;
@@ -71,13 +81,32 @@ public class JsonImporter implements Closeable {
 
     private final ImportJsonConfig importJsonConfig;
 
-    public JsonImporter(ImportJsonConfig importJsonConfig, GraphDatabaseService db, Reporter reporter) {
+    // the label sets already checked for the uniqueness constraints
+    private final Set<List<String>> checkedLabels = new HashSet<>();
+
+    // with parallel: true the rows are grouped by label set and relationship type, whatever their order
+    private final Lanes lanes;
+    private final Map<Group, List<Map<String, Object>>> groups = new LinkedHashMap<>();
+    private int groupedRows;
+    private int nextLane;
+    private boolean nodesPending;
+
+    private record Group(String type, List<String> labels, Map<String, Object> relType) {}
+
+    public JsonImporter(
+            ImportJsonConfig importJsonConfig,
+            GraphDatabaseService db,
+            Reporter reporter,
+            ExecutorService executorService) {
         this.paramList = new ArrayList<>(importJsonConfig.getUnwindBatchSize());
         this.db = db;
         this.txBatchSize = importJsonConfig.getTxBatchSize();
         this.unwindBatchSize = Math.min(importJsonConfig.getUnwindBatchSize(), txBatchSize);
         this.reporter = reporter;
         this.importJsonConfig = importJsonConfig;
+        this.lanes = importJsonConfig.isParallel()
+                ? new Lanes(executorService, importJsonConfig.getConcurrency())
+                : null;
     }
 
     public void importRow(Map<String, Object> param) {
@@ -116,6 +145,10 @@ public class JsonImporter implements Closeable {
         updateReporter(type, properties);
         param.put("properties", convertProperties(type, properties));
 
+        if (lanes != null) {
+            group(type, param);
+            return;
+        }
         paramList.add(param);
         if (paramList.size() % txBatchSize == 0) {
             final Collection<List<Map<String, Object>>> results = chunkData();
@@ -140,7 +173,7 @@ public class JsonImporter implements Closeable {
             lastType = type;
         }
         if (!type.equals(lastType)) {
-            flush();
+            flushOnChange();
             lastType = type;
         }
     }
@@ -160,7 +193,7 @@ public class JsonImporter implements Closeable {
         }
         if (!relType.equals(lastRelTypes)) {
             checkUniquenessConstraints(allLabels);
-            flush();
+            flushOnChange();
             lastRelTypes = relType;
         }
     }
@@ -173,7 +206,7 @@ public class JsonImporter implements Closeable {
         }
         if (!labels.equals(lastLabels)) {
             checkUniquenessConstraints(labels);
-            flush();
+            flushOnChange();
             lastLabels = labels;
         }
     }
@@ -182,9 +215,10 @@ public class JsonImporter implements Closeable {
      * The constraint for the import name should be unique to avoid duplicated imports.
      * Node keys are a combination of a uniqueness constraint and en existence constraint, so can also be used.
      * The constraint should not be composite.
+     * Each label set is checked once per import.
      */
     private void checkUniquenessConstraints(List<String> labels) {
-        if (labels.isEmpty()) {
+        if (labels.isEmpty() || checkedLabels.contains(labels)) {
             return;
         }
         try (final Transaction tx = db.beginTx()) {
@@ -204,6 +238,7 @@ public class JsonImporter implements Closeable {
                         String.format(MISSING_CONSTRAINT_ERROR_MSG, missingConstraint, importIdName));
             }
         }
+        checkedLabels.add(labels);
     }
 
     private void updateReporter(String type, Map<String, Object> properties) {
@@ -340,31 +375,96 @@ public class JsonImporter implements Closeable {
     private void write(List<Map<String, Object>> resultList) {
         if (resultList.isEmpty()) return;
         final String type = (String) resultList.get(0).get("type");
-        String query;
+        final String query = query(type, lastLabels, lastRelTypes);
+        if (StringUtils.isNotBlank(query)) {
+            db.executeTransactionally(query, Collections.singletonMap("rows", resultList));
+        }
+    }
+
+    private String query(String type, List<String> labels, Map<String, Object> relType) {
         switch (type) {
             case "node":
                 final String importId = importJsonConfig.isCleanup()
                         ? StringUtils.EMPTY
                         : importJsonConfig.getImportIdName() + ": row.id";
-                query = String.format(CREATE_NODE, getLabelString(lastLabels), importId);
-                break;
+                return String.format(CREATE_NODE, getLabelString(labels), importId);
             case "relationship":
-                String rel = (String) lastRelTypes.get("label");
-                query = String.format(
+                String rel = (String) relType.get("label");
+                return String.format(
                         CREATE_RELS,
-                        getLabelString((List<String>) lastRelTypes.get("start")),
+                        getLabelString((List<String>) relType.get("start")),
                         importJsonConfig.getImportIdName(),
-                        getLabelString((List<String>) lastRelTypes.get("end")),
+                        getLabelString((List<String>) relType.get("end")),
                         rel);
-                break;
             default:
                 throw new IllegalArgumentException("Current type not supported: " + type);
         }
-        if (StringUtils.isNotBlank(query)) {
-            db.executeTransactionally(query, Collections.singletonMap("rows", resultList));
+    }
+
+    /**
+     * Buffers the row with the other ones of its label set or relationship type,
+     * a group is written once it reaches the unwindBatchSize, or once it's the biggest one and the txBatchSize rows
+     * are buffered overall
+     */
+    private void group(String type, Map<String, Object> param) {
+        final Group group = "node".equals(type)
+                ? new Group(type, lastLabels, null)
+                : new Group(type, null, lastRelTypes);
+        final List<Map<String, Object>> rows = groups.computeIfAbsent(group, k -> new ArrayList<>());
+        rows.add(param);
+        groupedRows++;
+        if (rows.size() >= unwindBatchSize) {
+            submit(group);
+        } else if (groupedRows >= txBatchSize) {
+            submit(Collections.max(groups.entrySet(), Comparator.comparingInt(e -> e.getValue().size())).getKey());
         }
     }
 
+    private void submit(Group group) {
+        final List<Map<String, Object>> rows = groups.remove(group);
+        groupedRows -= rows.size();
+        if ("relationship".equals(group.type())) {
+            // the relationships have to find the nodes of all the rows before them
+            submitAll("node");
+            if (nodesPending) {
+                lanes.awaitAll();
+                nodesPending = false;
+            }
+        } else {
+            nodesPending = true;
+        }
+        final String query = query(group.type(), group.labels(), group.relType());
+        lanes.submit(nextLane, () -> writeWithRetries(query, rows));
+        nextLane = (nextLane + 1) % lanes.size();
+    }
+
+    private void submitAll(String type) {
+        for (Group group : new ArrayList<>(groups.keySet())) {
+            if (type.equals(group.type())) {
+                submit(group);
+            }
+        }
+    }
+
+    private void writeWithRetries(String query, List<Map<String, Object>> rows) {
+        for (int attempt = 1; ; attempt++) {
+            try (Transaction tx = db.beginTx()) {
+                tx.execute(query, Collections.singletonMap("rows", rows)).close();
+                tx.commit();
+                return;
+            } catch (TransientFailureException | QueryExecutionException e) {
+                if (attempt >= MAX_RETRIES || !isTransient(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientFailureException
+                || ((QueryExecutionException) e).getStatusCode().startsWith("Neo.TransientError");
+    }
+
     private Collection<List<Map<String, Object>>> chunkData() {
         AtomicInteger chunkCounter = new AtomicInteger(0);
         return paramList.stream()
@@ -374,10 +474,23 @@ public class JsonImporter implements Closeable {
 
     @Override
     public void close() {
-        flush();
+        if (lanes != null) {
+            submitAll("node");
+            submitAll("relationship");
+            lanes.awaitAll();
+        } else {
+            flush();
+        }
         reporter.done();
     }
 
+    private void flushOnChange() {
+        // the grouped rows don't depend on the order of the file
+        if (lanes == null) {
+            flush();
+        }
+    }
+
     private void flush() {
         if (!paramList.isEmpty()) {
             final Collection<List<Map<String, Object>>> results = chunkData();
@@ -24,33 +24,55 @@ import apoc.util.JsonUtil;
 import apoc.util.Util;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
 import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntervalMonthDayNanoVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.holders.NullableIntervalMonthDayNanoHolder;
 import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
 import org.apache.arrow.vector.util.Text;
 import org.neo4j.graphdb.security.URLAccessChecker;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
+import org.neo4j.values.storable.DurationValue;
 import org.neo4j.values.storable.Values;
 
 public class LoadArrow {
@@ -58,44 +80,123 @@ public class LoadArrow {
     @Context
     public URLAccessChecker urlAccessChecker;
 
+    private interface ColumnReader {
+        Object read(int index);
+    }
+
     private static class ArrowSpliterator extends Spliterators.AbstractSpliterator<MapResult> {
 
         private final ArrowReader reader;
         private final VectorSchemaRoot schemaRoot;
-        private final AtomicInteger counter;
+        private final boolean batch;
+        private List<FieldVector> vectors = List.of();
+        private String[] names = new String[0];
+        private ColumnReader[] columns = new ColumnReader[0];
+        private int rowCount;
+        private int index;
 
-        public ArrowSpliterator(ArrowReader reader, VectorSchemaRoot schemaRoot) throws IOException {
+        public ArrowSpliterator(ArrowReader reader, VectorSchemaRoot schemaRoot, boolean batch) {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
             this.reader = reader;
             this.schemaRoot = schemaRoot;
-            this.counter = new AtomicInteger();
-            this.reader.loadNextBatch();
+            this.batch = batch;
         }
 
         @Override
-        public synchronized boolean tryAdvance(Consumer<? super MapResult> action) {
+        public boolean tryAdvance(Consumer<? super MapResult> action) {
             try {
-                if (counter.get() >= schemaRoot.getRowCount()) {
-                    if (reader.loadNextBatch()) {
-                        counter.set(0);
-                    } else {
+                if (batch) {
+                    if (!loadNextBatch()) {
                         return false;
                     }
+                    action.accept(new MapResult(readColumns()));
+                    return true;
                 }
-                final Map<String, Object> row = schemaRoot.getFieldVectors().stream()
-                        .collect(
-                                HashMap::new,
-                                (map, fieldVector) -> map.put(fieldVector.getName(), read(fieldVector, counter.get())),
-                                HashMap::putAll); // please look at https://bugs.openjdk.java.net/browse/JDK-8148463
-                counter.incrementAndGet();
+                while (index >= rowCount) {
+                    if (!loadNextBatch()) {
+                        return false;
+                    }
+                }
+                final Map<String, Object> row = new HashMap<>(names.length * 4 / 3 + 1);
+                for (int i = 0; i < columns.length; i++) {
+                    row.put(names[i], columns[i].read(index));
+                }
+                ++index;
                 action.accept(new MapResult(row));
                 return true;
-            } catch (Exception e) {
+            } catch (IOException e) {
+                throw new RuntimeException("Error while reading the Arrow data", e);
+            }
+        }
+
+        /**
+         * Loads the next record batch, and resolves the readers of its columns once for all its rows
+         */
+        private boolean loadNextBatch() throws IOException {
+            if (!reader.loadNextBatch()) {
                 return false;
             }
+            vectors = schemaRoot.getFieldVectors();
+            names = new String[vectors.size()];
+            columns = new ColumnReader[vectors.size()];
+            for (int i = 0; i < vectors.size(); i++) {
+                names[i] = vectors.get(i).getName();
+                columns[i] = readerFor(vectors.get(i), reader);
+            }
+            rowCount = schemaRoot.getRowCount();
+            index = 0;
+            return true;
+        }
+
+        private Map<String, Object> readColumns() {
+            final Map<String, Object> map = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int i = 0; i < columns.length; i++) {
+                map.put(names[i], readColumn(vectors.get(i), columns[i], rowCount));
+            }
+            return map;
         }
     }
 
+    /**
+     * Returns the whole column, as a primitive array when it holds numbers or booleans without nulls,
+     * so that they are not boxed one by one.
+     */
+    private static Object readColumn(FieldVector fieldVector, ColumnReader reader, int rowCount) {
+        if (fieldVector.getNullCount() == 0 && fieldVector.getField().getDictionary() == null) {
+            if (fieldVector instanceof BigIntVector) {
+                final long[] values = new long[rowCount];
+                fieldVector
+                        .getDataBuffer()
+                        .nioBuffer(0, rowCount * BigIntVector.TYPE_WIDTH)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asLongBuffer()
+                        .get(values);
+                return values;
+            } else if (fieldVector instanceof Float8Vector) {
+                final double[] values = new double[rowCount];
+                fieldVector
+                        .getDataBuffer()
+                        .nioBuffer(0, rowCount * Float8Vector.TYPE_WIDTH)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer()
+                        .get(values);
+                return values;
+            } else if (fieldVector instanceof BitVector) {
+                final BitVector fe = (BitVector) fieldVector;
+                final boolean[] values = new boolean[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = fe.get(i) == 1;
+                }
+                return values;
+            }
+        }
+        final List<Object> values = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            values.add(reader.read(i));
+        }
+        return values;
+    }
+
     @Procedure(name = "apoc.load.arrow.stream")
     @Description("Imports `NODE` and `RELATIONSHIP` values from the provided arrow byte array.")
     public Stream<MapResult> stream(
@@ -105,12 +206,12 @@ public class LoadArrow {
         ByteArrayInputStream inputStream = new ByteArrayInputStream(source);
         ArrowStreamReader streamReader = new ArrowStreamReader(inputStream, allocator);
         VectorSchemaRoot schemaRoot = streamReader.getVectorSchemaRoot();
-        return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot), false)
+        return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot, isBatch(config)), false)
                 .onClose(() -> {
-                    Util.close(allocator);
                     Util.close(streamReader);
                     Util.close(schemaRoot);
                     Util.close(inputStream);
+                    Util.close(allocator);
                 });
     }
 
@@ -119,33 +220,102 @@ public class LoadArrow {
     public Stream<MapResult> file(
             @Name("file") String fileName, @Name(value = "config", defaultValue = "{}") Map<String, Object> config)
             throws IOException {
-        final SeekableByteChannel channel = FileUtils.inputStreamFor(fileName, null, null, null, urlAccessChecker)
-                .asChannel();
+        // the local files are read straight into the Arrow buffers, the other ones are read in memory first
+        final SeekableByteChannel fileChannel = FileUtils.fileChannelFor(fileName, urlAccessChecker);
+        final SeekableByteChannel channel = fileChannel != null
+                ? fileChannel
+                : FileUtils.inputStreamFor(fileName, null, null, null, urlAccessChecker).asChannel();
         RootAllocator allocator = new RootAllocator();
         ArrowFileReader streamReader = new ArrowFileReader(channel, allocator);
         VectorSchemaRoot schemaRoot = streamReader.getVectorSchemaRoot();
-        return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot), false)
+        return StreamSupport.stream(new ArrowSpliterator(streamReader, schemaRoot, isBatch(config)), false)
                 .onClose(() -> {
-                    Util.close(allocator);
                     Util.close(streamReader);
                     Util.close(schemaRoot);
                     Util.close(channel);
+                    Util.close(allocator);
                 });
     }
 
-    private static Object read(FieldVector fieldVector, int index) {
-        if (fieldVector.isNull(index)) {
-            return null;
+    private static boolean isBatch(Map<String, Object> config) {
+        return config != null && Util.toBoolean(config.getOrDefault("batch", false));
+    }
+
+    private static ColumnReader readerFor(FieldVector fieldVector, DictionaryProvider dictionaries) {
+        final DictionaryEncoding encoding = fieldVector.getField().getDictionary();
+        final ColumnReader reader;
+        if (encoding != null) {
+            // e.g. the labels and the relationship types exported with `typed: true`
+            final BaseIntVector indexes = (BaseIntVector) fieldVector;
+            final ColumnReader values = readerFor(dictionaries.lookup(encoding.getId()).getVector(), dictionaries);
+            reader = index -> values.read((int) indexes.getValueAsLong(index));
         } else if (fieldVector instanceof DateMilliVector) {
             DateMilliVector fe = (DateMilliVector) fieldVector;
-            return Instant.ofEpochMilli(fe.get(index)).atOffset(ZoneOffset.UTC);
+            reader = index -> Instant.ofEpochMilli(fe.get(index)).atOffset(ZoneOffset.UTC);
         } else if (fieldVector instanceof BitVector) {
             BitVector fe = (BitVector) fieldVector;
-            return fe.get(index) == 1;
+            reader = index -> fe.get(index) == 1;
+        } else if (fieldVector instanceof BigIntVector) {
+            BigIntVector fe = (BigIntVector) fieldVector;
+            reader = fe::get;
+        } else if (fieldVector instanceof Float8Vector) {
+            Float8Vector fe = (Float8Vector) fieldVector;
+            reader = fe::get;
+        } else if (fieldVector instanceof VarCharVector) {
+            VarCharVector fe = (VarCharVector) fieldVector;
+            reader = index -> new String(fe.get(index), StandardCharsets.UTF_8);
+        } else if (fieldVector instanceof ListVector) {
+            ListVector fe = (ListVector) fieldVector;
+            final ColumnReader elements = readerFor(fe.getDataVector(), dictionaries);
+            reader = index -> {
+                final int start = fe.getOffsetBuffer().getInt((long) index * ListVector.OFFSET_WIDTH);
+                final int end = fe.getOffsetBuffer().getInt((long) (index + 1) * ListVector.OFFSET_WIDTH);
+                final List<Object> list = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    list.add(elements.read(i));
+                }
+                return list;
+            };
+        } else if (fieldVector instanceof StructVector) {
+            StructVector fe = (StructVector) fieldVector;
+            final List<FieldVector> children = fe.getChildrenFromFields();
+            final List<ColumnReader> childReaders = new ArrayList<>(children.size());
+            children.forEach(child -> childReaders.add(readerFor(child, dictionaries)));
+            reader = index -> {
+                final Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < children.size(); i++) {
+                    map.put(children.get(i).getName(), childReaders.get(i).read(index));
+                }
+                return map;
+            };
+        } else if (fieldVector instanceof TimeStampMicroTZVector) {
+            TimeStampMicroTZVector fe = (TimeStampMicroTZVector) fieldVector;
+            reader = index -> Instant.EPOCH.plus(fe.get(index), ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+        } else if (fieldVector instanceof TimeStampMicroVector) {
+            TimeStampMicroVector fe = (TimeStampMicroVector) fieldVector;
+            reader = index ->
+                    LocalDateTime.ofInstant(Instant.EPOCH.plus(fe.get(index), ChronoUnit.MICROS), ZoneOffset.UTC);
+        } else if (fieldVector instanceof DateDayVector) {
+            DateDayVector fe = (DateDayVector) fieldVector;
+            reader = index -> LocalDate.ofEpochDay(fe.get(index));
+        } else if (fieldVector instanceof TimeNanoVector) {
+            TimeNanoVector fe = (TimeNanoVector) fieldVector;
+            reader = index -> LocalTime.ofNanoOfDay(fe.get(index));
+        } else if (fieldVector instanceof IntervalMonthDayNanoVector) {
+            IntervalMonthDayNanoVector fe = (IntervalMonthDayNanoVector) fieldVector;
+            reader = index -> {
+                final NullableIntervalMonthDayNanoHolder holder = new NullableIntervalMonthDayNanoHolder();
+                fe.get(index, holder);
+                return DurationValue.duration(
+                        holder.months,
+                        holder.days,
+                        Math.floorDiv(holder.nanoseconds, 1_000_000_000L),
+                        Math.floorMod(holder.nanoseconds, 1_000_000_000L));
+            };
         } else {
-            Object object = fieldVector.getObject(index);
-            return getObject(object);
+            reader = index -> getObject(fieldVector.getObject(index));
         }
+        return index -> fieldVector.isNull(index) ? null : reader.read(index);
     }
 
     private static Object getObject(Object object) {
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.load;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang3.StringUtils;
+import org.neo4j.procedure.TerminationGuard;
+
+/**
+ * A subset of XPath that can be evaluated on an {@link XMLStreamReader}, without building the DOM of the document:
+ * <ul>
+ *     <li>child steps, e.g. `/catalog/book`</li>
+ *     <li>descendant steps, e.g. `//book` or `/catalog//author`</li>
+ *     <li>the `*` wildcard, e.g. `/catalog/*`</li>
+ *     <li>attribute predicates, e.g. `book[@id]`, `book[@id='bk101']` or `book[@id!='bk101']`</li>
+ * </ul>
+ * Each matching element is converted to the same map of apoc.load.xml, and emitted as soon as it's closed.
+ * So a match nested in another one is emitted before the enclosing one, unlike the document order of XPath.
+ */
+class StreamingXPath {
+    private static final int MAX_STEPS = 63;
+    // the elements outside the matching subtrees are not converted
+    private static final Frame SKIPPED = new Frame(null, false);
+
+    private final List<Step> steps;
+
+    private StreamingXPath(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Compiles the path, throws an {@link IllegalArgumentException} if it's not in the supported subset of XPath
+     */
+    static StreamingXPath compile(String path) {
+        String trimmed = path.trim();
+        if (trimmed.equals("/")) {
+            // the document, i.e. its root element
+            return new StreamingXPath(List.of(new Step("*", false, List.of())));
+        }
+        List<Step> steps = new ArrayList<>();
+        int i = 0;
+        while (i < trimmed.length()) {
+            boolean descendant = false;
+            if (trimmed.startsWith("//", i)) {
+                descendant = true;
+                i += 2;
+            } else if (trimmed.charAt(i) == '/') {
+                i++;
+            } else if (i > 0) {
+                throw unsupported(path);
+            }
+            int start = i;
+            while (i < trimmed.length() && isNameChar(trimmed.charAt(i))) i++;
+            String name = trimmed.substring(start, i);
+            if (name.isEmpty() || (!name.equals("*") && name.contains("*"))) {
+                throw unsupported(path);
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            while (i < trimmed.length() && trimmed.charAt(i) == '[') {
+                int end = trimmed.indexOf(']', i);
+                if (end < 0) throw unsupported(path);
+                predicates.add(Predicate.parse(trimmed.substring(i + 1, end), path));
+                i = end + 1;
+            }
+            steps.add(new Step(name, descendant, predicates));
+        }
+        if (steps.isEmpty() || steps.size() > MAX_STEPS) {
+            throw unsupported(path);
+        }
+        return new StreamingXPath(steps);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '*';
+    }
+
+    private static IllegalArgumentException unsupported(String path) {
+        return new IllegalArgumentException("The path `" + path + "` is not supported in streaming mode, "
+                + "which supports only child steps, e.g. `/a/b`, descendant steps, e.g. `//b`, the `*` wildcard "
+                + "and attribute predicates, e.g. `b[@id]` or `b[@id='value']`");
+    }
+
+    Stream<Map<String, Object>> stream(
+            XMLStreamReader reader, boolean simpleMode, boolean failOnError, TerminationGuard terminationGuard) {
+        Evaluation evaluation = new Evaluation(reader, simpleMode, failOnError, terminationGuard);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(evaluation, Spliterator.ORDERED), false);
+    }
+
+    private record Step(String name, boolean descendant, List<Predicate> predicates) {
+
+        boolean matches(XMLStreamReader reader) {
+            if (!name.equals("*")
+                    && !(name.equals(reader.getLocalName()) && StringUtils.isEmpty(reader.getNamespaceURI()))) {
+                return false;
+            }
+            for (Predicate predicate : predicates) {
+                if (!predicate.matches(reader)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * `@name`, `@name='value'` or `@name!='value'`
+     */
+    private record Predicate(String attribute, String value, boolean negated) {
+
+        static Predicate parse(String predicate, String path) {
+            String trimmed = predicate.trim();
+            if (!trimmed.startsWith("@")) throw unsupported(path);
+            int operator = trimmed.indexOf('=');
+            if (operator < 0) {
+                return new Predicate(checkName(trimmed.substring(1).trim(), path), null, false);
+            }
+            boolean negated = trimmed.charAt(operator - 1) == '!';
+            String attribute = trimmed.substring(1, negated ? operator - 1 : operator).trim();
+            String literal = trimmed.substring(operator + 1).trim();
+            if (literal.length() < 2
+                    || literal.charAt(0) != literal.charAt(literal.length() - 1)
+                    || (literal.charAt(0) != '\'' && literal.charAt(0) != '"')) {
+                throw unsupported(path);
+            }
+            return new Predicate(checkName(attribute, path), literal.substring(1, literal.length() - 1), negated);
+        }
+
+        private static String checkName(String name, String path) {
+            if (name.isEmpty() || !name.chars().allMatch(c -> isNameChar((char) c) && c != '*')) {
+                throw unsupported(path);
+            }
+            return name;
+        }
+
+        boolean matches(XMLStreamReader reader) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (attribute.equals(reader.getAttributeLocalName(i))
+                        && StringUtils.isEmpty(reader.getAttributeNamespace(i))) {
+                    return value == null || value.equals(reader.getAttributeValue(i)) != negated;
+                }
+            }
+            // as in XPath, a comparison with a missing attribute is false
+            return false;
+        }
+    }
+
+    /**
+     * An open element of a matching subtree, with its text not yet added to the map
+     */
+    private static class Frame {
+        private final String name;
+        private final boolean match;
+        private final Map<String, Object> map = new LinkedHashMap<>();
+        private final List<Object> children = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        Frame(String name, boolean match) {
+            this.name = name;
+            this.match = match;
+        }
+
+        void flushText() {
+            if (text.isEmpty()) return;
+            Xml.addText(Xml.normalizeText(text.toString()), map);
+            text.setLength(0);
+        }
+    }
+
+    private class Evaluation implements Iterator<Map<String, Object>> {
+        private final XMLStreamReader reader;
+        private final boolean simpleMode;
+        private final boolean failOnError;
+        private final TerminationGuard terminationGuard;
+
+        // for each open element, the bit k is set if its ancestors matched the first k steps
+        private final Deque<Long> states = new ArrayDeque<>();
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Deque<Map<String, Object>> ready = new ArrayDeque<>();
+        private boolean finished;
+
+        Evaluation(XMLStreamReader reader, boolean simpleMode, boolean failOnError, TerminationGuard guard) {
+            this.reader = reader;
+            this.simpleMode = simpleMode;
+            this.failOnError = failOnError;
+            this.terminationGuard = guard;
+            states.push(1L);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty() && !finished) {
+                try {
+                    if (!reader.hasNext()) {
+                        finished = true;
+                        break;
+                    }
+                    terminationGuard.check();
+                    handle(reader.next());
+                } catch (XMLStreamException | RuntimeException e) {
+                    finished = true;
+                    if (failOnError) {
+                        throw e instanceof RuntimeException runtime ? runtime : new RuntimeException(e);
+                    }
+                    ready.add(Collections.emptyMap());
+                }
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return ready.poll();
+        }
+
+        private void handle(int event) {
+            switch (event) {
+                case XMLStreamConstants.DTD -> throw Xml.generateXmlDoctypeException();
+                case XMLStreamConstants.START_ELEMENT -> startElement();
+                case XMLStreamConstants.END_ELEMENT -> endElement();
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    Frame frame = frames.peek();
+                    if (frame != null && frame != SKIPPED) {
+                        frame.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                    // as in the DOM, they split the text in different text nodes
+                    Frame frame = frames.peek();
+                    if (frame != null && frame != SKIPPED) frame.flushText();
+                }
+                default -> {}
+            }
+        }
+
+        private void startElement() {
+            long parentStates = states.peek();
+            long elementStates = 0;
+            for (int k = 0; k < steps.size(); k++) {
+                if ((parentStates & (1L << k)) == 0) continue;
+                Step step = steps.get(k);
+                if (step.matches(reader)) elementStates |= 1L << (k + 1);
+                // a descendant step can still match a deeper element
+                if (step.descendant()) elementStates |= 1L << k;
+            }
+            states.push(elementStates);
+
+            Frame parent = frames.peek();
+            boolean match = (elementStates & (1L << steps.size())) != 0;
+            if (!match && (parent == null || parent == SKIPPED)) {
+                frames.push(SKIPPED);
+                return;
+            }
+            if (parent != null && parent != SKIPPED) parent.flushText();
+            Frame frame = new Frame(reader.getLocalName(), match);
+            frame.map.put("_type", reader.getLocalName());
+            addAttributes(frame.map);
+            frames.push(frame);
+        }
+
+        private void addAttributes(Map<String, Object> map) {
+            int namespaces = reader.getNamespaceCount();
+            int attributes = reader.getAttributeCount();
+            if (namespaces + attributes == 0) return;
+            // as the ones of a DOM element, sorted by name and including the namespace declarations
+            Map<String, Object> sorted = new TreeMap<>();
+            for (int i = 0; i < namespaces; i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                sorted.put(StringUtils.isEmpty(prefix) ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < attributes; i++) {
+                String prefix = reader.getAttributePrefix(i);
+                String localName = reader.getAttributeLocalName(i);
+                String name = StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName;
+                sorted.put(name, reader.getAttributeValue(i));
+            }
+            map.putAll(sorted);
+        }
+
+        private void endElement() {
+            states.pop();
+            Frame frame = frames.pop();
+            if (frame == SKIPPED) return;
+            frame.flushText();
+            Map<String, Object> map = frame.map;
+            if (!frame.children.isEmpty()) {
+                List<Object> children = frame.children;
+                // Before adding the children we need to handle mixed text
+                Object text = map.get("_text");
+                if (text instanceof List<?> texts) {
+                    children.addAll(texts);
+                    map.remove("_text");
+                }
+                map.put(simpleMode ? "_" + frame.name : "_children", children);
+            }
+            Frame parent = frames.peek();
+            if (parent != null && parent != SKIPPED) parent.children.add(map);
+            if (frame.match) ready.add(map);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import apoc.util.CompressionAlgo;
 import apoc.util.CompressionConfig;
 import apoc.util.FileUtils;
 import apoc.util.StreamConnection;
+import apoc.util.Util;
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -149,6 +150,9 @@ public class Xml {
                     null,
                     (String) config.getOrDefault(COMPRESSION, CompressionAlgo.NONE.name()),
                     urlAccessChecker);
+            if (Util.toBoolean(config.get("streaming"))) {
+                return parseStreaming(is, simpleMode, path, failOnError);
+            }
             return parse(is, simpleMode, path, failOnError);
         } catch (Exception e) {
             if (!failOnError) return Stream.of(new MapResult(Collections.emptyMap()));
@@ -196,6 +200,26 @@ public class Xml {
         return result.stream();
     }
 
+    /**
+     * Streams the elements matching a subset of XPath, see {@link StreamingXPath}, each one as soon as it's closed,
+     * so that only the open elements and the matching subtrees are kept in memory instead of the whole DOM
+     */
+    private Stream<MapResult> parseStreaming(InputStream data, boolean simpleMode, String path, boolean failOnError)
+            throws XMLStreamException {
+        StreamingXPath xPath = StreamingXPath.compile(StringUtils.isEmpty(path) ? "/" : path);
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(data);
+        return xPath.stream(reader, simpleMode, failOnError, terminationGuard)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                        data.close();
+                    } catch (XMLStreamException | IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .map(MapResult::new);
+    }
+
     private XMLStreamReader getXMLStreamReader(
             Object urlOrBinary, XmlImportConfig config, URLAccessChecker urlAccessChecker)
             throws IOException, XMLStreamException {
@@ -321,7 +345,16 @@ public class Xml {
             default:
                 break;
         }
+        addText(text, elementMap);
+    }
 
+    /**
+     * Adds the normalized text of a text node to the element, as `_text`
+     *
+     * @param text
+     * @param elementMap
+     */
+    static void addText(Object text, Map<String, Object> elementMap) {
         // If the text is valid ...
         if (!StringUtils.isEmpty(text.toString())) {
             // We check if we have already collected some text previously
@@ -340,7 +373,7 @@ public class Xml {
      * @param text
      * @return
      */
-    private String normalizeText(String text) {
+    static String normalizeText(String text) {
         String[] tokens = StringUtils.split(text, "\n");
         for (int i = 0; i < tokens.length; i++) {
             tokens[i] = tokens[i].trim();
@@ -641,7 +674,7 @@ public class Xml {
         }
     }
 
-    private RuntimeException generateXmlDoctypeException() {
+    static RuntimeException generateXmlDoctypeException() {
         throw new RuntimeException("XML documents with a DOCTYPE are not allowed.");
     }
 }
@@ -23,6 +23,7 @@ import static java.lang.String.format;
 import static org.neo4j.internal.kernel.api.TokenRead.ANY_LABEL;
 import static org.neo4j.internal.kernel.api.TokenRead.ANY_RELATIONSHIP_TYPE;
 
+import apoc.Pools;
 import apoc.export.util.NodesAndRelsSubGraph;
 import apoc.result.GraphResult;
 import apoc.result.MapResult;
@@ -48,7 +49,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -58,6 +64,7 @@ import org.neo4j.cypher.export.DatabaseSubGraph;
 import org.neo4j.cypher.export.SubGraph;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
@@ -72,6 +79,8 @@ import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.TokenRead;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
@@ -87,6 +96,16 @@ import org.neo4j.procedure.UserFunction;
 public class Meta {
     private record MetadataKey(Types type, String key) {}
 
+    private record ConstraintInfo(ConstraintType type, List<String> keys) {}
+
+    private record LabelTask(
+            Label label, List<ConstraintInfo> constraints, Set<String> indexed, long count, long sample) {}
+
+    private record LabelStats(long count, long[] out, long[] in) {}
+
+    // below this number of label x type pairs the count store is read by the calling thread only
+    private static final long PARALLEL_STATS_THRESHOLD = 10_000;
+
     @Context
     public Transaction tx;
 
@@ -99,6 +118,12 @@ public class Meta {
     @Context
     public Log log;
 
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public Pools pools;
+
     /**
      * Represents the result of a metadata operation.
      */
@@ -362,13 +387,18 @@ public class Meta {
         TokenRead tokenRead = kernelTx.tokenRead();
         Read read = kernelTx.dataRead();
 
-        long relTypeCount = Iterables.count(tx.getAllRelationshipTypesInUse());
-        long labelCount = Iterables.count(tx.getAllLabelsInUse());
+        List<String> labelNames =
+                Iterables.stream(tx.getAllLabelsInUse()).map(Label::name).toList();
+        List<String> typeNames = Iterables.stream(tx.getAllRelationshipTypesInUse())
+                .map(RelationshipType::name)
+                .toList();
+        long relTypeCount = typeNames.size();
+        long labelCount = labelNames.size();
 
         Map<String, Long> labelStats = new LinkedHashMap<>((int) labelCount);
         Map<String, Long> relStats = new LinkedHashMap<>(2 * (int) relTypeCount);
 
-        collectStats(DatabaseSubGraph.optimizedForCount(transaction, kernelTx), new StatsCallback() {
+        collectStats(labelNames, typeNames, new StatsCallback() {
             @Override
             public void label(String labelName, long count) {
                 if (count > 0) labelStats.put(labelName, count);
@@ -405,32 +435,95 @@ public class Meta {
     }
 
     /**
-     * Collects statistics about a subgraph of the database.
+     * Collects the count store statistics of the labels and relationship types in use.
+     * On big schemas the labels are split in chunks, whose label x type counts are read in parallel;
+     * the callback is always invoked by the calling thread, in the order of the labels and types.
      *
-     * @param subGraph      The subgraph to collect statistics for.
+     * @param labelNames    The labels in use.
+     * @param typeNames     The relationship types in use.
      * @param cb            The callback to receive the collected statistics.
      */
-    private void collectStats(SubGraph subGraph, StatsCallback cb) {
-
-        final var labels = subGraph.getAllLabelsInUse();
-        final var types = subGraph.getAllRelationshipTypesInUse();
+    private void collectStats(List<String> labelNames, List<String> typeNames, StatsCallback cb) {
+        TokenRead tokenRead = kernelTx.tokenRead();
+        int[] labelIds = labelNames.stream().mapToInt(tokenRead::nodeLabel).toArray();
+        int[] typeIds = typeNames.stream().mapToInt(tokenRead::relationshipType).toArray();
+
+        int chunkCount = (long) labelIds.length * typeIds.length < PARALLEL_STATS_THRESHOLD
+                ? 1
+                : Math.min(labelIds.length, Pools.DEFAULT_POOL_THREADS);
+        int chunkSize = Math.max(1, (labelIds.length + chunkCount - 1) / chunkCount);
+        List<int[]> chunks = new ArrayList<>(chunkCount);
+        for (int from = 0; from < labelIds.length; from += chunkSize) {
+            chunks.add(new int[] {from, Math.min(labelIds.length, from + chunkSize)});
+        }
 
-        labels.forEach(label -> {
-            long count = subGraph.countsForNode(label);
-            if (count > 0) {
-                String name = label.name();
-                cb.label(name, count);
-                types.forEach(type -> {
-                    long relCountOut = subGraph.countsForRelationship(label, type);
-                    long relCountIn = subGraph.countsForRelationship(type, label);
-                    cb.rel(type.name(), name, relCountOut, relCountIn);
-                });
+        List<List<LabelStats>> chunkStats = mapInParallel(chunks, (chunkTx, chunk) -> {
+            Read read = ((InternalTransaction) chunkTx).kernelTransaction().dataRead();
+            List<LabelStats> stats = new ArrayList<>(chunk[1] - chunk[0]);
+            for (int i = chunk[0]; i < chunk[1]; i++) {
+                long count = read.countsForNode(labelIds[i]);
+                long[] out = new long[typeIds.length];
+                long[] in = new long[typeIds.length];
+                if (count > 0) {
+                    for (int j = 0; j < typeIds.length; j++) {
+                        out[j] = read.countsForRelationship(labelIds[i], typeIds[j], ANY_LABEL);
+                        in[j] = read.countsForRelationship(ANY_LABEL, typeIds[j], labelIds[i]);
+                    }
+                }
+                stats.add(new LabelStats(count, out, in));
             }
+            return stats;
         });
-        types.forEach(type -> {
-            String name = type.name();
-            cb.rel(name, subGraph.countsForRelationship(type));
-        });
+
+        int i = 0;
+        for (List<LabelStats> stats : chunkStats) {
+            for (LabelStats labelStats : stats) {
+                String name = labelNames.get(i++);
+                if (labelStats.count() > 0) {
+                    cb.label(name, labelStats.count());
+                    for (int j = 0; j < typeIds.length; j++) {
+                        cb.rel(typeNames.get(j), name, labelStats.out()[j], labelStats.in()[j]);
+                    }
+                }
+            }
+        }
+        Read read = kernelTx.dataRead();
+        for (int j = 0; j < typeIds.length; j++) {
+            cb.rel(typeNames.get(j), read.countsForRelationship(ANY_LABEL, typeIds[j], ANY_LABEL));
+        }
+    }
+
+    /**
+     * Applies the function to each item in its own transaction, on the meta pool, and returns the results in order.
+     * When the current transaction has uncommitted changes, which wouldn't be visible to the other transactions,
+     * the items are processed serially in the current one.
+     */
+    private <I, T> List<T> mapInParallel(List<I> items, BiFunction<Transaction, I, T> function) {
+        if (items.size() < 2 || !(kernelTx instanceof TxStateHolder holder) || holder.hasTxStateWithChanges()) {
+            return items.stream().map(item -> function.apply(tx, item)).toList();
+        }
+        List<Future<T>> futures = new ArrayList<>(items.size());
+        try {
+            for (I item : items) {
+                futures.add(pools.getExecutorService(Pools.Workload.META).submit(() -> {
+                    try (Transaction itemTx = db.beginTx()) {
+                        return function.apply(itemTx, item);
+                    }
+                }));
+            }
+            List<T> results = new ArrayList<>(items.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while collecting the metadata", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while collecting the metadata: " + e.getCause().getMessage(), e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
     }
 
     @NotThreadSafe
@@ -458,7 +551,7 @@ public class Meta {
         } else {
             throw new IllegalArgumentException("Supported inputs are String, VirtualGraph, Map");
         }
-        return collectMetaData(subGraph, metaConfig.getSampleMetaConfig()).values().stream()
+        return collectMetaData(subGraph, metaConfig.getSampleMetaConfig(), false).values().stream()
                 .flatMap(x -> x.values().stream());
     }
 
@@ -469,7 +562,9 @@ public class Meta {
     @Description("Examines the full graph and returns a table of metadata.")
     public Stream<MetaResult> data(@Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
         SampleMetaConfig metaConfig = new SampleMetaConfig(config);
-        return collectMetaData(DatabaseSubGraph.optimizedForCount(transaction, kernelTx), metaConfig).values().stream()
+        return collectMetaData(DatabaseSubGraph.optimizedForCount(transaction, kernelTx), metaConfig, true)
+                .values()
+                .stream()
                 .flatMap(x -> x.values().stream());
     }
 
@@ -480,7 +575,7 @@ public class Meta {
         MetaStats metaStats = collectStats();
         SampleMetaConfig metaConfig = new SampleMetaConfig(config);
         Map<MetadataKey, Map<String, MetaItem>> metaData =
-                collectMetaData(DatabaseSubGraph.optimizedForCount(transaction, kernelTx), metaConfig);
+                collectMetaData(DatabaseSubGraph.optimizedForCount(transaction, kernelTx), metaConfig, true);
 
         Map<String, Object> relationships = collectRelationshipsMetaData(metaStats, metaData);
         Map<String, Object> nodes = collectNodesMetaData(metaStats, metaData, relationships);
@@ -547,29 +642,15 @@ public class Meta {
      * Tables4LabelsProfile object.
      */
     private Tables4LabelsProfile collectTables4LabelsProfile(MetaConfig config) {
-        Tables4LabelsProfile profile = new Tables4LabelsProfile();
-
         // Collect constraints from the schema
+        ConstraintTracker constraintTracker = new ConstraintTracker();
         Schema schema = tx.schema();
 
         for (ConstraintDefinition cd : schema.getConstraints()) {
             if (cd.isConstraintType(ConstraintType.NODE_PROPERTY_EXISTENCE)) {
-                List<String> props = new ArrayList<>(10);
-                if (ConstraintTracker.nodeConstraints.containsKey(cd.getLabel().name())) {
-                    props = ConstraintTracker.nodeConstraints.get(cd.getLabel().name());
-                }
-                cd.getPropertyKeys().forEach(props::add);
-                ConstraintTracker.nodeConstraints.put(cd.getLabel().name(), props);
-
+                constraintTracker.addNodeConstraint(cd.getLabel().name(), cd.getPropertyKeys());
             } else if (cd.isConstraintType(ConstraintType.RELATIONSHIP_PROPERTY_EXISTENCE)) {
-                List<String> props = new ArrayList<>(10);
-                if (ConstraintTracker.relConstraints.containsKey(
-                        cd.getRelationshipType().name())) {
-                    props = ConstraintTracker.relConstraints.get(
-                            cd.getRelationshipType().name());
-                }
-                cd.getPropertyKeys().forEach(props::add);
-                ConstraintTracker.relConstraints.put(cd.getRelationshipType().name(), props);
+                constraintTracker.addRelConstraint(cd.getRelationshipType().name(), cd.getPropertyKeys());
             }
         }
 
@@ -582,43 +663,47 @@ public class Meta {
         Set<String> includeRels = config.getIncludeRels();
         Set<String> excludeRels = config.getExcludeRels();
 
-        // Iterate over labels in the graph
-        for (Label label : tx.getAllLabelsInUse()) {
-            String labelName = label.name();
-
-            if (!excludeLabels.contains(labelName) && (includeLabels.isEmpty() || includeLabels.contains(labelName))) {
-                // Skip if explicitly excluded or at least 1 include specified and not included
-
-                long labelCount = countStore.get(labelName);
-                long sample = getSampleForLabelCount(labelCount, config.getSample());
-
-                try (ResourceIterator<Node> nodes = tx.findNodes(label)) {
-                    int count = 1;
-                    while (nodes.hasNext()) {
-                        Node node = nodes.next();
-                        if (count++ % sample == 0) {
-                            final Set<Boolean> skips = StreamSupport
-                                    // we analyze the node for each its relationship type
-                                    .stream(node.getRelationshipTypes().spliterator(), false)
-                                    .map(rel -> excludeRels.contains(
-                                                    rel.name()) // we skip a node when the user said that must be
-                                            // excluded
-                                            // or when the user provided and inclusion list, but it's not in the
-                                            // provided list
-                                            || (!includeRels.isEmpty() && !includeRels.contains(rel.name())))
-                                    .collect(Collectors.toSet());
-                            // if the Set has just one element and is true we skip the node
-                            // if there are two elements [true, false] we don't skip it as give it means that
-                            // it have a relationship that satisfies the condition provided
-                            // by the configuration
-                            if (skips.size() == 1 && skips.iterator().next()) continue;
-                            profile.observe(node, config);
-                        }
-                    }
+        // Skip if explicitly excluded or at least 1 include specified and not included
+        List<Label> labels = Iterables.stream(tx.getAllLabelsInUse())
+                .filter(label -> !excludeLabels.contains(label.name())
+                        && (includeLabels.isEmpty() || includeLabels.contains(label.name())))
+                .toList();
+
+        // Each label is profiled on its own, and the profiles are merged in the order of the labels.
+        // The relationships sampled so far are counted across all of them, so that maxRels bounds the whole call
+        Map<String, AtomicLong> sampledRels = new ConcurrentHashMap<>();
+        List<Tables4LabelsProfile> labelProfiles = mapInParallel(labels, (labelTx, label) -> {
+            Tables4LabelsProfile labelProfile = new Tables4LabelsProfile(constraintTracker, sampledRels);
+            long labelCount = countStore.get(label.name());
+            long sample = getSampleForLabelCount(labelCount, config.getSample());
+
+            try (ResourceIterator<Node> nodes =
+                    NodeSampler.findNodes(labelTx, label, labelCount, sample, config.isPartitionedSampling())) {
+                while (nodes.hasNext()) {
+                    Node node = nodes.next();
+                    final Set<Boolean> skips = StreamSupport
+                            // we analyze the node for each its relationship type
+                            .stream(node.getRelationshipTypes().spliterator(), false)
+                            .map(rel -> excludeRels.contains(
+                                            rel.name()) // we skip a node when the user said that must be
+                                    // excluded
+                                    // or when the user provided and inclusion list, but it's not in the
+                                    // provided list
+                                    || (!includeRels.isEmpty() && !includeRels.contains(rel.name())))
+                            .collect(Collectors.toSet());
+                    // if the Set has just one element and is true we skip the node
+                    // if there are two elements [true, false] we don't skip it as give it means that
+                    // it have a relationship that satisfies the condition provided
+                    // by the configuration
+                    if (skips.size() == 1 && skips.iterator().next()) continue;
+                    labelProfile.observe(node, config);
                 }
             }
-        }
+            return labelProfile;
+        });
 
+        Tables4LabelsProfile profile = new Tables4LabelsProfile(constraintTracker);
+        labelProfiles.forEach(profile::merge);
         return profile.finished();
     }
 
@@ -627,40 +712,93 @@ public class Meta {
      * Collects metadata for generating a metadata map based on the provided subgraph and configuration. This method iterates
      * over the labels and relationships in the subgraph, collects various metadata information, and stores it in the
      * metadata map.
+     * When the subgraph is the whole database, each label is examined in its own transaction on the meta pool,
+     * and the partial results are merged in the order of the labels, so they equal the ones of a serial run.
      */
-    private Map<MetadataKey, Map<String, MetaItem>> collectMetaData(SubGraph graph, SampleMetaConfig config) {
+    private Map<MetadataKey, Map<String, MetaItem>> collectMetaData(
+            SubGraph graph, SampleMetaConfig config, boolean wholeDatabase) {
         Map<MetadataKey, Map<String, MetaItem>> metaData = new LinkedHashMap<>(100);
 
         Set<RelationshipType> types = Iterables.asSet(graph.getAllRelationshipTypesInUse());
-        Map<String, Iterable<ConstraintDefinition>> relConstraints = new HashMap<>(20);
+        Map<String, List<ConstraintInfo>> relConstraints = new HashMap<>(20);
         Map<String, Set<String>> relIndexes = new HashMap<>();
         for (RelationshipType type : graph.getAllRelationshipTypesInUse()) {
             metaData.put(new MetadataKey(Types.RELATIONSHIP, type.name()), new LinkedHashMap<>(10));
-            relConstraints.put(type.name(), graph.getConstraints(type));
+            relConstraints.put(type.name(), toConstraintInfos(graph.getConstraints(type)));
             relIndexes.put(type.name(), getIndexedProperties(graph.getIndexes(type)));
         }
+        List<LabelTask> tasks = new ArrayList<>();
         for (Label label : graph.getAllLabelsInUse()) {
-            Map<String, MetaItem> nodeMeta = new LinkedHashMap<>(50);
-            String labelName = label.name();
-            // workaround in case of duplicated keys
-            metaData.put(new MetadataKey(Types.NODE, labelName), nodeMeta);
-            Iterable<ConstraintDefinition> constraints = graph.getConstraints(label);
-            Set<String> indexed = getIndexedProperties(graph.getIndexes(label));
             long labelCount = graph.countsForNode(label);
-            long sample = getSampleForLabelCount(labelCount, config.getSample());
-            Iterator<Node> nodes = graph.findNodes(label);
-            int count = 1;
-            while (nodes.hasNext()) {
-                Node node = nodes.next();
-                if (count++ % sample == 0) {
-                    addRelationships(metaData, nodeMeta, labelName, node, relConstraints, types, relIndexes);
-                    addProperties(nodeMeta, labelName, constraints, indexed, node, node);
+            tasks.add(new LabelTask(
+                    label,
+                    toConstraintInfos(graph.getConstraints(label)),
+                    getIndexedProperties(graph.getIndexes(label)),
+                    labelCount,
+                    getSampleForLabelCount(labelCount, config.getSample())));
+        }
+
+        List<Map<MetadataKey, Map<String, MetaItem>>> labelsMetaData = wholeDatabase
+                ? mapInParallel(
+                        tasks,
+                        (labelTx, task) -> {
+                            try (ResourceIterator<Node> nodes = NodeSampler.findNodes(
+                                    labelTx,
+                                    task.label(),
+                                    task.count(),
+                                    task.sample(),
+                                    config.isPartitionedSampling())) {
+                                return collectMetaData(task, nodes, types, relConstraints, relIndexes);
+                            }
+                        })
+                : tasks.stream()
+                        .map(task -> collectMetaData(
+                                task,
+                                NodeSampler.strided(graph.findNodes(task.label()), task.sample()),
+                                types,
+                                relConstraints,
+                                relIndexes))
+                        .toList();
+        for (Map<MetadataKey, Map<String, MetaItem>> labelMetaData : labelsMetaData) {
+            labelMetaData.forEach((key, items) -> {
+                Map<String, MetaItem> existing = metaData.putIfAbsent(key, items);
+                if (existing != null) {
+                    // as in a serial run, the first label that met a property wins
+                    items.forEach(existing::putIfAbsent);
                 }
-            }
+            });
+        }
+        return metaData;
+    }
+
+    private Map<MetadataKey, Map<String, MetaItem>> collectMetaData(
+            LabelTask task,
+            Iterator<Node> nodes,
+            Set<RelationshipType> types,
+            Map<String, List<ConstraintInfo>> relConstraints,
+            Map<String, Set<String>> relIndexes) {
+        Map<MetadataKey, Map<String, MetaItem>> metaData = new LinkedHashMap<>();
+        Map<String, MetaItem> nodeMeta = new LinkedHashMap<>(50);
+        String labelName = task.label().name();
+        // workaround in case of duplicated keys
+        metaData.put(new MetadataKey(Types.NODE, labelName), nodeMeta);
+        while (nodes.hasNext()) {
+            Node node = nodes.next();
+            addRelationships(metaData, nodeMeta, labelName, node, relConstraints, types, relIndexes);
+            addProperties(nodeMeta, labelName, task.constraints(), task.indexed(), node, node);
         }
         return metaData;
     }
 
+    private static List<ConstraintInfo> toConstraintInfos(Iterable<ConstraintDefinition> constraints) {
+        List<ConstraintInfo> infos = new ArrayList<>();
+        for (ConstraintDefinition constraint : constraints) {
+            infos.add(new ConstraintInfo(
+                    constraint.getConstraintType(), Iterables.asList(constraint.getPropertyKeys())));
+        }
+        return infos;
+    }
+
     private Set<String> getIndexedProperties(Iterable<IndexDefinition> indexes) {
         return Iterables.stream(indexes)
                 .map(IndexDefinition::getPropertyKeys)
@@ -844,7 +982,7 @@ public class Meta {
     private void addProperties(
             Map<String, MetaItem> properties,
             String labelName,
-            Iterable<ConstraintDefinition> constraints,
+            List<ConstraintInfo> constraints,
             Set<String> indexed,
             Entity pc,
             Node node) {
@@ -862,7 +1000,7 @@ public class Meta {
             Map<String, MetaItem> nodeMeta,
             String labelName,
             Node node,
-            Map<String, Iterable<ConstraintDefinition>> relConstraints,
+            Map<String, List<ConstraintInfo>> relConstraints,
             Set<RelationshipType> types,
             Map<String, Set<String>> relIndexes) {
         StreamSupport.stream(node.getRelationshipTypes().spliterator(), false)
@@ -874,12 +1012,13 @@ public class Meta {
                     String typeName = type.name();
                     // workaround in case of duplicated keys
 
-                    Iterable<ConstraintDefinition> constraints = relConstraints.get(typeName);
+                    List<ConstraintInfo> constraints = relConstraints.get(typeName);
                     Set<String> indexes = relIndexes.get(typeName);
                     if (!nodeMeta.containsKey(typeName)) nodeMeta.put(typeName, new MetaItem(labelName, typeName));
                     int in = node.getDegree(type, Direction.INCOMING);
 
-                    Map<String, MetaItem> typeMeta = metaData.get(new MetadataKey(Types.RELATIONSHIP, typeName));
+                    Map<String, MetaItem> typeMeta = metaData.computeIfAbsent(
+                            new MetadataKey(Types.RELATIONSHIP, typeName), k -> new LinkedHashMap<>(10));
                     if (!typeMeta.containsKey(labelName)) typeMeta.put(labelName, new MetaItem(typeName, labelName));
                     MetaItem relMeta = nodeMeta.get(typeName);
                     addOtherNodeInfo(node, labelName, out, in, type, relMeta, typeMeta, constraints, indexes);
@@ -894,7 +1033,7 @@ public class Meta {
             RelationshipType type,
             MetaItem relMeta,
             Map<String, MetaItem> typeMeta,
-            Iterable<ConstraintDefinition> relConstraints,
+            List<ConstraintInfo> relConstraints,
             Set<String> indexes) {
         MetaItem relNodeMeta = typeMeta.get(labelName);
         relMeta.elementType(Types.of(node).name());
@@ -911,16 +1050,16 @@ public class Meta {
     }
 
     private void addSchemaInfo(
-            MetaItem res, String prop, Iterable<ConstraintDefinition> constraints, Set<String> indexed, Node node) {
+            MetaItem res, String prop, List<ConstraintInfo> constraints, Set<String> indexed, Node node) {
 
         if (indexed.contains(prop)) {
             res.index = true;
         }
         if (constraints == null) return;
-        for (ConstraintDefinition constraint : constraints) {
-            for (String key : constraint.getPropertyKeys()) {
+        for (ConstraintInfo constraint : constraints) {
+            for (String key : constraint.keys()) {
                 if (key.equals(prop)) {
-                    switch (constraint.getConstraintType()) {
+                    switch (constraint.type()) {
                         case UNIQUENESS -> {
                             res.unique = true;
                             node.getLabels().forEach(l -> {
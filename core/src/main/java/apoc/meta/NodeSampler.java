@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.meta;
+
+import apoc.util.collection.Iterators;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.TokenPredicate;
+import org.neo4j.internal.kernel.api.TokenRead;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptors;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+
+/**
+ * Returns the nodes of a label to be examined by the meta procedures, given the sample stride
+ * computed by {@link Meta#getSampleForLabelCount(long, long)}.
+ *
+ * By default every node of the label is read, and one every `stride` nodes is returned.
+ * With the partitioned sampling the label index is split in partitions, and only the first nodes of
+ * randomly chosen partitions are read, so that about `labelCount / stride` nodes are touched.
+ */
+final class NodeSampler {
+    // how many partitions are asked to the label index for each node to sample
+    private static final int PARTITIONS_PER_SAMPLE = 4;
+    private static final int MAX_PARTITIONS = 10_000;
+
+    private NodeSampler() {}
+
+    static ResourceIterator<Node> findNodes(
+            Transaction tx, Label label, long labelCount, long stride, boolean partitioned) {
+        if (partitioned && stride > 1) {
+            List<Long> ids = sampleIds(tx, label, labelCount, stride);
+            if (ids != null) {
+                Read read = ((InternalTransaction) tx).kernelTransaction().dataRead();
+                return Iterators.asResourceIterator(ids.stream()
+                        .filter(read::nodeExists)
+                        .map(tx::getNodeById)
+                        .iterator());
+            }
+        }
+        return strided(tx.findNodes(label), stride);
+    }
+
+    /**
+     * Returns one node every `stride` nodes of the iterator, all the nodes if the stride is -1 or 1
+     */
+    static ResourceIterator<Node> strided(Iterator<Node> nodes, long stride) {
+        return new ResourceIterator<>() {
+            private long count = 1;
+            private Node next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && nodes.hasNext()) {
+                    Node node = nodes.next();
+                    if (count++ % stride == 0) {
+                        next = node;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Node next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Node node = next;
+                next = null;
+                return node;
+            }
+
+            @Override
+            public void close() {
+                if (nodes instanceof ResourceIterator<Node> resourceIterator) {
+                    resourceIterator.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Picks the ids of the sample through a partitioned scan of the label index.
+     * Returns null if that's not possible, i.e. without a label index or with pending changes in the transaction.
+     */
+    private static List<Long> sampleIds(Transaction tx, Label label, long labelCount, long stride) {
+        if (!(tx instanceof InternalTransaction internalTx)) return null;
+        KernelTransaction ktx = internalTx.kernelTransaction();
+        if (!(ktx instanceof TxStateHolder holder) || holder.hasTxStateWithChanges()) return null;
+        int labelId = ktx.tokenRead().nodeLabel(label.name());
+        Iterator<IndexDescriptor> indexes = ktx.schemaRead().index(SchemaDescriptors.ANY_TOKEN_NODE_SCHEMA_DESCRIPTOR);
+        if (labelId == TokenRead.NO_TOKEN || !indexes.hasNext()) return null;
+
+        long wanted = Math.max(1, labelCount / stride);
+        Read read = ktx.dataRead();
+        PartitionedScan<NodeLabelIndexCursor> scan;
+        try {
+            int desiredPartitions = (int) Math.min(MAX_PARTITIONS, wanted * PARTITIONS_PER_SAMPLE);
+            scan = read.nodeLabelScan(
+                    read.tokenReadSession(indexes.next()),
+                    desiredPartitions,
+                    ktx.cursorContext(),
+                    new TokenPredicate(labelId));
+        } catch (KernelException e) {
+            return null;
+        }
+
+        int partitions = scan.getNumberOfPartitions();
+        long perPartition = (wanted + partitions - 1) / partitions;
+        long toChoose = (wanted + perPartition - 1) / perPartition;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> ids = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, wanted));
+        try (NodeLabelIndexCursor cursor = ktx.cursors().allocateNodeLabelIndexCursor(ktx.cursorContext())) {
+            int remaining = partitions;
+            while (toChoose > 0
+                    && scan.reservePartition(cursor, ktx.cursorContext(), ktx.securityContext().mode())) {
+                // selection sampling: every partition has the same chance of being chosen
+                if (random.nextLong(remaining--) < toChoose) {
+                    toChoose--;
+                    for (long taken = 0; taken < perPartition && cursor.next(); taken++) {
+                        ids.add(cursor.nodeReference());
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+}
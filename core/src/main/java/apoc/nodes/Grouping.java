@@ -135,7 +135,7 @@ public class Grouping {
 
         List<Future> futures = new ArrayList<>(1000);
 
-        ExecutorService pool = pools.getDefaultExecutorService();
+        ExecutorService pool = pools.getExecutorService(Pools.Workload.GROUPING);
         for (String labelName : labels) {
             Label label = Label.label(labelName);
             Label[] singleLabel = {label};
@@ -27,15 +27,21 @@ import static org.neo4j.graphdb.QueryExecutionType.QueryType;
 
 import apoc.Pools;
 import apoc.periodic.PeriodicUtils.JobInfo;
+import apoc.util.QueueBasedSpliterator;
+import apoc.util.QueueUtil;
 import apoc.util.Util;
 import apoc.util.collection.Iterables;
 import apoc.util.collection.Iterators;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.lang3.tuple.Pair;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Result;
@@ -61,6 +67,8 @@ public class Periodic {
     public static final Pattern CYPHER_PREFIX_PATTERN = Pattern.compile("^\\s*\\bcypher\\b", Pattern.CASE_INSENSITIVE);
     public static final String CYPHER_RUNTIME_SLOTTED = " runtime=slotted ";
     static final Pattern LIMIT_PATTERN = Pattern.compile("\\slimit\\s", Pattern.CASE_INSENSITIVE);
+    static final int PROGRESS_QUEUE_CAPACITY = 1000;
+    static final long PROGRESS_QUEUE_TIMEOUT_SECONDS = 100;
 
     @Context
     public GraphDatabaseService db;
@@ -99,6 +107,26 @@ public class Periodic {
         return pools.getJobList().entrySet().stream().map((e) -> e.getKey().update(e.getValue()));
     }
 
+    @Procedure("apoc.periodic.pools")
+    @Description(
+            "Returns the size, the active threads, the queue size, the completed tasks and the number of times the caller was blocked for each APOC thread pool.")
+    public Stream<Pools.PoolInfo> pools() {
+        return pools.getPoolInfos();
+    }
+
+    @Procedure("apoc.periodic.checkpoints")
+    @Description(
+            "Returns the checkpoints of the `apoc.periodic.iterate` jobs executed with the `checkpoint` config on the current database.")
+    public Stream<IterateCheckpoint.CheckpointInfo> checkpoints() {
+        return IterateCheckpoint.list(db.databaseName());
+    }
+
+    @Procedure("apoc.periodic.dropCheckpoint")
+    @Description("Removes the given checkpoint, so that the next `apoc.periodic.iterate` using it starts over.")
+    public Stream<IterateCheckpoint.CheckpointInfo> dropCheckpoint(@Name("name") String name) {
+        return IterateCheckpoint.drop(db.databaseName(), name);
+    }
+
     @Procedure(name = "apoc.periodic.commit", mode = Mode.WRITE)
     @Description("Runs the given statement in separate batched transactions.")
     public Stream<RundownResult> commit(
@@ -306,40 +334,138 @@ public class Periodic {
         long retries = Util.toLong(config.getOrDefault(
                 "retries", 0)); // todo sleep/delay or push to end of batch to try again or immediate ?
         int failedParams = Util.toInteger(config.getOrDefault("failedParams", -1));
+        BatchSizer batchSizer = BatchSizer.fromConfig(config, (int) batchSize, concurrency);
+        int queueCapacity = Util.toInteger(
+                config.getOrDefault("queueCapacity", PeriodicUtils.defaultQueueCapacity(parallel, concurrency)));
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity parameter must be > 0");
+        }
 
         BatchMode batchMode = BatchMode.fromConfig(config);
         Map<String, Object> params = (Map<String, Object>) config.getOrDefault("params", Collections.emptyMap());
-
-        try (Result result = tx.execute(slottedRuntime(cypherIterate), params)) {
-            Pair<String, Boolean> prepared =
-                    PeriodicUtils.prepareInnerStatement(cypherAction, batchMode, result.columns(), "_batch");
-            String innerStatement = applyPlanner(prepared.getLeft(), Planner.valueOf((String)
-                    config.getOrDefault("planner", Planner.DEFAULT.name())));
-            boolean iterateList = prepared.getRight();
-            String periodicId = UUID.randomUUID().toString();
-            if (log.isDebugEnabled()) {
-                log.debug(
-                        "Starting periodic iterate from `%s` operation using iteration `%s` in separate thread with id: `%s`",
-                        cypherIterate, cypherAction, periodicId);
+        String checkpointName = (String) config.get("checkpoint");
+        if (checkpointName != null && parallel && config.get("partitionKey") != null) {
+            throw new IllegalArgumentException("The checkpoint config cannot be combined with a partitionKey");
+        }
+        IterateCheckpoint checkpoint = checkpointName == null
+                ? null
+                : IterateCheckpoint.load(
+                        db.databaseName(), checkpointName, cypherIterate, (String) config.get("checkpointKey"), log);
+        Map<String, Object> iterateParams = checkpoint == null ? params : checkpoint.iterateParams(params);
+
+        // in streamProgress mode the iteration runs in a separate transaction, so that, as for the exports,
+        // the intermediate results can be queued and returned while the batches are still being executed
+        boolean streamProgress = Util.toBoolean(config.getOrDefault("streamProgress", false));
+        BlockingQueue<BatchAndTotalResult> queue =
+                streamProgress ? new ArrayBlockingQueue<>(PROGRESS_QUEUE_CAPACITY) : null;
+        IterateProgress progress = streamProgress
+                ? IterateProgress.fromConfig(config, row -> {
+                    // intermediate results are dropped if the client doesn't keep up, keeping room for the final one
+                    if (queue.remainingCapacity() > 2) {
+                        queue.offer(row);
+                    }
+                })
+                : null;
+
+        Function<Transaction, Stream<BatchAndTotalResult>> execution = iterateTx -> {
+            try (Result result = iterateTx.execute(slottedRuntime(cypherIterate), iterateParams)) {
+                Pair<String, Boolean> prepared =
+                        PeriodicUtils.prepareInnerStatement(cypherAction, batchMode, result.columns(), "_batch");
+                String innerStatement = applyPlanner(prepared.getLeft(), Planner.valueOf((String)
+                        config.getOrDefault("planner", Planner.DEFAULT.name())));
+                boolean iterateList = prepared.getRight();
+                String partitionKey = (String) config.get("partitionKey");
+                if (partitionKey != null && !result.columns().contains(partitionKey)) {
+                    throw new IllegalArgumentException("The partitionKey `" + partitionKey
+                            + "` is not one of the columns returned by the iterate statement: " + result.columns());
+                }
+                String checkpointKey = (String) config.get("checkpointKey");
+                if (checkpointKey != null && !result.columns().contains(checkpointKey)) {
+                    throw new IllegalArgumentException("The checkpointKey `" + checkpointKey
+                            + "` is not one of the columns returned by the iterate statement: " + result.columns());
+                }
+                String periodicId = UUID.randomUUID().toString();
+                if (log.isDebugEnabled()) {
+                    log.debug(
+                            "Starting periodic iterate from `%s` operation using iteration `%s` in separate thread with id: `%s`",
+                            cypherIterate, cypherAction, periodicId);
+                }
+                return PeriodicUtils.iterateAndExecuteBatchedInSeparateThread(
+                        db,
+                        terminationGuard,
+                        log,
+                        pools,
+                        batchSizer,
+                        parallel,
+                        iterateList,
+                        retries,
+                        result,
+                        (tx, p) -> {
+                            final Result r = tx.execute(innerStatement, merge(params, p));
+                            Iterators.count(r); // XXX: consume all results
+                            return r.getQueryStatistics();
+                        },
+                        queueCapacity,
+                        partitionKey,
+                        checkpoint,
+                        progress,
+                        failedParams,
+                        periodicId);
             }
-            return PeriodicUtils.iterateAndExecuteBatchedInSeparateThread(
-                    db,
-                    terminationGuard,
-                    log,
-                    pools,
-                    (int) batchSize,
-                    parallel,
-                    iterateList,
-                    retries,
-                    result,
-                    (tx, p) -> {
-                        final Result r = tx.execute(innerStatement, merge(params, p));
-                        Iterators.count(r); // XXX: consume all results
-                        return r.getQueryStatistics();
-                    },
-                    concurrency,
-                    failedParams,
-                    periodicId);
+        };
+        if (!streamProgress) {
+            return execution.apply(tx);
+        }
+        // the driver runs outside the periodic pool, where it would otherwise wait for the batches queued behind it
+        AtomicReference<Transaction> runningTx = new AtomicReference<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        Future<Void> future = Util.inTxFuture(
+                log,
+                pools.getExecutorService(Pools.Workload.PERIODIC_DRIVER),
+                db,
+                iterateTx -> {
+                    runningTx.set(iterateTx);
+                    try {
+                        if (closed.get()) {
+                            iterateTx.terminate();
+                        }
+                        execution.apply(iterateTx).forEach(row -> putProgress(queue, row));
+                        return null;
+                    } finally {
+                        runningTx.set(null);
+                    }
+                },
+                0,
+                _ignored -> {},
+                _ignored -> putProgress(queue, BatchAndTotalResult.EMPTY));
+        QueueBasedSpliterator<BatchAndTotalResult> spliterator =
+                new QueueBasedSpliterator<>(queue, BatchAndTotalResult.EMPTY, terminationGuard, Integer.MAX_VALUE);
+        return Stream.concat(
+                        StreamSupport.stream(spliterator, false), Stream.of(future).flatMap(Periodic::rethrowFailure))
+                // a client that stops reading early, e.g. with a LIMIT, stops the iteration too
+                .onClose(() -> {
+                    closed.set(true);
+                    Transaction iterateTx = runningTx.get();
+                    if (iterateTx != null) {
+                        iterateTx.terminate();
+                    }
+                    future.cancel(true);
+                });
+    }
+
+    private static void putProgress(BlockingQueue<BatchAndTotalResult> queue, BatchAndTotalResult row) {
+        QueueUtil.put(queue, row, PROGRESS_QUEUE_TIMEOUT_SECONDS, false, () -> {});
+    }
+
+    private static Stream<BatchAndTotalResult> rethrowFailure(Future<Void> future) {
+        try {
+            future.get();
+            return Stream.empty();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
     }
 
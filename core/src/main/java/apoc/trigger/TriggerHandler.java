@@ -285,7 +285,7 @@ public class TriggerHandler extends LifecycleAdapter implements TransactionEvent
     private void afterAsync(TransactionData txData) {
         if (hasPhase(Phase.afterAsync)) {
             TriggerMetadata triggerMetadata = TriggerMetadata.from(txData, true);
-            Util.inTxFuture(pools.getDefaultExecutorService(), db, (inner) -> {
+            Util.inTxFuture(pools.getExecutorService(Pools.Workload.TRIGGER), db, (inner) -> {
                 setTriggerMetadata(inner);
                 executeTriggers(inner, triggerMetadata.rebind(inner), Phase.afterAsync);
                 return null;
@@ -22,22 +22,39 @@ import static apoc.ApocConfig.APOC_EXPORT_FILE_ENABLED;
 import static apoc.ApocConfig.APOC_IMPORT_FILE_ENABLED;
 import static apoc.ApocConfig.apocConfig;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import apoc.graph.Graphs;
 import apoc.load.LoadArrow;
 import apoc.meta.Meta;
 import apoc.util.JsonUtil;
 import apoc.util.TestUtil;
+import apoc.util.collection.Iterators;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -236,6 +253,79 @@ public class ArrowTest {
         });
     }
 
+    @Test
+    public void testStreamRoundtripTypedArrowQuery() {
+        // given - when
+        final String returnQuery = "RETURN 1 AS intData," + "'a' AS stringData,"
+                + "[1, 2, 3] AS intArray,"
+                + "[true, false, true] AS boolArray,"
+                + "[1, '2', true, null] AS mixedArray,"
+                + "{foo: 'bar', nested: {values: [1.1, 2.2]}} AS mapData,"
+                + "localdatetime('2015-05-18T19:32:24') AS dateData,"
+                + "date('2020-01-01') AS dayData,"
+                + "duration('P5M1.5D') AS durationData,"
+                + "point({x: 1, y: 2}) AS pointData,"
+                + "[[0]] AS arrayArray";
+        final byte[] byteArray = db.executeTransactionally(
+                "CALL apoc.export.arrow.stream.query($query, {typed: true}) YIELD value AS byteArray",
+                Map.of("query", returnQuery),
+                this::extractByteArray);
+
+        // then
+        final String query = "CALL apoc.load.arrow.stream($byteArray) YIELD value " + "RETURN value";
+        db.executeTransactionally(query, Map.of("byteArray", byteArray), result -> {
+            final Map<String, Object> row = (Map<String, Object>) result.next().get("value");
+            assertEquals(1L, row.get("intData"));
+            assertEquals("a", row.get("stringData"));
+            assertEquals(Arrays.asList(1L, 2L, 3L), row.get("intArray"));
+            assertEquals(Arrays.asList(true, false, true), row.get("boolArray"));
+            assertEquals(Arrays.asList("1", "2", "true", null), row.get("mixedArray"));
+            assertEquals(Map.of("foo", "bar", "nested", Map.of("values", List.of(1.1D, 2.2D))), row.get("mapData"));
+            assertEquals(LocalDateTime.parse("2015-05-18T19:32:24"), row.get("dateData"));
+            assertEquals(LocalDate.parse("2020-01-01"), row.get("dayData"));
+            assertEquals("P5M1DT12H", row.get("durationData").toString());
+            final Map<String, Object> point = new HashMap<>();
+            point.put("crs", "cartesian");
+            point.put("x", 1.0D);
+            point.put("y", 2.0D);
+            point.put("z", null);
+            assertEquals(point, row.get("pointData"));
+            assertEquals(List.of(List.of(0L)), row.get("arrayArray"));
+            return true;
+        });
+    }
+
+    @Test
+    public void testFileRoundtripTypedArrowGraph() {
+        // given - when
+        String file = db.executeTransactionally(
+                "CALL apoc.graph.fromDB('neo4j',{}) yield graph "
+                        + "CALL apoc.export.arrow.graph('graph_typed_test.arrow', graph, {typed: true}) YIELD file "
+                        + "RETURN file",
+                Map.of(),
+                this::extractFileName);
+
+        // then
+        final String query = "CALL apoc.load.arrow($file) YIELD value " + "RETURN value";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final List<Map<String, Object>> actual =
+                    result.stream().map(m -> (Map<String, Object>) m.get("value")).collect(Collectors.toList());
+            assertEquals(3, actual.size());
+            final Map<String, Object> adam = actual.get(0);
+            assertEquals(List.of("User"), adam.get("labels"));
+            assertEquals("Adam", adam.get("name"));
+            assertEquals(List.of("Sam", "Anna", "Grace"), adam.get("kids"));
+            assertEquals(LocalDateTime.parse("2015-05-18T19:32:24"), adam.get("born"));
+            assertEquals(Map.of("crs", "wgs-84-3d", "x", 33.46789D, "y", 13.1D, "z", 100.0D), adam.get("place"));
+            assertEquals(List.of("User"), actual.get(1).get("labels"));
+            final Map<String, Object> knows = actual.get(2);
+            assertEquals("KNOWS", knows.get("<type>"));
+            assertEquals(1993L, knows.get("since"));
+            assertEquals("P5M1DT12H", knows.get("bffSince").toString());
+            return null;
+        });
+    }
+
     @Test
     public void testStreamRoundtripArrowGraph() {
         // given - when
@@ -378,6 +468,125 @@ public class ArrowTest {
         db.executeTransactionally("MATCH (n:ArrowNode) DELETE n");
     }
 
+    @Test
+    public void testFileVolumeArrowQueryWithBatchOutput() {
+        // given - when
+        db.executeTransactionally("UNWIND range(0, 10000 - 1) AS id CREATE (:ArrowNode{id:id})");
+
+        String file = db.executeTransactionally(
+                "CALL apoc.export.arrow.query('volume_batch_test.arrow', 'MATCH (n:ArrowNode) RETURN n.id AS id', {batchSize: 1000}) YIELD file ",
+                Map.of(),
+                this::extractFileName);
+
+        final List<Long> expected = LongStream.range(0, 10000).mapToObj(l -> l).collect(Collectors.toList());
+
+        // then
+        final String query = "CALL apoc.load.arrow($file, {batch: true}) YIELD value "
+                + "RETURN count(*) AS batches, sum(size(value.id)) AS rows, collect(value.id) AS ids";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final Map<String, Object> row = result.next();
+            assertTrue((Long) row.get("batches") > 1);
+            assertEquals(10000L, row.get("rows"));
+            final List<Long> actual = ((List<List<Long>>) row.get("ids"))
+                    .stream()
+                    .flatMap(List::stream)
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+            return null;
+        });
+
+        db.executeTransactionally("MATCH (n:ArrowNode) DELETE n");
+    }
+
+    @Test
+    public void testFileRoundtripArrowAllInParallel() {
+        // given - when
+        String file = db.executeTransactionally(
+                "CALL apoc.export.arrow.all('all_parallel_test.arrow', {parallel: true, batchSize: 1}) YIELD file",
+                Map.of(),
+                this::extractFileName);
+
+        // then
+        final String query = "CALL apoc.load.arrow($file) YIELD value " + "RETURN value";
+        db.executeTransactionally(query, Map.of("file", file), result -> {
+            final List<Map<String, Object>> actual = getActual(result);
+            assertEquals(EXPECTED, actual);
+            return null;
+        });
+    }
+
+    @Test
+    public void testFileVolumeArrowQueryInParallel() {
+        // given
+        db.executeTransactionally("UNWIND range(0, 10000 - 1) AS id CREATE (:ArrowNode{id:id})");
+        final String exportQuery =
+                "CALL apoc.export.arrow.query($file, 'MATCH (n:ArrowNode) RETURN n.id AS id', $config)";
+        final String loadQuery = "CALL apoc.load.arrow($file) YIELD value RETURN value.id AS id";
+
+        // when
+        db.executeTransactionally(
+                exportQuery, Map.of("file", "volume_serial_test.arrow", "config", Map.of("batchSize", 100)));
+        db.executeTransactionally(
+                exportQuery,
+                Map.of(
+                        "file",
+                        "volume_ordered_test.arrow",
+                        "config",
+                        Map.of("batchSize", 100, "parallel", true, "concurrency", 4)));
+        db.executeTransactionally(
+                exportQuery,
+                Map.of(
+                        "file",
+                        "volume_unordered_test.arrow",
+                        "config",
+                        Map.of("batchSize", 100, "parallel", true, "concurrency", 4, "ordered", false)));
+
+        // then
+        final List<Long> serial = db.executeTransactionally(
+                loadQuery, Map.of("file", "volume_serial_test.arrow"), r -> Iterators.asList(r.columnAs("id")));
+        final List<Long> ordered = db.executeTransactionally(
+                loadQuery, Map.of("file", "volume_ordered_test.arrow"), r -> Iterators.asList(r.columnAs("id")));
+        final List<Long> unordered = db.executeTransactionally(
+                loadQuery, Map.of("file", "volume_unordered_test.arrow"), r -> Iterators.asList(r.columnAs("id")));
+        assertEquals(10000, serial.size());
+        assertEquals(serial, ordered);
+        assertEquals(new HashSet<>(serial), new HashSet<>(unordered));
+        assertEquals(serial.size(), unordered.size());
+
+        db.executeTransactionally("MATCH (n:ArrowNode) DELETE n");
+    }
+
+    @Test
+    public void testParallelBatchWriterCloseReleasesTheRunningBatches() throws Exception {
+        final Schema schema = new Schema(List.of(Field.nullable("id", new ArrowType.Int(64, true))));
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (BufferAllocator allocator = new RootAllocator();
+                VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+                ArrowWriter writer =
+                        new ArrowFileWriter(root, null, Channels.newChannel(new ByteArrayOutputStream()))) {
+            final ParallelBatchWriter batchWriter = new ParallelBatchWriter(
+                    root, writer, allocator, executor, new ArrowConfig(Map.of("parallel", true, "concurrency", 4)));
+            final CountDownLatch started = new CountDownLatch(1);
+            batchWriter.submit(batch -> {
+                batch.allocateNew();
+                started.countDown();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            started.await();
+
+            // the running batch is waited for and its root released, so no memory leak is reported
+            batchWriter.close();
+            assertEquals(0L, allocator.getAllocatedMemory());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testValidNonStorableQuery() {
         final List<byte[]> list = db.executeTransactionally(
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.export.arrow;
+
+import static apoc.ApocConfig.APOC_EXPORT_FILE_ENABLED;
+import static apoc.ApocConfig.APOC_IMPORT_FILE_ENABLED;
+import static apoc.ApocConfig.apocConfig;
+import static apoc.util.TestUtil.testCall;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import apoc.load.LoadArrow;
+import apoc.util.TestUtil;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.test.rule.DbmsRule;
+import org.neo4j.test.rule.ImpermanentDbmsRule;
+
+public class ImportArrowTest {
+
+    private static File directory = new File("target/arrow import");
+
+    static { //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+    }
+
+    @ClassRule
+    public static DbmsRule db = new ImpermanentDbmsRule()
+            .withSetting(
+                    GraphDatabaseSettings.load_csv_file_url_root,
+                    directory.toPath().toAbsolutePath());
+
+    @BeforeClass
+    public static void beforeClass() {
+        TestUtil.registerProcedure(db, ExportArrow.class, ImportArrow.class, LoadArrow.class);
+    }
+
+    @AfterClass
+    public static void teardown() {
+        db.shutdown();
+    }
+
+    @Before
+    public void before() {
+        apocConfig().setProperty(APOC_IMPORT_FILE_ENABLED, true);
+        apocConfig().setProperty(APOC_EXPORT_FILE_ENABLED, true);
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+    }
+
+    @Test
+    public void testImportFileRoundtrip() {
+        // given
+        db.executeTransactionally(
+                "CREATE (:User:Admin {name:'Adam', age:42, kids:['Sam','Anna']})-[:KNOWS {since: 1993}]->(:User {name:'Jim'})");
+        final String file = db.executeTransactionally(
+                "CALL apoc.export.arrow.all('import_test.arrow') YIELD file",
+                Map.of(),
+                result -> result.<String>columnAs("file").next());
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        // when
+        testCall(db, "CALL apoc.import.arrow($file)", Map.of("file", file), row -> {
+            assertEquals(2L, row.get("nodes"));
+            assertEquals(1L, row.get("relationships"));
+            assertEquals(5L, row.get("properties"));
+        });
+
+        // then
+        testCall(db, "MATCH (a:User:Admin)-[r:KNOWS]->(b:User) RETURN a, r, b", row -> {
+            final Node adam = (Node) row.get("a");
+            assertEquals("Adam", adam.getProperty("name"));
+            assertEquals(42L, adam.getProperty("age"));
+            assertArrayEquals(new String[] {"Sam", "Anna"}, (String[]) adam.getProperty("kids"));
+            assertEquals(1993L, ((Relationship) row.get("r")).getProperty("since"));
+            assertEquals("Jim", ((Node) row.get("b")).getProperty("name"));
+        });
+    }
+
+    @Test
+    public void testImportStreamInParallel() {
+        // given
+        db.executeTransactionally("UNWIND range(0, 999) AS id CREATE (:ArrowNode {id: id})");
+        db.executeTransactionally(
+                "MATCH (a:ArrowNode), (b:ArrowNode) WHERE b.id = (a.id + 1) % 1000 CREATE (a)-[:NEXT {id: a.id}]->(b)");
+        final List<byte[]> batches = db.executeTransactionally(
+                "CALL apoc.export.arrow.stream.all({batchSize: 100}) YIELD value",
+                Map.of(),
+                result -> result.<byte[]>columnAs("value").stream().collect(Collectors.toList()));
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        // when
+        testCall(
+                db,
+                "CALL apoc.import.arrow($batches, {parallel: true, concurrency: 4, batchSize: 50})",
+                Map.of("batches", batches),
+                row -> {
+                    assertEquals(1000L, row.get("nodes"));
+                    assertEquals(1000L, row.get("relationships"));
+                });
+
+        // then
+        testCall(
+                db,
+                "MATCH (a:ArrowNode)-[r:NEXT]->(b:ArrowNode) "
+                        + "RETURN count(*) AS count, sum(CASE WHEN b.id = (a.id + 1) % 1000 AND r.id = a.id THEN 1 END) AS linked",
+                row -> {
+                    assertEquals(1000L, row.get("count"));
+                    assertEquals(1000L, row.get("linked"));
+                });
+    }
+
+    @Test
+    public void testImportStreamInParallelWithCorruptBatch() throws InterruptedException {
+        // given
+        db.executeTransactionally("UNWIND range(0, 999) AS id CREATE (:ArrowNode {id: id})");
+        final List<byte[]> batches = db.executeTransactionally(
+                "CALL apoc.export.arrow.stream.all({batchSize: 100}) YIELD value",
+                Map.of(),
+                result -> result.<byte[]>columnAs("value").stream().collect(Collectors.toList()));
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+        final List<byte[]> input = new ArrayList<>(batches);
+        input.add(Arrays.copyOf(batches.get(0), batches.get(0).length / 2));
+
+        // when
+        assertThrows(
+                QueryExecutionException.class,
+                () -> db.executeTransactionally(
+                        "CALL apoc.import.arrow($batches, {parallel: true, concurrency: 4, batchSize: 10})",
+                        Map.of("batches", input)));
+
+        // then the batches submitted before the failure are either done or dropped, so no more nodes are created
+        long count = TestUtil.singleResultFirstColumn(db, "MATCH (n:ArrowNode) RETURN count(n)");
+        Thread.sleep(500);
+        long countAfterwards = TestUtil.singleResultFirstColumn(db, "MATCH (n:ArrowNode) RETURN count(n)");
+        assertEquals(count, countAfterwards);
+    }
+}
@@ -166,6 +166,33 @@ public class ExportCsvNeo4jAdminTest {
         assertionTestExportForAdminNeo4jImport(GZIP, fileBaseName, GZIP_EXT);
     }
 
+    @Test
+    public void testExportCsvForAdminNeo4jImportInParallelEqualsSequential() {
+        final String query =
+                "CALL apoc.export.csv.all($fileName, {bulkImport: true, separateHeader: true, delim: ';', parallel: $parallel, concurrency: 2})";
+        TestUtil.testCall(
+                db,
+                query,
+                map("fileName", "admin_sequential.csv", "parallel", false),
+                r -> assertEquals(7L, r.get("nodes")));
+        TestUtil.testCall(db, query, map("fileName", "admin_parallel.csv", "parallel", true), r -> {
+            assertEquals(7L, r.get("nodes"));
+            assertEquals(2L, r.get("relationships"));
+            assertEquals(20L, r.get("properties"));
+        });
+
+        // each file of the parallel export has the same name suffix and content as the sequential one
+        final File[] sequentialFiles = directory.listFiles((dir, name) -> name.startsWith("admin_sequential."));
+        assertEquals(14, sequentialFiles.length);
+        for (File sequentialFile : sequentialFiles) {
+            final File parallelFile = new File(
+                    directory, sequentialFile.getName().replace("admin_sequential.", "admin_parallel."));
+            assertEquals(
+                    BinaryTestUtil.readFileToString(sequentialFile, StandardCharsets.UTF_8, CompressionAlgo.NONE),
+                    BinaryTestUtil.readFileToString(parallelFile, StandardCharsets.UTF_8, CompressionAlgo.NONE));
+        }
+    }
+
     private void assertionTestExportForAdminNeo4jImport(
             CompressionAlgo algo, String fileBaseName, String fileExpectedExt) {
         final String fileName = fileBaseName + fileExpectedExt;
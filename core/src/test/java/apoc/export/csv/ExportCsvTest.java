@@ -33,6 +33,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
@@ -45,10 +46,12 @@ import apoc.util.CompressionConfig;
 import apoc.util.TestUtil;
 import apoc.util.Util;
 import apoc.util.collection.Iterators;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -304,6 +307,71 @@ public class ExportCsvTest {
         assertEquals(EXPECTED, readFile(fileName));
     }
 
+    @Test
+    public void testExportAllCsvInParallel() {
+        String fileName = "all_parallel.csv";
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.csv.all($file, {parallel: true, concurrency: 2, batchSize: 1})",
+                map("file", fileName),
+                (r) -> assertResults(fileName, r, "database"));
+        assertEquals(EXPECTED, readFile(fileName));
+    }
+
+    @Test
+    public void testExportAllCsvInParallelWithUncommittedChanges() {
+        String fileName = "all_parallel_uncommitted.csv";
+        // the uncommitted node isn't visible to other transactions, so the export falls back to the serial one
+        TestUtil.testCall(
+                db,
+                "CREATE (:Uncommitted {name: 'pending'}) WITH 1 AS ignored "
+                        + "CALL apoc.export.csv.all($file, {parallel: true, batchSize: 1}) YIELD nodes RETURN nodes",
+                map("file", fileName),
+                (r) -> assertEquals(7L, r.get("nodes")));
+        assertTrue(readFile(fileName).contains("pending"));
+
+        db.executeTransactionally("MATCH (n:Uncommitted) DELETE n");
+    }
+
+    @Test
+    public void testExportAllCsvInSinglePass() {
+        String fileName = "all_single_pass.csv";
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.csv.all($file, {singlePass: true, batchSize: 2})",
+                map("file", fileName),
+                (r) -> assertResults(fileName, r, "database"));
+        assertEquals(EXPECTED, readFile(fileName));
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.csv.all($file, {singlePass: true, quotes: 'none'})",
+                map("file", fileName),
+                (r) -> assertResults(fileName, r, "database"));
+        assertEquals(EXPECTED_NONE_QUOTES, readFile(fileName));
+    }
+
+    @Test
+    public void testExportAllCsvInParallelWithSeparateFiles() {
+        String fileName = "all_parts.csv";
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.csv.all($file, {parallel: true, batchSize: 3, separateFiles: true})",
+                map("file", fileName),
+                (r) -> assertResults(fileName, r, "database"));
+
+        // 6 nodes and 2 relationships in chunks of 3, each part with the header
+        String header = EXPECTED.substring(0, EXPECTED.indexOf('\n') + 1);
+        StringBuilder rows = new StringBuilder();
+        for (int part = 0; part < 3; part++) {
+            String content = readFile(String.format("all_parts.part-%05d.csv", part));
+            assertTrue(content.startsWith(header));
+            rows.append(content.substring(header.length()));
+        }
+        assertFalse(new File(directory, "all_parts.part-00003.csv").exists());
+        assertEquals(EXPECTED, header + rows);
+    }
+
     @Test
     public void testExportAllCsvWithSample() throws IOException {
         db.executeTransactionally(
@@ -527,6 +595,31 @@ public class ExportCsvTest {
         assertExportStreaming(statement, algo);
     }
 
+    @Test
+    public void testExportAllCsvStreamingInChunks() throws Exception {
+        for (CompressionAlgo algo : List.of(NONE, GZIP)) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            List<Map<String, Object>> rows = new ArrayList<>();
+            testResult(
+                    db,
+                    "CALL apoc.export.csv.all(null, {compression: $compression, stream: true, batchSize: 2, streamChunkSize: 16})",
+                    map("compression", algo.name()),
+                    (res) -> res.forEachRemaining(r -> {
+                        byte[] chunk = (byte[]) r.get("data");
+                        assertTrue(chunk.length <= 16);
+                        data.writeBytes(chunk);
+                        rows.add(r);
+                    }));
+            // the chunks are the pieces of a single, possibly compressed, export
+            assertTrue(rows.size() > 1);
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            assertEquals(6L, last.get("nodes"));
+            assertEquals(2L, last.get("relationships"));
+            assertEquals(12L, last.get("properties"));
+            assertEquals(EXPECTED, algo.decompress(data.toByteArray(), UTF_8));
+        }
+    }
+
     private void assertExportStreaming(String statement, CompressionAlgo algo) {
         StringBuilder sb = new StringBuilder();
         testResult(db, statement, (res) -> {
@@ -323,6 +323,114 @@ public class ImportCsvTest {
                 (r) -> assertEquals(664850L, r.get("nodes")));
     }
 
+    @Test
+    public void testImportCsvLargeFileInParallel() {
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [], $config)",
+                map("nodeFile", "file:/largeFile.csv", "config", map("batchSize", 1000L, "parallel", true)),
+                (r) -> assertEquals(664850L, r.get("nodes")));
+        TestUtil.testCall(
+                db, "MATCH (n:Person) RETURN count(n) AS count", (r) -> assertEquals(664850L, r.get("count")));
+    }
+
+    @Test
+    public void testNodesAndRelsWithSpilledIdMapping() throws IOException {
+        StringBuilder nodes = new StringBuilder(":ID|name:STRING\n");
+        StringBuilder rels = new StringBuilder(":START_ID|:END_ID\n");
+        for (int i = 1; i <= 1000; i++) {
+            nodes.append("id-").append(i).append("|name").append(i).append('\n');
+            rels.append("id-").append(i % 10 + 1).append("|id-").append(i).append('\n');
+        }
+        CsvTestUtil.saveCsvFile("spilled-nodes", nodes.toString());
+        CsvTestUtil.saveCsvFile("spilled-rels", rels.toString());
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $relFile, type: 'KNOWS'}], $config)",
+                map(
+                        "nodeFile",
+                        "file:/spilled-nodes.csv",
+                        "relFile",
+                        "file:/spilled-rels.csv",
+                        "config",
+                        map("delimiter", '|', "idMappingHeapBudget", 0L)),
+                (r) -> {
+                    assertEquals(1000L, r.get("nodes"));
+                    assertEquals(1000L, r.get("relationships"));
+                });
+        TestUtil.testCall(
+                db,
+                "MATCH (a:Person)-[:KNOWS]->(b:Person {name: 'name500'}) RETURN a.name AS name",
+                (r) -> assertEquals("name1", r.get("name")));
+    }
+
+    @Test
+    public void testNodesAndRelsInParallel() throws IOException {
+        StringBuilder nodes = new StringBuilder(":ID|name:STRING\n");
+        StringBuilder rels = new StringBuilder(":START_ID|:END_ID|weight:INT\n");
+        for (int i = 1; i <= 1000; i++) {
+            nodes.append(i).append("|name").append(i).append('\n');
+            rels.append(i % 10 + 1).append('|').append(i).append('|').append(i).append('\n');
+        }
+        CsvTestUtil.saveCsvFile("parallel-nodes", nodes.toString());
+        CsvTestUtil.saveCsvFile("parallel-rels", rels.toString());
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.csv([{fileName: $nodeFile, labels: ['Person']}], [{fileName: $relFile, type: 'KNOWS'}], $config)",
+                map(
+                        "nodeFile",
+                        "file:/parallel-nodes.csv",
+                        "relFile",
+                        "file:/parallel-rels.csv",
+                        "config",
+                        map("delimiter", '|', "batchSize", 25L, "parallel", true, "concurrency", 4L)),
+                (r) -> {
+                    assertEquals(1000L, r.get("nodes"));
+                    assertEquals(1000L, r.get("relationships"));
+                    assertEquals(3000L, r.get("properties"));
+                });
+        TestUtil.testCall(
+                db,
+                "MATCH (a:Person)-[r:KNOWS]->(b:Person {name: 'name500'}) RETURN a.name AS name, r.weight AS weight",
+                (r) -> {
+                    assertEquals("name1", r.get("name"));
+                    assertEquals(500L, r.get("weight"));
+                });
+        TestUtil.testCall(
+                db,
+                "MATCH (a:Person {name: 'name3'})-[r:KNOWS]->() RETURN count(r) AS count",
+                (r) -> assertEquals(100L, r.get("count")));
+    }
+
+    @Test
+    public void testNodesInParallelWithFailingSecondFile() throws Exception {
+        StringBuilder nodes = new StringBuilder(":ID|name:STRING\n");
+        for (int i = 1; i <= 1000; i++) {
+            nodes.append(i).append("|name").append(i).append('\n');
+        }
+        CsvTestUtil.saveCsvFile("parallel-first-nodes", nodes.toString());
+
+        assertThrows(
+                QueryExecutionException.class,
+                () -> db.executeTransactionally(
+                        "CALL apoc.import.csv([{fileName: $firstFile, labels: ['Person']}, {fileName: $secondFile, labels: ['Person']}], [], $config)",
+                        map(
+                                "firstFile",
+                                "file:/parallel-first-nodes.csv",
+                                "secondFile",
+                                "file:/missing-nodes.csv",
+                                "config",
+                                map("delimiter", '|', "batchSize", 25L, "parallel", true, "concurrency", 4L))));
+
+        // the batches of the first file are either done or dropped when the call fails, so no more nodes are created
+        long count = TestUtil.singleResultFirstColumn(db, "MATCH (n:Person) RETURN count(n)");
+        Thread.sleep(500);
+        long countAfterwards = TestUtil.singleResultFirstColumn(db, "MATCH (n:Person) RETURN count(n)");
+        assertEquals(count, countAfterwards);
+    }
+
     @Test
     public void testImportCsvTerminate() {
         checkTerminationGuard(
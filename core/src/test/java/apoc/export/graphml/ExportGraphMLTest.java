@@ -137,6 +137,53 @@ public class ExportGraphMLTest {
                 (r) -> assertEquals(1L, r.get("c")));
     }
 
+    @Test
+    public void testImportGraphMLWithCursorParser() throws Exception {
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        File output = new File(directory, "importCursor.graphml");
+        FileWriter fw = new FileWriter(output);
+        fw.write(EXPECTED_TYPES);
+        fw.close();
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.graphml($file,{readLabels:true, cursorParser: true})",
+                map("file", output.getAbsolutePath()),
+                (r) -> assertResults(output, r, "statement"));
+
+        TestUtil.testCall(
+                db,
+                "MATCH  (c:Bar {age: 12, values: [1,2,3]}) RETURN COUNT(c) AS c",
+                null,
+                (r) -> assertEquals(1L, r.get("c")));
+        TestUtil.testCall(
+                db,
+                "MATCH (:Foo {name: 'foo'})-[r:KNOWS]->(:Bar {name: 'bar'}) RETURN COUNT(r) AS c",
+                null,
+                (r) -> assertEquals(1L, r.get("c")));
+    }
+
+    @Test
+    public void testImportGraphMLWithSpilledIdMapping() throws Exception {
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        File output = new File(directory, "importSpilled.graphml");
+        FileWriter fw = new FileWriter(output);
+        fw.write(EXPECTED_TYPES);
+        fw.close();
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.graphml($file,{readLabels:true, idMappingHeapBudget: 0})",
+                map("file", output.getAbsolutePath()),
+                (r) -> assertResults(output, r, "statement"));
+
+        TestUtil.testCall(
+                db,
+                "MATCH (:Foo)-[r:KNOWS]->(:Bar) RETURN COUNT(r) AS c",
+                null,
+                (r) -> assertEquals(1L, r.get("c")));
+    }
+
     @Test
     public void testRoundtripInvalidUnicode() {
         String fileName = new File(directory, "allUnicode.graphml").getAbsolutePath();
@@ -188,11 +235,23 @@ public class ExportGraphMLTest {
         testImportInvalidUnicode(file);
     }
 
+    @Test
+    public void testImportInvalidUnicodeFileWithCursorParser() {
+        final String file =
+                ClassLoader.getSystemResource("fileWithUnicode.graphml").toString();
+        testImportInvalidUnicode(file, map("readLabels", true, "cursorParser", true));
+    }
+
     private void testImportInvalidUnicode(String file) {
-        TestUtil.testCall(db, "CALL apoc.import.graphml($file, {readLabels:true})", map("file", file), r -> {
-            assertEquals(true, r.get("done"));
-            assertEquals(1L, r.get("nodes"));
-        });
+        testImportInvalidUnicode(file, map("readLabels", true));
+    }
+
+    private void testImportInvalidUnicode(String file, Map<String, Object> config) {
+        TestUtil.testCall(
+                db, "CALL apoc.import.graphml($file, $config)", map("file", file, "config", config), r -> {
+                    assertEquals(true, r.get("done"));
+                    assertEquals(1L, r.get("nodes"));
+                });
 
         TestUtil.testCall(db, "MATCH (n:Unicode) RETURN n", r -> {
             final Node node = (Node) r.get("n");
@@ -325,6 +384,23 @@ public class ExportGraphMLTest {
         });
     }
 
+    @Test
+    public void testImportGraphMLLargeFileWithCursorParser() {
+        db.executeTransactionally("MATCH (n) DETACH DELETE n");
+
+        final String file = ClassLoader.getSystemResource("largeFile.graphml").toString();
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.graphml($file,{readLabels:true, cursorParser: true})",
+                map("file", file),
+                (r) -> {
+                    assertEquals(335160L, r.get("nodes"));
+                    assertEquals(5666L, r.get("relationships"));
+                    assertEquals(737297L, r.get("properties"));
+                    assertEquals(true, r.get("done"));
+                });
+    }
+
     @Test
     public void testImportGraphMLTerminate() {
         final String file = ClassLoader.getSystemResource("largeFile.graphml").toString();
@@ -540,6 +616,18 @@ public class ExportGraphMLTest {
         assertXMLEquals(output, EXPECTED_FALSE);
     }
 
+    @Test
+    public void testExportAllGraphMLInParallel() {
+        File output = new File(directory, "all_parallel.graphml");
+        // a batchSize smaller than the default unwindBatchSize needs the optimizations off
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.graphml.all($file, {parallel: true, concurrency: 2, batchSize: 1, useOptimizations: {type: 'NONE'}})",
+                map("file", output.getAbsolutePath()),
+                (r) -> assertResults(output, r, "database"));
+        assertXMLEquals(output, EXPECTED_FALSE);
+    }
+
     @Test
     public void testExportAllGraphMLWithCompression() {
         final CompressionAlgo algo = CompressionAlgo.DEFLATE;
@@ -239,6 +239,60 @@ public class ExportJsonTest {
                 });
     }
 
+    @Test
+    public void testExportAllJsonInParallel() {
+        Map.of(
+                        Format.JSON_LINES.name(),
+                        "all.json",
+                        Format.JSON.name(),
+                        "all_fields.json",
+                        Format.ARRAY_JSON.name(),
+                        "all_array.json",
+                        Format.JSON_ID_AS_KEYS.name(),
+                        "all_id_as_keys.json")
+                .forEach((jsonFormat, fileName) -> {
+                    TestUtil.testCall(
+                            db,
+                            "CALL apoc.export.json.all($file, $config)",
+                            map(
+                                    "file",
+                                    fileName,
+                                    "config",
+                                    map(
+                                            "jsonFormat",
+                                            jsonFormat,
+                                            "parallel",
+                                            true,
+                                            "concurrency",
+                                            2,
+                                            "batchSize",
+                                            1,
+                                            "useOptimizations",
+                                            map("type", "NONE"))),
+                            (r) -> assertResults(fileName, r, "database"));
+                    assertFileEquals(fileName);
+                });
+    }
+
+    @Test
+    public void testExportAllJsonInParallelWithSeparateFiles() {
+        String filename = "all_parts.json";
+        TestUtil.testCall(
+                db,
+                "CALL apoc.export.json.all($file, {parallel: true, batchSize: 2, separateFiles: true, useOptimizations: {type: 'NONE'}})",
+                map("file", filename),
+                (r) -> assertResults(filename, r, "database"));
+
+        // 3 nodes and 1 relationship in chunks of 2
+        List<String> parts = new ArrayList<>();
+        for (int part = 0; part < 3; part++) {
+            File partFile = new File(directory, String.format("all_parts.part-%05d.json", part));
+            parts.add(BinaryTestUtil.readFileToString(partFile, UTF_8, NONE));
+        }
+        assertFalse(new File(directory, "all_parts.part-00003.json").exists());
+        assertStreamEquals("all.json", String.join("\n", parts));
+    }
+
     @Test
     public void testExportAllJsonStreamWithCompression() {
         final CompressionAlgo algo = FRAMED_SNAPPY;
@@ -332,6 +332,30 @@ public class ImportJsonTest {
         assertEntities(NODES_BIG_JSON, RELS_BIG_JSON);
     }
 
+    @Test
+    public void shouldImportAllNodesAndRelsInParallel() {
+        createConstraints(List.of("FirstLabel", "Stream", "User", "Game", "Team", "Language", "$User", "$Stream"));
+        assertEntities(0L, 0L);
+
+        String filename = "multiLabels.json";
+
+        TestUtil.testCall(
+                db,
+                "CALL apoc.import.json($file, {parallel: true, concurrency: 4, unwindBatchSize: 10, txBatchSize: 50})",
+                map("file", filename),
+                (r) -> {
+                    assertEquals(NODES_BIG_JSON, r.get("nodes"));
+                    assertEquals(RELS_BIG_JSON, r.get("relationships"));
+                });
+
+        assertEntities(NODES_BIG_JSON, RELS_BIG_JSON);
+    }
+
+    @Test
+    public void shouldImportAllJsonInParallel() {
+        shouldImportAllCommon(map("parallel", true, "unwindBatchSize", 1), 9, 1L);
+    }
+
     @Test
     public void shouldFailBecauseOfMissingSecondConstraintException() {
         String customId = "customId";
@@ -274,6 +274,58 @@ public class XmlTest {
                 });
     }
 
+    @Test
+    public void testLoadXmlStreamingEqualsDom() {
+        final String books = TestUtil.getUrlFileName("xml/books.xml");
+        final String databases = TestUtil.getUrlFileName("xml/databases.xml");
+        final String mixed = TestUtil.getUrlFileName("xml/mixedcontent.xml");
+        List<List<String>> filesAndPaths = List.of(
+                List.of(books, "/"),
+                List.of(books, "/catalog/book"),
+                List.of(books, "//author"),
+                List.of(books, "/catalog/book[@id=\"bk102\"]/author"),
+                List.of(books, "/catalog//title"),
+                List.of(books, "//book[@id!='bk101']/*"),
+                List.of(books, "//book[@missing]"),
+                List.of(databases, "/parent/child"),
+                List.of(databases, "//grandchild[@name='MySQL']"),
+                List.of(mixed, "/root/text"));
+        for (List<String> fileAndPath : filesAndPaths) {
+            for (boolean simple : List.of(false, true)) {
+                Map<String, Object> params =
+                        map("file", fileAndPath.get(0), "path", fileAndPath.get(1), "simple", simple);
+                List<Object> expected = db.executeTransactionally(
+                        "CALL apoc.load.xml($file, $path, {}, $simple)",
+                        params,
+                        r -> Iterators.asList(r.columnAs("value")));
+                List<Object> actual = db.executeTransactionally(
+                        "CALL apoc.load.xml($file, $path, {streaming: true}, $simple)",
+                        params,
+                        r -> Iterators.asList(r.columnAs("value")));
+                assertEquals(params.toString(), expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testLoadXmlStreamingWithUnsupportedPath() {
+        final String file = TestUtil.getUrlFileName("xml/books.xml");
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.load.xml($file, '/catalog/book[title=\"Midnight Rain\"]', {streaming: true})",
+                        map("file", file),
+                        (r) -> {}));
+        assertTrue(ExceptionUtils.getRootCause(e).getMessage().contains("is not supported in streaming mode"));
+
+        testCall(
+                db,
+                "CALL apoc.load.xml($file, '/catalog/book[1]', {streaming: true, failOnError: false})",
+                map("file", file),
+                (r) -> assertEquals(Collections.emptyMap(), r.get("value")));
+    }
+
     @Test
     public void testLoadXmlXpathGenreFromBookTitle() {
         testCall(
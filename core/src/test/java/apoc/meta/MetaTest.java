@@ -425,6 +425,34 @@ public class MetaTest {
         assertStats(setup, expected);
     }
 
+    @Test
+    public void testMetaStatsWithManyLabelsAndTypes() {
+        // 120 labels x 100 types are enough to read the count store in parallel
+        try (Transaction tx = db.beginTx()) {
+            List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                nodes.add(tx.createNode(Label.label("L" + i)));
+            }
+            for (int i = 0; i < 100; i++) {
+                nodes.get(i).createRelationshipTo(nodes.get(i + 1), RelationshipType.withName("T" + i));
+            }
+            tx.commit();
+        }
+
+        testCall(db, "CALL apoc.meta.stats()", row -> {
+            assertEquals(120L, row.get("labelCount"));
+            assertEquals(100L, row.get("relTypeCount"));
+            Map<String, Object> labels = (Map<String, Object>) row.get("labels");
+            assertEquals(120, labels.size());
+            assertEquals(1L, labels.get("L119"));
+            Map<String, Object> relTypes = (Map<String, Object>) row.get("relTypes");
+            assertEquals(300, relTypes.size());
+            assertEquals(1L, relTypes.get("(:L42)-[:T42]->()"));
+            assertEquals(1L, relTypes.get("()-[:T42]->(:L43)"));
+            assertEquals(1L, relTypes.get("()-[:T42]->()"));
+        });
+    }
+
     @Test
     public void testMetaStats2() {
         final var nodeLabels = List.of("", ":A", ":B", ":A:B");
@@ -1109,6 +1137,24 @@ public class MetaTest {
         });
     }
 
+    @Test
+    public void testMetaDataWithPartitionedSampling() {
+        db.executeTransactionally("UNWIND range(1, 10000) AS id CREATE (:Person {name: 'name' + id})");
+        db.executeTransactionally("UNWIND range(1, 10) AS id CREATE (:City {name: 'city' + id})");
+
+        TestUtil.testResult(db, "CALL apoc.meta.data({sample: 100, partitionedSampling: true})", (r) -> {
+            List<Map<String, Object>> rows = r.stream().toList();
+            assertEquals(2, rows.size());
+            assertThat(rows.stream().map(m -> m.get("label"))).containsExactlyInAnyOrder("Person", "City");
+            assertThat(rows.stream().map(m -> m.get("property"))).containsOnly("name");
+        });
+        TestUtil.testResult(db, "CALL apoc.meta.nodeTypeProperties({sample: 100, partitionedSampling: true})", (r) -> {
+            List<Map<String, Object>> rows = r.stream().toList();
+            assertThat(rows.stream().map(m -> m.get("nodeType"))).containsExactlyInAnyOrder(":`Person`", ":`City`");
+            assertThat(rows.stream().map(m -> m.get("propertyName"))).containsOnly("name");
+        });
+    }
+
     @Test
     public void testSchemaWithSample() {
         db.executeTransactionally("create constraint for (p:Person) require p.name is unique");
@@ -1277,6 +1323,45 @@ public class MetaTest {
         TestUtil.testCallCount(db, "CALL apoc.meta.relTypeProperties()", emptyMap(), 4);
     }
 
+    @Test
+    public void testNodeTypePropertiesMergesLabelProfiles() {
+        db.executeTransactionally("UNWIND range(1, 3) AS id CREATE (:A:B {x: id})");
+        db.executeTransactionally("UNWIND range(1, 2) AS id CREATE (:A {y: 'text'})");
+
+        // the :A:B nodes are profiled by both the scans of A and of B
+        TestUtil.testResult(db, "CALL apoc.meta.nodeTypeProperties({sample: -1})", r -> {
+            List<Map<String, Object>> records = gatherRecords(r);
+            assertEquals(2, records.size());
+            Map<String, Object> ab = records.stream()
+                    .filter(m -> m.get("nodeType").equals(":`A`:`B`"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("x", ab.get("propertyName"));
+            assertEquals(List.of("Long"), ab.get("propertyTypes"));
+            assertEquals(6L, ab.get("propertyObservations"));
+            assertEquals(6L, ab.get("totalObservations"));
+            Map<String, Object> a = records.stream()
+                    .filter(m -> m.get("nodeType").equals(":`A`"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("y", a.get("propertyName"));
+            assertEquals(2L, a.get("totalObservations"));
+        });
+    }
+
+    @Test
+    public void testRelTypePropertiesMaxRelsBoundsAllLabels() {
+        db.executeTransactionally("UNWIND range(1, 10) AS id CREATE (:A:B)-[:R {p: id}]->(:C)");
+
+        // the :A:B nodes are profiled by both the scans of A and of B, which share the maxRels budget
+        TestUtil.testCall(
+                db, "CALL apoc.meta.relTypeProperties({sample: -1, maxRels: 2, includeRels: ['R']})", row -> {
+                    assertEquals("p", row.get("propertyName"));
+                    assertEquals(2L, row.get("propertyObservations"));
+                    assertEquals(20L, row.get("totalObservations"));
+                });
+    }
+
     @Test
     public void testNodeTypePropertiesNodeExcludes() {
         db.executeTransactionally("CREATE (:ExcludeMe)");
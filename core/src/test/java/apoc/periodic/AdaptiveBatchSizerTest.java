@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package apoc.periodic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AdaptiveBatchSizerTest {
+    private static final long TARGET_LATENCY = TimeUnit.SECONDS.toNanos(1);
+    private static final long FAST_BATCH = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final BatchAndTotalCollector collector = new BatchAndTotalCollector(() -> {}, -1);
+
+    @Test
+    public void shrinkConcurrencyOnRetries() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 4, 10, 1000, 1, 8, TARGET_LATENCY);
+        collector.incrementRetried();
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(sizer.onBatchCompleted(100, FAST_BATCH, collector));
+        }
+        assertTrue(sizer.onBatchCompleted(100, FAST_BATCH, collector));
+        assertEquals(2, sizer.getConcurrency());
+        assertEquals(100, sizer.getBatchSize());
+    }
+
+    @Test
+    public void shrinkBatchSizeOnFailuresWithMinConcurrency() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 1, 10, 1000, 1, 8, TARGET_LATENCY);
+        collector.incrementFailedOps(100);
+
+        completeWindow(sizer, 100, FAST_BATCH);
+        assertEquals(1, sizer.getConcurrency());
+        assertEquals(50, sizer.getBatchSize());
+    }
+
+    @Test
+    public void shrinkBatchSizeOnSlowBatches() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 4, 10, 1000, 1, 8, TARGET_LATENCY);
+
+        completeWindow(sizer, 100, 3 * TARGET_LATENCY);
+        assertEquals(50, sizer.getBatchSize());
+        assertEquals(4, sizer.getConcurrency());
+    }
+
+    @Test
+    public void stayWithinBounds() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 2, 10, 400, 1, 4, TARGET_LATENCY);
+
+        for (int i = 0; i < 1000; i++) {
+            sizer.onBatchCompleted(sizer.getBatchSize(), FAST_BATCH, collector);
+            assertTrue(sizer.getBatchSize() >= 10 && sizer.getBatchSize() <= 400);
+            assertTrue(sizer.getConcurrency() >= 1 && sizer.getConcurrency() <= 4);
+        }
+    }
+
+    @Test
+    public void failWithInvalidBounds() {
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> new AdaptiveBatchSizer(100, 4, 200, 1000, 1, 8, TARGET_LATENCY));
+        assertEquals(
+                "adaptive mode requires 0 < minBatchSize <= batchSize <= maxBatchSize, got: 200, 100, 1000",
+                e.getMessage());
+
+        assertThrows(
+                IllegalArgumentException.class, () -> new AdaptiveBatchSizer(100, 4, 10, 1000, 1, 2, TARGET_LATENCY));
+    }
+
+    private void completeWindow(AdaptiveBatchSizer sizer, long rows, long latency) {
+        int window = Math.max(AdaptiveBatchSizer.MIN_WINDOW_BATCHES, sizer.getConcurrency());
+        for (int i = 0; i < window; i++) {
+            sizer.onBatchCompleted(rows, latency, collector);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package apoc.periodic;
 
 import static apoc.periodic.Periodic.applyPlanner;
 import static apoc.util.TestUtil.testCall;
+import static apoc.util.TestUtil.testCallCount;
 import static apoc.util.TestUtil.testResult;
 import static apoc.util.TransactionTestUtil.lastTransactionChecks;
 import static apoc.util.TransactionTestUtil.terminateTransactionAsync;
@@ -49,7 +50,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -486,6 +489,289 @@ public class PeriodicTest {
                 row -> assertEquals(100L, row.get("count")));
     }
 
+    @Test
+    public void testIterateAdaptive() {
+        db.executeTransactionally("UNWIND range(1,1000) AS x CREATE (:Person{name:'Person_'+x})");
+
+        testResult(
+                db,
+                "CALL apoc.periodic.iterate('match (p:Person) return p', 'SET p.lastname =p.name REMOVE p.name', "
+                        + "{batchSize:10, parallel:true, adaptive:true, minBatchSize:5, maxBatchSize:100, maxConcurrency:4, concurrency:2})",
+                result -> {
+                    Map<String, Object> row = Iterators.single(result);
+                    assertEquals(1000L, row.get("total"));
+                    assertEquals(1000L, row.get("committedOperations"));
+                    assertEquals(0L, row.get("failedBatches"));
+                });
+
+        testCall(
+                db,
+                "MATCH (p:Person) where p.lastname is not null return count(p) as count",
+                row -> assertEquals(1000L, row.get("count")));
+    }
+
+    @Test
+    public void testIterateAdaptiveWithInvalidBounds() {
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.periodic.iterate('UNWIND range(1, 10) AS x RETURN x', 'RETURN x', {batchSize:10, adaptive:true, minBatchSize:100})",
+                        row -> fail()));
+        assertThat(ExceptionUtils.getRootCause(e).getMessage())
+                .contains("adaptive mode requires 0 < minBatchSize <= batchSize <= maxBatchSize");
+    }
+
+    @Test
+    public void testIteratePipelineStats() {
+        testResult(
+                db,
+                "CALL apoc.periodic.iterate('UNWIND range(1, 1000) AS x RETURN x', 'CREATE (:Pipeline {x: x})', "
+                        + "{batchSize:10, parallel:true, concurrency:2, queueCapacity:3})",
+                result -> {
+                    Map<String, Object> row = Iterators.single(result);
+                    assertEquals(100L, row.get("batches"));
+                    assertEquals(1000L, row.get("committedOperations"));
+                    Map<String, Object> pipeline = (Map<String, Object>) row.get("pipeline");
+                    assertEquals(3L, pipeline.get("queueCapacity"));
+                    assertThat((long) pipeline.get("maxQueueDepth")).isBetween(1L, 3L);
+                    assertThat((long) pipeline.get("stallMillis")).isNotNegative();
+                    assertThat((long) pipeline.get("readMillis")).isNotNegative();
+                    assertThat((double) pipeline.get("avgQueueDepth")).isBetween(0.0, 3.0);
+                });
+
+        testCall(db, "MATCH (n:Pipeline) RETURN count(n) AS count", row -> assertEquals(1000L, row.get("count")));
+    }
+
+    @Test
+    public void testIterateQueryFailInvalidQueueCapacity() {
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.periodic.iterate('UNWIND range(1, 10) AS x RETURN x', 'RETURN x', {queueCapacity:0})",
+                        row -> fail()));
+        assertThat(ExceptionUtils.getRootCause(e).getMessage()).contains("queueCapacity parameter must be > 0");
+    }
+
+    @Test
+    public void testIterateWithPartitionKey() {
+        db.executeTransactionally("UNWIND range(0, 9) AS id CREATE (:Hub {id: id})");
+
+        testResult(
+                db,
+                "CALL apoc.periodic.iterate('UNWIND range(1, 1000) AS x RETURN x, x % 10 AS hub', "
+                        + "'MATCH (h:Hub {id: hub}) CREATE (h)-[:LEAF]->(:Leaf {x: x})', "
+                        + "{batchSize:10, parallel:true, concurrency:4, partitionKey:'hub'})",
+                result -> {
+                    Map<String, Object> row = Iterators.single(result);
+                    assertEquals(1000L, row.get("total"));
+                    assertEquals(1000L, row.get("committedOperations"));
+                    assertEquals(0L, row.get("failedBatches"));
+                    assertEquals(0L, row.get("retries"));
+                    assertEquals(4L, ((Map<String, Object>) row.get("pipeline")).get("partitions"));
+                });
+
+        testCall(
+                db,
+                "MATCH (:Hub)-[r:LEAF]->(:Leaf) RETURN count(r) AS count",
+                row -> assertEquals(1000L, row.get("count")));
+    }
+
+    @Test
+    public void testIterateQueryFailInvalidPartitionKey() {
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.periodic.iterate('UNWIND range(1, 10) AS x RETURN x', 'RETURN x', {parallel:true, partitionKey:'y'})",
+                        row -> fail()));
+        assertThat(ExceptionUtils.getRootCause(e).getMessage())
+                .contains("The partitionKey `y` is not one of the columns returned by the iterate statement: [x]");
+    }
+
+    @Test
+    public void testIterateStreamProgress() {
+        testResult(
+                db,
+                "CALL apoc.periodic.iterate('UNWIND range(1, 100) AS x RETURN x', 'CREATE (:Progress {x: x})', "
+                        + "{batchSize:10, streamProgress:true, progressBatches:2, expectedRows:100})",
+                result -> {
+                    List<Map<String, Object>> rows = Iterators.asList(result);
+                    assertEquals(6, rows.size());
+                    for (int i = 0; i < 5; i++) {
+                        Map<String, Object> row = rows.get(i);
+                        Map<String, Object> progress = (Map<String, Object>) row.get("progress");
+                        assertEquals((i + 1) * 2L, row.get("batches"));
+                        assertEquals((i + 1) * 20L, row.get("committedOperations"));
+                        assertEquals(false, progress.get("done"));
+                        assertEquals((i + 1) * 20L, progress.get("completedRows"));
+                        assertTrue(progress.get("etaSeconds") instanceof Long);
+                    }
+                    Map<String, Object> last = rows.get(5);
+                    assertEquals(10L, last.get("batches"));
+                    assertEquals(100L, last.get("committedOperations"));
+                    assertEquals(true, ((Map<String, Object>) last.get("progress")).get("done"));
+                });
+        testCall(db, "MATCH (n:Progress) RETURN count(n) AS count", row -> assertEquals(100L, row.get("count")));
+    }
+
+    @Test
+    public void testIterateStreamProgressStopsWhenTheClientStopsReading() throws InterruptedException {
+        testCall(
+                db,
+                "CALL apoc.periodic.iterate('UNWIND range(1, 1000000) AS x RETURN x', 'CREATE (:Stopped {x: x})', "
+                        + "{batchSize:10, streamProgress:true, progressBatches:1}) "
+                        + "YIELD batches RETURN batches LIMIT 1",
+                row -> assertTrue((long) row.get("batches") > 0));
+
+        // the iteration is terminated, so once the running batch is done no more nodes are created
+        Thread.sleep(1000);
+        long count = TestUtil.singleResultFirstColumn(db, "MATCH (n:Stopped) RETURN count(n)");
+        Thread.sleep(500);
+        long countAfterwards = TestUtil.singleResultFirstColumn(db, "MATCH (n:Stopped) RETURN count(n)");
+        assertEquals(count, countAfterwards);
+        assertTrue(count < 1000000L);
+    }
+
+    @Test
+    public void testIterateQueryFailInvalidProgressBatches() {
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.periodic.iterate('UNWIND range(1, 10) AS x RETURN x', 'RETURN x', {streamProgress:true, progressBatches:0})",
+                        row -> fail()));
+        assertThat(ExceptionUtils.getRootCause(e).getMessage()).contains("progressBatches parameter must be > 0");
+    }
+
+    @Test
+    public void testIterateResumesFromCheckpoint() {
+        String query = "CALL apoc.periodic.iterate('UNWIND range(1, 100) AS x RETURN x', "
+                + "'MERGE (n:Checkpointed {x: x}) SET n.y = 1 / (x - $fail)', "
+                + "{batchSize:10, checkpoint:'backfill', params:{fail:$fail}})";
+
+        // the 6th batch fails, so the checkpoint stops before it
+        testCall(db, query, Map.of("fail", 55), row -> {
+            assertEquals(100L, row.get("total"));
+            assertEquals(1L, row.get("failedBatches"));
+        });
+        testCall(db, "CALL apoc.periodic.checkpoints()", row -> {
+            assertEquals("backfill", row.get("name"));
+            assertEquals(50L, row.get("offset"));
+            assertEquals(9L, row.get("committedBatches"));
+            assertEquals(1L, row.get("failedBatches"));
+            assertEquals(false, row.get("completed"));
+        });
+
+        // the resumed run skips the rows before the checkpoint
+        testCall(db, query, Map.of("fail", 0), row -> {
+            assertEquals(50L, row.get("total"));
+            assertEquals(0L, row.get("failedBatches"));
+        });
+        testCall(db, "MATCH (n:Checkpointed) RETURN count(n) AS count", row -> assertEquals(100L, row.get("count")));
+        testCall(db, "CALL apoc.periodic.checkpoints()", row -> {
+            assertEquals(100L, row.get("offset"));
+            assertEquals(true, row.get("completed"));
+        });
+
+        // a completed checkpoint starts over
+        testCall(db, query, Map.of("fail", 0), row -> assertEquals(100L, row.get("total")));
+
+        testCall(db, "CALL apoc.periodic.dropCheckpoint('backfill')", row -> assertEquals("backfill", row.get("name")));
+        testCallCount(db, "CALL apoc.periodic.checkpoints()", 0);
+    }
+
+    @Test
+    public void testIterateResumesFromCheckpointKey() {
+        db.executeTransactionally("UNWIND range(1, 100) AS id CREATE (:Keyed {id: id})");
+        String query = "CALL apoc.periodic.iterate("
+                + "'MATCH (n:Keyed) WHERE $_checkpoint IS NULL OR n.id > $_checkpoint RETURN n, n.id AS id ORDER BY id', "
+                + "'SET n.done = 1 / (id - $fail)', "
+                + "{batchSize:10, checkpoint:'keyed', checkpointKey:'id', params:{fail:$fail}})";
+
+        testCall(db, query, Map.of("fail", 55), row -> assertEquals(1L, row.get("failedBatches")));
+        testCall(db, "CALL apoc.periodic.checkpoints()", row -> assertEquals(50L, row.get("lastKey")));
+
+        testCall(db, query, Map.of("fail", 0), row -> assertEquals(50L, row.get("total")));
+        testCall(
+                db,
+                "MATCH (n:Keyed) WHERE n.done IS NOT NULL RETURN count(n) AS count",
+                row -> assertEquals(100L, row.get("count")));
+        testCall(db, "CALL apoc.periodic.dropCheckpoint('keyed')", row -> assertEquals(true, row.get("completed")));
+    }
+
+    @Test
+    public void testIterateCheckpointStopsAtFailedRowsOneByOne() {
+        String query = "CALL apoc.periodic.iterate('UNWIND range(1, 100) AS x RETURN x', "
+                + "'MERGE (n:CheckpointedOneByOne {x: x}) SET n.y = 1 / (x - 55)', "
+                + "{batchSize:10, iterateList:false, checkpoint:'oneByOne'})";
+
+        testCall(db, query, row -> assertEquals(100L, row.get("total")));
+        // the batch with the failed row doesn't move the checkpoint
+        testCall(db, "CALL apoc.periodic.checkpoints()", row -> {
+            assertEquals(50L, row.get("offset"));
+            assertEquals(false, row.get("completed"));
+        });
+        testCall(db, "CALL apoc.periodic.dropCheckpoint('oneByOne')", row -> assertEquals(50L, row.get("offset")));
+    }
+
+    @Test
+    public void testIterateCheckpointKeyHasToBeScalar() {
+        db.executeTransactionally("UNWIND range(1, 10) AS id CREATE (:KeyedByNode {id: id})");
+        QueryExecutionException e = assertThrows(
+                QueryExecutionException.class,
+                () -> testCall(
+                        db,
+                        "CALL apoc.periodic.iterate('MATCH (n:KeyedByNode) RETURN n', 'SET n.done = true', "
+                                + "{batchSize:5, checkpoint:'byNode', checkpointKey:'n'})",
+                        row -> fail()));
+        assertThat(ExceptionUtils.getRootCause(e).getMessage())
+                .contains("The checkpointKey `n` has to be a scalar value");
+        db.executeTransactionally("CALL apoc.periodic.dropCheckpoint('byNode')");
+    }
+
+    @Test
+    public void testPools() {
+        testResult(
+                db,
+                "CALL apoc.periodic.iterate('UNWIND range(1, 100) AS x RETURN x', 'CREATE (:Pooled {x: x})', {batchSize:10, parallel:true})",
+                result -> assertEquals(100L, Iterators.single(result).get("committedOperations")));
+
+        testResult(db, "CALL apoc.periodic.pools()", result -> {
+            Map<String, Map<String, Object>> pools = Iterators.asList(result).stream()
+                    .collect(Collectors.toMap(row -> (String) row.get("name"), row -> row));
+            assertEquals(
+                    Set.of(
+                            "default",
+                            "single",
+                            "scheduled",
+                            "periodic",
+                            "periodic_driver",
+                            "trigger",
+                            "export",
+                            "grouping",
+                            "meta",
+                            "arrow",
+                            "timeboxed",
+                            "io"),
+                    pools.keySet());
+            assertTrue((long) pools.get("periodic").get("maxThreads") > 0);
+            assertEquals(false, pools.get("io").get("virtualThreads"));
+            assertEquals(0L, pools.get("trigger").get("completedTasks"));
+        });
+
+        // the iterate lanes run on the dedicated pool
+        assertEventually(
+                () -> db.executeTransactionally(
+                        "CALL apoc.periodic.pools() YIELD name, completedTasks WHERE name = 'periodic' RETURN completedTasks",
+                        Map.of(),
+                        result -> (long) Iterators.single(result).get("completedTasks")),
+                value -> value > 0L,
+                5L,
+                TimeUnit.SECONDS);
+    }
+
     @Test
     public void testIterateWithQueryPlanner() {
         db.executeTransactionally("UNWIND range(1,100) AS x CREATE (:Person{name:'Person_'+x})");
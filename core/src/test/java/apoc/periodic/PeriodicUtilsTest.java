@@ -88,4 +88,17 @@ public class PeriodicUtilsTest {
         assertTrue(prepared.getRight());
         assertEquals("UNWIND $_batch AS batch WITH batch.x AS x SET x:Actor", prepared.getLeft());
     }
+
+    @Test
+    public void routeEqualKeysToTheSamePartition() {
+        for (int i = 0; i < 100; i++) {
+            int partition = BatchPipeline.partitionFor("key" + i, 4);
+            assertTrue(partition >= 0 && partition < 4);
+            assertEquals(partition, BatchPipeline.partitionFor("key" + i, 4));
+        }
+        assertEquals(
+                BatchPipeline.partitionFor(new long[] {1, 2}, 8), BatchPipeline.partitionFor(new long[] {1, 2}, 8));
+        assertEquals(BatchPipeline.partitionFor(List.of(1L, 2L), 8), BatchPipeline.partitionFor(List.of(1L, 2L), 8));
+        assertEquals(0, BatchPipeline.partitionFor(null, 1));
+    }
 }
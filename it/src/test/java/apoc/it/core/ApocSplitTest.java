@@ -36,6 +36,9 @@ public class ApocSplitTest {
     public static final Set<String> CORE_PROCEDURES = Set.of(
             "apoc.periodic.truncate",
             "apoc.periodic.list",
+            "apoc.periodic.pools",
+            "apoc.periodic.checkpoints",
+            "apoc.periodic.dropCheckpoint",
             "apoc.periodic.commit",
             "apoc.periodic.cancel",
             "apoc.periodic.submit",
@@ -164,6 +167,7 @@ public class ApocSplitTest {
             "apoc.export.json.graph",
             "apoc.export.json.query",
             "apoc.import.csv",
+            "apoc.import.arrow",
             "apoc.export.csv.all",
             "apoc.export.csv.data",
             "apoc.export.csv.graph",